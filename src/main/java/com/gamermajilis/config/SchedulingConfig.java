@@ -0,0 +1,37 @@
+package com.gamermajilis.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+// @Scheduled jobs get their own pool. Without it they fall back to the STOMP broker's
+// messageBrokerTaskScheduler, so a long job such as chat archival (which sleeps between
+// batches) would hold up heartbeats and the presence and typing flushes.
+@Configuration
+public class SchedulingConfig implements SchedulingConfigurer, DisposableBean {
+
+    @Value("${scheduling.pool-size:4}")
+    private int poolSize;
+
+    private ThreadPoolTaskScheduler taskScheduler;
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setPoolSize(poolSize);
+        taskScheduler.setThreadNamePrefix("scheduled-");
+        taskScheduler.setWaitForTasksToCompleteOnShutdown(false);
+        taskScheduler.initialize();
+        registrar.setTaskScheduler(taskScheduler);
+    }
+
+    @Override
+    public void destroy() {
+        if (taskScheduler != null) {
+            taskScheduler.shutdown();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.gamermajilis.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Full-text search columns and indexes that Hibernate's ddl-auto cannot express.
+// Every statement is idempotent. Indexes are built CONCURRENTLY and do not block writes,
+// but adding a generated STORED column rewrites its table under an ACCESS EXCLUSIVE lock.
+// On a populated database, add the columns as a migration step before deploying (see
+// DOCKER-README.md); startup then finds them and skips the rewrite. Skipped on databases
+// other than PostgreSQL.
+@Component
+public class SearchSchemaInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchSchemaInitializer.class);
+
+    // 'simple' config: no stemming or stop words, which suits mixed-language gaming chat
+    private static final List<String> CHAT_SEARCH_DDL = List.of(
+        "ALTER TABLE chat_messages ADD COLUMN IF NOT EXISTS search_vector tsvector " +
+            "GENERATED ALWAYS AS (to_tsvector('simple', coalesce(content, ''))) STORED",
+        "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_chat_messages_search_vector " +
+            "ON chat_messages USING GIN (search_vector)"
+    );
+
+    // Weighted so title matches outrank tag and hashtag matches, which outrank body matches.
+    // Adding the generated column rewrites the posts table once.
+    private static final List<String> POST_SEARCH_DDL = List.of(
+        "ALTER TABLE posts ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (" +
+            "setweight(to_tsvector('simple', coalesce(title, '')), 'A') || " +
+            "setweight(to_tsvector('simple', coalesce(tags, '') || ' ' || coalesce(hashtags, '')), 'B') || " +
+            "setweight(to_tsvector('simple', coalesce(content, '')), 'C')) STORED",
+        "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_posts_search_vector " +
+            "ON posts USING GIN (search_vector)"
+    );
+
+    // Typo fallback on titles. Kept separate because creating the extension may need a
+    // superuser; without it post search still works, just without the fallback.
+    private static final List<String> POST_TRIGRAM_DDL = List.of(
+        "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+        "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_posts_title_trgm " +
+            "ON posts USING GIN (title gin_trgm_ops)"
+    );
+
+    private static final Pattern CONCURRENT_INDEX = Pattern.compile("^CREATE INDEX CONCURRENTLY IF NOT EXISTS (\\w+) ");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeSearchSchema() {
+        if (!isPostgres()) {
+            logger.info("Skipping full-text search schema setup: database is not PostgreSQL");
+            return;
+        }
+
+        execute("chat message", CHAT_SEARCH_DDL);
+        execute("post", POST_SEARCH_DDL);
+        execute("post trigram", POST_TRIGRAM_DDL);
+    }
+
+    private void execute(String name, List<String> statements) {
+        try {
+            for (String statement : statements) {
+                Matcher index = CONCURRENT_INDEX.matcher(statement);
+                if (index.find()) {
+                    dropIfInvalid(index.group(1));
+                }
+                jdbcTemplate.execute(statement);
+            }
+        } catch (Exception e) {
+            logger.error("Error setting up {} search schema", name, e);
+        }
+    }
+
+    // A failed CONCURRENTLY build leaves an INVALID index behind, which IF NOT EXISTS would
+    // then skip forever. Drop it so it is rebuilt, unless a build is still in progress elsewhere.
+    private void dropIfInvalid(String indexName) {
+        List<String> invalid = jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid " +
+            "WHERE c.relname = ? AND pg_table_is_visible(c.oid) AND NOT i.indisvalid " +
+            "AND NOT EXISTS (SELECT 1 FROM pg_stat_progress_create_index p WHERE p.index_relid = c.oid)",
+            String.class, indexName);
+        if (!invalid.isEmpty()) {
+            logger.warn("Dropping invalid index {} left by an interrupted build; rebuilding it", indexName);
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + indexName);
+        }
+    }
+
+    private boolean isPostgres() {
+        try (Connection connection = dataSource.getConnection()) {
+            return "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        } catch (Exception e) {
+            logger.warn("Could not determine database type: {}", e.getMessage());
+            return false;
+        }
+    }
+}
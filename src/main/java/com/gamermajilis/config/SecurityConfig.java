@@ -91,6 +91,9 @@ public class SecurityConfig {
                         // AI endpoints
                         .requestMatchers("/ai/**").permitAll()
 
+                        // WebSocket handshake (STOMP CONNECT is authenticated with JWT)
+                        .requestMatchers("/ws/**").permitAll()
+
                         // Swagger/OpenAPI endpoints
                         .requestMatchers("/swagger-ui/**", "/swagger-ui.html", "/api-docs/**", "/v3/api-docs/**")
                         .permitAll()
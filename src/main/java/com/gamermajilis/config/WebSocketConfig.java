@@ -1,7 +1,15 @@
 package com.gamermajilis.config;
 
+import com.gamermajilis.security.StompAuthChannelInterceptor;
+import com.gamermajilis.service.ChatNotifyRelay;
+import com.gamermajilis.service.ChatPresenceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
@@ -10,10 +18,70 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Autowired
+    private StompAuthChannelInterceptor stompAuthChannelInterceptor;
+
+    @Autowired
+    private ChatPresenceService chatPresenceService;
+
+    // Only present with chat.broker.mode=postgres
+    @Autowired(required = false)
+    private ChatNotifyRelay chatNotifyRelay;
+
+    // simple: in-memory broker, single node only
+    // relay: external STOMP broker (RabbitMQ, ActiveMQ) shared by all nodes
+    // postgres: in-memory broker on each node, fanned out over PostgreSQL LISTEN/NOTIFY
+    @Value("${chat.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${chat.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${chat.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${chat.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${chat.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy TaskScheduler messageBrokerTaskScheduler) {
+        this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable simple broker for chat destinations
-        config.enableSimpleBroker("/topic", "/queue");
+        switch (brokerMode.toLowerCase()) {
+            case "relay" -> {
+                // User destinations and the user registry are shared through the broker,
+                // so @SendToUser replies reach sessions connected to any node
+                config.enableStompBrokerRelay("/topic", "/queue")
+                        .setRelayHost(relayHost)
+                        .setRelayPort(relayPort)
+                        .setClientLogin(relayLogin)
+                        .setClientPasscode(relayPasscode)
+                        .setSystemLogin(relayLogin)
+                        .setSystemPasscode(relayPasscode)
+                        .setUserDestinationBroadcast("/topic/unresolved-user")
+                        .setUserRegistryBroadcast("/topic/user-registry");
+            }
+            case "simple", "postgres" -> {
+                // Enable simple broker for chat destinations
+                // Heartbeats let ChatPresenceService expire sessions that vanish without DISCONNECT
+                config.enableSimpleBroker("/topic", "/queue")
+                        .setHeartbeatValue(new long[] {10000, 10000})
+                        .setTaskScheduler(messageBrokerTaskScheduler);
+
+                if (chatNotifyRelay != null) {
+                    config.configureBrokerChannel().interceptors(chatNotifyRelay);
+                }
+            }
+            default -> throw new IllegalStateException("Unknown chat.broker.mode: " + brokerMode);
+        }
         
         // Set application destination prefix
         config.setApplicationDestinationPrefixes("/app");
@@ -29,4 +97,11 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
     }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Authenticate CONNECT frames with JWT and guard room subscriptions,
+        // then record session activity for presence tracking
+        registration.interceptors(stompAuthChannelInterceptor, chatPresenceService);
+    }
 }
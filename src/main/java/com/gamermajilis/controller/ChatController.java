@@ -10,6 +10,8 @@ import jakarta.validation.constraints.Size;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -43,7 +45,8 @@ public class ChatController {
             @RequestParam(required = false) Integer maxMembers,
             @RequestParam(required = false) String gameTitle,
             @RequestParam(required = false) Long tournamentId,
-            @RequestParam(required = false) Long eventId) {
+            @RequestParam(required = false) Long eventId,
+            @RequestParam(required = false, defaultValue = "false") Boolean batchedIngestion) {
         
         try {
             Long userId = getUserIdFromRequest(request);
@@ -60,6 +63,7 @@ public class ChatController {
             roomData.put("gameTitle", gameTitle);
             roomData.put("tournamentId", tournamentId);
             roomData.put("eventId", eventId);
+            roomData.put("batchedIngestion", batchedIngestion);
 
             Map<String, Object> response = chatService.createChatRoom(userId, roomData);
             return ResponseEntity.ok(response);
@@ -134,6 +138,28 @@ public class ChatController {
         }
     }
 
+    @PutMapping("/rooms/{roomId}/batched-ingestion")
+    @Operation(summary = "Set batched ingestion", description = "Persist the room's messages in batches (room creator only)")
+    public ResponseEntity<Map<String, Object>> setBatchedIngestion(
+            HttpServletRequest request,
+            @PathVariable Long roomId,
+            @RequestParam boolean enabled) {
+        
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.badRequest().body(createErrorResponse("Authentication required"));
+            }
+
+            Map<String, Object> response = chatService.setBatchedIngestion(userId, roomId, enabled);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("Error updating chat room ingestion mode", e);
+            return ResponseEntity.badRequest().body(createErrorResponse("Failed to update chat room"));
+        }
+    }
+
     @PostMapping("/rooms/{roomId}/leave")
     @Operation(summary = "Leave chat room", description = "Leave a chat room")
     public ResponseEntity<Map<String, Object>> leaveChatRoom(
@@ -155,6 +181,28 @@ public class ChatController {
         }
     }
 
+    @PostMapping("/rooms/{roomId}/read")
+    @Operation(summary = "Mark room as read", description = "Move the read cursor to a message, or to the newest message when none is given")
+    public ResponseEntity<Map<String, Object>> markChatRoomRead(
+            HttpServletRequest request,
+            @PathVariable Long roomId,
+            @RequestParam(required = false) Long messageId) {
+        
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.badRequest().body(createErrorResponse("Authentication required"));
+            }
+
+            Map<String, Object> response = chatService.markChatRoomRead(userId, roomId, messageId);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("Error marking chat room as read", e);
+            return ResponseEntity.badRequest().body(createErrorResponse("Failed to mark chat room as read"));
+        }
+    }
+
     @PostMapping("/rooms/{roomId}/messages")
     @Operation(summary = "Send message", description = "Send a message to a chat room")
     public ResponseEntity<Map<String, Object>> sendMessage(
@@ -188,6 +236,11 @@ public class ChatController {
             messageData.put("file", file);
 
             Map<String, Object> response = chatService.sendMessage(userId, roomId, messageData);
+            if (Boolean.TRUE.equals(response.get("rateLimited"))) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(response.get("retryAfterSeconds")))
+                        .body(response);
+            }
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
@@ -225,6 +278,77 @@ public class ChatController {
         }
     }
 
+    @GetMapping("/rooms/{roomId}/messages/history")
+    @Operation(summary = "Get chat message history", description = "Cursor-paginated chat history, newest first. Pass nextCursor back to continue; afterMessageId pages forward from a known message instead")
+    public ResponseEntity<Map<String, Object>> getChatMessageHistory(
+            HttpServletRequest request,
+            @PathVariable Long roomId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Long afterMessageId,
+            @RequestParam(defaultValue = "50") int size) {
+        
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.badRequest().body(createErrorResponse("Authentication required"));
+            }
+
+            Map<String, Object> response = chatService.getChatMessageHistory(userId, roomId, cursor, afterMessageId, size);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("Error getting chat message history", e);
+            return ResponseEntity.badRequest().body(createErrorResponse("Failed to get messages"));
+        }
+    }
+
+    @GetMapping("/rooms/{roomId}/messages/search")
+    @Operation(summary = "Search messages", description = "Full-text search in a chat room, best matches first with highlighted snippets")
+    public ResponseEntity<Map<String, Object>> searchChatMessages(
+            HttpServletRequest request,
+            @PathVariable Long roomId,
+            @RequestParam @NotBlank @Size(max = 200) String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.badRequest().body(createErrorResponse("Authentication required"));
+            }
+
+            Map<String, Object> response = chatService.searchChatMessages(userId, roomId, q, cursor, size);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("Error searching messages", e);
+            return ResponseEntity.badRequest().body(createErrorResponse("Failed to search messages"));
+        }
+    }
+
+    @GetMapping("/rooms/{roomId}/messages/archive")
+    @Operation(summary = "Get archived messages", description = "Get messages archived past the room's history window for a date range (yyyy-MM-dd)")
+    public ResponseEntity<Map<String, Object>> getArchivedMessages(
+            HttpServletRequest request,
+            @PathVariable Long roomId,
+            @RequestParam String from,
+            @RequestParam(required = false) String to) {
+        
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.badRequest().body(createErrorResponse("Authentication required"));
+            }
+
+            Map<String, Object> response = chatService.getArchivedMessages(userId, roomId, from, to);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("Error getting archived messages", e);
+            return ResponseEntity.badRequest().body(createErrorResponse("Failed to get archived messages"));
+        }
+    }
+
     @DeleteMapping("/messages/{messageId}")
     @Operation(summary = "Delete message", description = "Delete a chat message")
     public ResponseEntity<Map<String, Object>> deleteMessage(
@@ -246,6 +370,28 @@ public class ChatController {
         }
     }
 
+    @PostMapping("/messages/{messageId}/reactions")
+    @Operation(summary = "Toggle reaction", description = "Add or remove the current user's emoji reaction on a message")
+    public ResponseEntity<Map<String, Object>> toggleMessageReaction(
+            HttpServletRequest request,
+            @PathVariable Long messageId,
+            @RequestParam @NotBlank @Size(max = 32) String emoji) {
+        
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.badRequest().body(createErrorResponse("Authentication required"));
+            }
+
+            Map<String, Object> response = chatService.toggleMessageReaction(userId, messageId, emoji);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("Error toggling message reaction", e);
+            return ResponseEntity.badRequest().body(createErrorResponse("Failed to update reaction"));
+        }
+    }
+
     @PostMapping("/rooms/{roomId}/members/{memberId}")
     @Operation(summary = "Add chat room member", description = "Add a member to a chat room")
     public ResponseEntity<Map<String, Object>> addChatRoomMember(
@@ -340,9 +486,10 @@ public class ChatController {
     }
 
     @GetMapping("/online-users")
-    @Operation(summary = "Get online users", description = "Get list of currently online users")
+    @Operation(summary = "Get online users", description = "Get list of currently online users, optionally within a chat room")
     public ResponseEntity<Map<String, Object>> getOnlineUsers(
-            HttpServletRequest request) {
+            HttpServletRequest request,
+            @RequestParam(required = false) Long roomId) {
         
         try {
             Long userId = getUserIdFromRequest(request);
@@ -350,7 +497,7 @@ public class ChatController {
                 return ResponseEntity.badRequest().body(createErrorResponse("Authentication required"));
             }
 
-            Map<String, Object> response = chatService.getOnlineUsers(userId);
+            Map<String, Object> response = chatService.getOnlineUsers(userId, roomId);
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
@@ -0,0 +1,130 @@
+package com.gamermajilis.controller;
+
+import com.gamermajilis.service.ChatService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.Map;
+
+// STOMP counterpart of ChatController. Clients send to /app/chat.* and receive
+// replies on /user/queue/chat.replies; room events fan out on /topic/rooms/{roomId}.
+@Controller
+public class ChatWebSocketController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatWebSocketController.class);
+
+    private static final String REPLY_QUEUE = "/queue/chat.replies";
+
+    @Autowired
+    private ChatService chatService;
+
+    @MessageMapping("/chat.sendMessage")
+    @SendToUser(REPLY_QUEUE)
+    public Map<String, Object> sendMessage(@Payload Map<String, Object> payload, Principal principal) {
+        try {
+            Long userId = getUserId(principal);
+            if (userId == null) {
+                return createErrorResponse("Authentication required");
+            }
+
+            Long roomId = getLong(payload, "roomId");
+            if (roomId == null) {
+                return createErrorResponse("roomId is required");
+            }
+
+            Object content = payload.get("content");
+            if (content instanceof String && ((String) content).length() > 1000) {
+                return createErrorResponse("Message content must not exceed 1000 characters");
+            }
+
+            Map<String, Object> messageData = new HashMap<>();
+            messageData.put("content", content);
+            messageData.put("messageType", payload.getOrDefault("messageType", "TEXT"));
+            messageData.put("replyToMessageId", getLong(payload, "replyToMessageId"));
+
+            return chatService.sendMessage(userId, roomId, messageData);
+
+        } catch (Exception e) {
+            logger.error("Error sending message over WebSocket", e);
+            return createErrorResponse("Failed to send message");
+        }
+    }
+
+    @MessageMapping("/chat.deleteMessage")
+    @SendToUser(REPLY_QUEUE)
+    public Map<String, Object> deleteMessage(@Payload Map<String, Object> payload, Principal principal) {
+        try {
+            Long userId = getUserId(principal);
+            if (userId == null) {
+                return createErrorResponse("Authentication required");
+            }
+
+            Long messageId = getLong(payload, "messageId");
+            if (messageId == null) {
+                return createErrorResponse("messageId is required");
+            }
+
+            return chatService.deleteMessage(userId, messageId);
+
+        } catch (Exception e) {
+            logger.error("Error deleting message over WebSocket", e);
+            return createErrorResponse("Failed to delete message");
+        }
+    }
+
+    // Typing frames are coalesced per room by ChatTypingService, so no reply is sent
+    @MessageMapping("/chat.typing")
+    public void sendTypingIndicator(@Payload Map<String, Object> payload, Principal principal) {
+        try {
+            Long userId = getUserId(principal);
+            Long roomId = getLong(payload, "roomId");
+            if (userId == null || roomId == null) {
+                return;
+            }
+
+            boolean isTyping = !Boolean.FALSE.equals(payload.get("isTyping"));
+            chatService.sendTypingIndicator(userId, roomId, isTyping);
+
+        } catch (Exception e) {
+            logger.error("Error sending typing indicator over WebSocket", e);
+        }
+    }
+
+    // Helper methods
+    private Long getUserId(Principal principal) {
+        if (principal == null) {
+            return null;
+        }
+
+        try {
+            return Long.valueOf(principal.getName());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private Long getLong(Map<String, Object> payload, String key) {
+        Object value = payload.get(key);
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof String && !((String) value).isBlank()) {
+            return Long.valueOf((String) value);
+        }
+        return null;
+    }
+
+    private Map<String, Object> createErrorResponse(String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", message);
+        return response;
+    }
+}
@@ -32,7 +32,7 @@ public class PostController {
     private JwtUtil jwtUtil;
 
     @PostMapping
-    @Operation(summary = "Create new post", description = "Create a new social media post")
+    @Operation(summary = "Create new post", description = "Create a new social media post, optionally scheduled for later with scheduledAt")
     public ResponseEntity<Map<String, Object>> createPost(
             HttpServletRequest request,
             @RequestParam @NotBlank @Size(min = 1, max = 500) String title,
@@ -44,7 +44,8 @@ public class PostController {
             @RequestParam(required = false) String tags,
             @RequestParam(required = false) String hashtags,
             @RequestParam(required = false) List<Long> mediaIds,
-            @RequestParam(required = false, defaultValue = "PUBLIC") String visibility) {
+            @RequestParam(required = false, defaultValue = "PUBLIC") String visibility,
+            @RequestParam(required = false) String scheduledAt) {
         
         try {
             Long userId = getUserIdFromRequest(request);
@@ -63,6 +64,7 @@ public class PostController {
             postData.put("hashtags", hashtags);
             postData.put("mediaIds", mediaIds);
             postData.put("visibility", visibility);
+            postData.put("scheduledAt", scheduledAt);
 
             Map<String, Object> response = postService.createPost(userId, postData);
             return ResponseEntity.ok(response);
@@ -118,6 +120,28 @@ public class PostController {
         }
     }
 
+    @GetMapping("/feed/home")
+    @Operation(summary = "Get home feed", description = "Get posts from followed users and game categories, newest first, using cursor pagination")
+    public ResponseEntity<Map<String, Object>> getHomeFeed(
+            HttpServletRequest request,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.badRequest().body(createErrorResponse("Authentication required"));
+            }
+
+            Map<String, Object> response = postService.getHomeFeed(userId, cursor, size);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("Error getting home feed", e);
+            return ResponseEntity.badRequest().body(createErrorResponse("Failed to get home feed"));
+        }
+    }
+
     @PutMapping("/{postId}")
     @Operation(summary = "Update post", description = "Update an existing post")
     public ResponseEntity<Map<String, Object>> updatePost(
@@ -222,14 +246,14 @@ public class PostController {
     }
 
     @GetMapping("/{postId}/comments")
-    @Operation(summary = "Get post comments", description = "Get comments for a specific post")
+    @Operation(summary = "Get post comments", description = "Get top-level comments with reply counts and their first replies, paginated by cursor")
     public ResponseEntity<Map<String, Object>> getPostComments(
             @PathVariable Long postId,
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") int size) {
         
         try {
-            Map<String, Object> response = postService.getPostComments(postId, page, size);
+            Map<String, Object> response = postService.getPostComments(postId, cursor, size);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             logger.error("Error getting post comments", e);
@@ -237,6 +261,44 @@ public class PostController {
         }
     }
 
+    @PostMapping("/comments/{commentId}/replies")
+    @Operation(summary = "Reply to comment", description = "Add a reply to a comment")
+    public ResponseEntity<Map<String, Object>> replyToComment(
+            HttpServletRequest request,
+            @PathVariable Long commentId,
+            @RequestParam @NotBlank @Size(min = 1, max = 1000) String content) {
+        
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.badRequest().body(createErrorResponse("Authentication required"));
+            }
+
+            Map<String, Object> response = postService.replyToComment(userId, commentId, content);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("Error replying to comment", e);
+            return ResponseEntity.badRequest().body(createErrorResponse("Failed to add reply"));
+        }
+    }
+
+    @GetMapping("/comments/{commentId}/replies")
+    @Operation(summary = "Get comment replies", description = "Get all replies under a comment in thread order, paginated by cursor")
+    public ResponseEntity<Map<String, Object>> getCommentReplies(
+            @PathVariable Long commentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        try {
+            Map<String, Object> response = postService.getCommentReplies(commentId, cursor, size);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Error getting comment replies", e);
+            return ResponseEntity.badRequest().body(createErrorResponse("Failed to get replies"));
+        }
+    }
+
     @DeleteMapping("/comments/{commentId}")
     @Operation(summary = "Delete comment", description = "Delete a comment")
     public ResponseEntity<Map<String, Object>> deleteComment(
@@ -295,15 +357,15 @@ public class PostController {
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Search posts", description = "Search posts by title, content, or tags")
+    @Operation(summary = "Search posts", description = "Full-text search over title, tags and content, ranked by relevance and recency, using cursor pagination")
     public ResponseEntity<Map<String, Object>> searchPosts(
             @RequestParam String query,
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) String gameCategory) {
         
         try {
-            Map<String, Object> response = postService.searchPosts(query, page, size, gameCategory);
+            Map<String, Object> response = postService.searchPosts(query, cursor, size, gameCategory);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             logger.error("Error searching posts", e);
@@ -311,6 +373,57 @@ public class PostController {
         }
     }
 
+    @GetMapping("/hashtags/trending")
+    @Operation(summary = "Get trending hashtags", description = "Get the most used hashtags on recently published posts")
+    public ResponseEntity<Map<String, Object>> getTrendingHashtags(
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        try {
+            Map<String, Object> response = postService.getTrendingHashtags(limit);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Error getting trending hashtags", e);
+            return ResponseEntity.badRequest().body(createErrorResponse("Failed to get trending hashtags"));
+        }
+    }
+
+    @GetMapping("/hashtags/{hashtag}")
+    @Operation(summary = "Get posts by hashtag", description = "Get public posts with a hashtag, newest first, using cursor pagination")
+    public ResponseEntity<Map<String, Object>> getPostsByHashtag(
+            @PathVariable String hashtag,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        try {
+            Map<String, Object> response = postService.getPostsByHashtag(hashtag, cursor, size);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Error getting posts by hashtag", e);
+            return ResponseEntity.badRequest().body(createErrorResponse("Failed to get hashtag posts"));
+        }
+    }
+
+    @GetMapping("/mentions")
+    @Operation(summary = "Get mentions", description = "Get public posts that mention the current user, newest first, using cursor pagination")
+    public ResponseEntity<Map<String, Object>> getMentions(
+            HttpServletRequest request,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.badRequest().body(createErrorResponse("Authentication required"));
+            }
+
+            Map<String, Object> response = postService.getMentions(userId, cursor, size);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Error getting mentions", e);
+            return ResponseEntity.badRequest().body(createErrorResponse("Failed to get mentions"));
+        }
+    }
+
     // Helper methods
     private Long getUserIdFromRequest(HttpServletRequest request) {
         String authHeader = request.getHeader("Authorization");
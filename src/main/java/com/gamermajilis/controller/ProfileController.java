@@ -204,6 +204,90 @@ public class ProfileController {
         }
     }
 
+    @PostMapping("/{followedUserId}/follow")
+    @Operation(summary = "Follow user", description = "Follow a user to see their posts in your home feed")
+    public ResponseEntity<Map<String, Object>> followUser(
+            HttpServletRequest request,
+            @PathVariable Long followedUserId) {
+        
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.badRequest().body(createErrorResponse("Authentication required"));
+            }
+
+            Map<String, Object> response = profileService.followUser(userId, followedUserId);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("Error following user", e);
+            return ResponseEntity.badRequest().body(createErrorResponse("Failed to follow user"));
+        }
+    }
+
+    @DeleteMapping("/{followedUserId}/follow")
+    @Operation(summary = "Unfollow user", description = "Stop following a user")
+    public ResponseEntity<Map<String, Object>> unfollowUser(
+            HttpServletRequest request,
+            @PathVariable Long followedUserId) {
+        
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.badRequest().body(createErrorResponse("Authentication required"));
+            }
+
+            Map<String, Object> response = profileService.unfollowUser(userId, followedUserId);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("Error unfollowing user", e);
+            return ResponseEntity.badRequest().body(createErrorResponse("Failed to unfollow user"));
+        }
+    }
+
+    @PostMapping("/me/followed-games")
+    @Operation(summary = "Follow game category", description = "Follow a game category to see its posts in your home feed")
+    public ResponseEntity<Map<String, Object>> followGameCategory(
+            HttpServletRequest request,
+            @RequestParam String gameCategory) {
+        
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.badRequest().body(createErrorResponse("Authentication required"));
+            }
+
+            Map<String, Object> response = profileService.followGameCategory(userId, gameCategory);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("Error following game category", e);
+            return ResponseEntity.badRequest().body(createErrorResponse("Failed to follow game category"));
+        }
+    }
+
+    @DeleteMapping("/me/followed-games")
+    @Operation(summary = "Unfollow game category", description = "Stop following a game category")
+    public ResponseEntity<Map<String, Object>> unfollowGameCategory(
+            HttpServletRequest request,
+            @RequestParam String gameCategory) {
+        
+        try {
+            Long userId = getUserIdFromRequest(request);
+            if (userId == null) {
+                return ResponseEntity.badRequest().body(createErrorResponse("Authentication required"));
+            }
+
+            Map<String, Object> response = profileService.unfollowGameCategory(userId, gameCategory);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("Error unfollowing game category", e);
+            return ResponseEntity.badRequest().body(createErrorResponse("Failed to unfollow game category"));
+        }
+    }
+
     // Helper methods
     private Long getUserIdFromRequest(HttpServletRequest request) {
         String authHeader = request.getHeader("Authorization");
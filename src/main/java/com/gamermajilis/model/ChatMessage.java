@@ -4,12 +4,19 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "chat_messages")
+@Table(name = "chat_messages", indexes = {
+    // Keyset pagination of room history on (chat_room_id, id)
+    @Index(name = "idx_chat_messages_room_id", columnList = "chat_room_id, id"),
+    // Retention cutoff lookups for archival
+    @Index(name = "idx_chat_messages_room_created_at", columnList = "chat_room_id, created_at")
+})
+@DynamicUpdate // Saves must not overwrite reactionCount, which is maintained by atomic updates
 public class ChatMessage {
     
     @Id
@@ -64,10 +71,7 @@ public class ChatMessage {
     @JoinColumn(name = "reply_to_message_id")
     private ChatMessage replyToMessage;
     
-    // Reactions (stored as JSON)
-    @Column(name = "reactions", columnDefinition = "TEXT")
-    private String reactions; // JSON format: {"😀": ["userId1", "userId2"], "👍": ["userId3"]}
-    
+    // Reactions live in chat_message_reactions; this is the denormalized total
     @Column(name = "reaction_count", nullable = false)
     private Integer reactionCount = 0;
     
@@ -170,18 +174,14 @@ public class ChatMessage {
         this.replyToMessage = replyToMessage;
     }
     
-    public String getReactions() {
-        return reactions;
-    }
-    
-    public void setReactions(String reactions) {
-        this.reactions = reactions;
-    }
-    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
     
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
     public String getFileUrl() {
         return fileUrl;
     }
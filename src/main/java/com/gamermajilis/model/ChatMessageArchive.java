@@ -0,0 +1,88 @@
+package com.gamermajilis.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// A gzip-compressed NDJSON block of chat messages that passed their room's
+// messageHistoryDays. One row holds one archival batch of a single room and day.
+@Entity
+@Table(name = "chat_message_archives", indexes = {
+    @Index(name = "idx_chat_message_archives_room_date", columnList = "chat_room_id, archive_date")
+})
+public class ChatMessageArchive {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // Plain column rather than a foreign key, so archives outlive their room
+    @Column(name = "chat_room_id", nullable = false)
+    private Long chatRoomId;
+    
+    @Column(name = "archive_date", nullable = false)
+    private LocalDate archiveDate;
+    
+    @Column(name = "first_message_id", nullable = false)
+    private Long firstMessageId;
+    
+    @Column(name = "last_message_id", nullable = false)
+    private Long lastMessageId;
+    
+    @Column(name = "message_count", nullable = false)
+    private Integer messageCount;
+    
+    @Column(name = "payload", nullable = false)
+    private byte[] payload;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    public ChatMessageArchive() {}
+    
+    public ChatMessageArchive(Long chatRoomId, LocalDate archiveDate, Long firstMessageId, Long lastMessageId,
+                              Integer messageCount, byte[] payload) {
+        this.chatRoomId = chatRoomId;
+        this.archiveDate = archiveDate;
+        this.firstMessageId = firstMessageId;
+        this.lastMessageId = lastMessageId;
+        this.messageCount = messageCount;
+        this.payload = payload;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public Long getChatRoomId() {
+        return chatRoomId;
+    }
+    
+    public LocalDate getArchiveDate() {
+        return archiveDate;
+    }
+    
+    public Long getFirstMessageId() {
+        return firstMessageId;
+    }
+    
+    public Long getLastMessageId() {
+        return lastMessageId;
+    }
+    
+    public Integer getMessageCount() {
+        return messageCount;
+    }
+    
+    public byte[] getPayload() {
+        return payload;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,60 @@
+package com.gamermajilis.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "chat_message_reactions",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"message_id", "user_id", "emoji"}))
+public class ChatMessageReaction {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "message_id", nullable = false)
+    private ChatMessage message;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @Column(name = "emoji", nullable = false, length = 32)
+    private String emoji;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    public ChatMessageReaction() {}
+    
+    public ChatMessageReaction(ChatMessage message, User user, String emoji) {
+        this.message = message;
+        this.user = user;
+        this.emoji = emoji;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public ChatMessage getMessage() {
+        return message;
+    }
+    
+    public User getUser() {
+        return user;
+    }
+    
+    public String getEmoji() {
+        return emoji;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
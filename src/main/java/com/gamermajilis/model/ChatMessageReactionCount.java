@@ -0,0 +1,44 @@
+package com.gamermajilis.model;
+
+import jakarta.persistence.*;
+
+// Per-emoji reaction counter for a message, kept in step with chat_message_reactions
+// by atomic increments so summaries never have to count reaction rows
+@Entity
+@Table(name = "chat_message_reaction_counts",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"message_id", "emoji"}))
+public class ChatMessageReactionCount {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "message_id", nullable = false)
+    private ChatMessage message;
+    
+    @Column(name = "emoji", nullable = false, length = 32)
+    private String emoji;
+    
+    @Column(name = "reaction_count", nullable = false)
+    private Integer reactionCount = 0;
+    
+    public ChatMessageReactionCount() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public ChatMessage getMessage() {
+        return message;
+    }
+    
+    public String getEmoji() {
+        return emoji;
+    }
+    
+    public Integer getReactionCount() {
+        return reactionCount;
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -11,7 +12,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "chat_rooms")
+@Table(name = "chat_rooms",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"direct_user_low_id", "direct_user_high_id"}))
+@DynamicUpdate // Saves only write dirty columns, so they never clobber counters flushed by ChatRoomActivityService
 public class ChatRoom {
     
     @Id
@@ -68,6 +71,10 @@ public class ChatRoom {
     @Column(name = "slow_mode_seconds")
     private Integer slowModeSeconds;
     
+    // High-volume rooms (e.g. tournament finals) persist messages through ChatMessageIngestService
+    @Column(name = "batched_ingestion")
+    private Boolean batchedIngestion = false;
+    
     @Column(name = "is_active", nullable = false)
     private Boolean isActive = true;
     
@@ -88,6 +95,29 @@ public class ChatRoom {
     @Column(name = "last_activity")
     private LocalDateTime lastActivity;
     
+    // Last message snapshot (denormalized so room lists never load messages)
+    @Column(name = "last_message_id")
+    private Long lastMessageId;
+    
+    @Column(name = "last_message_content", columnDefinition = "TEXT")
+    private String lastMessageContent;
+    
+    @Column(name = "last_message_sender_id")
+    private Long lastMessageSenderId;
+    
+    @Column(name = "last_message_sender_name")
+    private String lastMessageSenderName;
+    
+    @Column(name = "last_message_at")
+    private LocalDateTime lastMessageAt;
+    
+    // Direct message participants as (lower id, higher id); unique, so each pair has one room
+    @Column(name = "direct_user_low_id")
+    private Long directUserLowId;
+    
+    @Column(name = "direct_user_high_id")
+    private Long directUserHighId;
+    
     // Timestamps
     @CreationTimestamp
     @Column(name = "created_at", nullable = false)
@@ -243,6 +273,14 @@ public class ChatRoom {
         this.slowModeSeconds = slowModeSeconds;
     }
     
+    public Boolean getBatchedIngestion() {
+        return batchedIngestion;
+    }
+    
+    public void setBatchedIngestion(Boolean batchedIngestion) {
+        this.batchedIngestion = batchedIngestion;
+    }
+    
     public Boolean getIsActive() {
         return isActive;
     }
@@ -283,6 +321,62 @@ public class ChatRoom {
         this.totalMessages = totalMessages;
     }
     
+    public Long getLastMessageId() {
+        return lastMessageId;
+    }
+    
+    public void setLastMessageId(Long lastMessageId) {
+        this.lastMessageId = lastMessageId;
+    }
+    
+    public String getLastMessageContent() {
+        return lastMessageContent;
+    }
+    
+    public void setLastMessageContent(String lastMessageContent) {
+        this.lastMessageContent = lastMessageContent;
+    }
+    
+    public Long getLastMessageSenderId() {
+        return lastMessageSenderId;
+    }
+    
+    public void setLastMessageSenderId(Long lastMessageSenderId) {
+        this.lastMessageSenderId = lastMessageSenderId;
+    }
+    
+    public String getLastMessageSenderName() {
+        return lastMessageSenderName;
+    }
+    
+    public void setLastMessageSenderName(String lastMessageSenderName) {
+        this.lastMessageSenderName = lastMessageSenderName;
+    }
+    
+    public LocalDateTime getLastMessageAt() {
+        return lastMessageAt;
+    }
+    
+    public void setLastMessageAt(LocalDateTime lastMessageAt) {
+        this.lastMessageAt = lastMessageAt;
+    }
+    
+    public Long getDirectUserLowId() {
+        return directUserLowId;
+    }
+    
+    public void setDirectUserLowId(Long directUserLowId) {
+        this.directUserLowId = directUserLowId;
+    }
+    
+    public Long getDirectUserHighId() {
+        return directUserHighId;
+    }
+    
+    public void setDirectUserHighId(Long directUserHighId) {
+        this.directUserHighId = directUserHighId;
+    }
+    
     public LocalDateTime getUpdatedAt() {
         return updatedAt;
     }
@@ -331,6 +425,26 @@ public class ChatRoom {
         this.lastActivity = LocalDateTime.now();
     }
     
+    public void updateLastMessage(ChatMessage message) {
+        this.lastMessageId = message.getId();
+        this.lastMessageContent = message.getContent();
+        this.lastMessageSenderId = message.getSender().getId();
+        this.lastMessageSenderName = message.getSender().getDisplayName();
+        this.lastMessageAt = message.getCreatedAt();
+    }
+    
+    public void clearLastMessage() {
+        this.lastMessageId = null;
+        this.lastMessageContent = null;
+        this.lastMessageSenderId = null;
+        this.lastMessageSenderName = null;
+        this.lastMessageAt = null;
+    }
+    
+    public boolean hasLastMessage() {
+        return this.lastMessageId != null;
+    }
+    
     public boolean hasSlowMode() {
         return this.slowModeSeconds != null && this.slowModeSeconds > 0;
     }
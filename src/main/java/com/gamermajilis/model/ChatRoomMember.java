@@ -41,6 +41,10 @@ public class ChatRoomMember {
     @Column(name = "last_seen")
     private LocalDateTime lastSeen;
     
+    // Read cursor: messages with a higher id count as unread
+    @Column(name = "last_read_message_id")
+    private Long lastReadMessageId;
+    
     @CreationTimestamp
     @Column(name = "joined_at", nullable = false)
     private LocalDateTime joinedAt;
@@ -124,6 +128,14 @@ public class ChatRoomMember {
         this.lastSeen = lastSeen;
     }
     
+    public Long getLastReadMessageId() {
+        return lastReadMessageId;
+    }
+    
+    public void setLastReadMessageId(Long lastReadMessageId) {
+        this.lastReadMessageId = lastReadMessageId;
+    }
+    
     public LocalDateTime getJoinedAt() {
         return joinedAt;
     }
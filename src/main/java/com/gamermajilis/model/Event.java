@@ -149,7 +149,8 @@ public class Event {
     private String tags; // JSON array of tags
     
     // Statistics
-    @Column(name = "view_count", nullable = false)
+    // Written only by ViewCountService increments, never by entity saves
+    @Column(name = "view_count", nullable = false, updatable = false)
     private Long viewCount = 0L;
     
     @Column(name = "interested_count", nullable = false)
@@ -569,10 +570,6 @@ public class Event {
         }
     }
     
-    public void incrementViewCount() {
-        this.viewCount++;
-    }
-    
     public void incrementInterestedCount() {
         this.interestedCount++;
     }
@@ -0,0 +1,55 @@
+package com.gamermajilis.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// One post in a user's materialized home timeline, written by fan-out when a followed
+// author publishes. Post ids grow with time, so the unique (user_id, post_id) index
+// doubles as the timeline order and the keyset for cursor reads.
+@Entity
+@Table(name = "feed_entries",
+       uniqueConstraints = @UniqueConstraint(name = "uk_feed_entries_user_post", columnNames = {"user_id", "post_id"}))
+public class FeedEntry {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // Plain columns rather than foreign keys: entries are written in bulk by native inserts
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "post_id", nullable = false)
+    private Long postId;
+    
+    // Lets an unfollow drop the author's entries without joining posts
+    @Column(name = "author_id", nullable = false)
+    private Long authorId;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    public FeedEntry() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public Long getPostId() {
+        return postId;
+    }
+    
+    public Long getAuthorId() {
+        return authorId;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,51 @@
+package com.gamermajilis.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "game_category_follows",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "game_category"}))
+public class GameCategoryFollow {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @Column(name = "game_category", nullable = false)
+    private String gameCategory;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    public GameCategoryFollow() {}
+    
+    public GameCategoryFollow(User user, String gameCategory) {
+        this.user = user;
+        this.gameCategory = gameCategory;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public User getUser() {
+        return user;
+    }
+    
+    public String getGameCategory() {
+        return gameCategory;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
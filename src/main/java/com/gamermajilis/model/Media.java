@@ -104,7 +104,8 @@ public class Media {
     private User uploader;
     
     // Usage statistics
-    @Column(name = "view_count", nullable = false)
+    // Written only by ViewCountService increments, never by entity saves
+    @Column(name = "view_count", nullable = false, updatable = false)
     private Long viewCount = 0L;
     
     @Column(name = "download_count", nullable = false)
@@ -388,10 +389,6 @@ public class Media {
         return this.mediaType == MediaType.IMAGE;
     }
     
-    public void incrementViewCount() {
-        this.viewCount++;
-    }
-    
     public void incrementDownloadCount() {
         this.downloadCount++;
     }
@@ -7,13 +7,25 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+    // Trending reads walk this index from the top instead of sorting all recent posts
+    @Index(name = "idx_posts_trending_score", columnList = "trending_score"),
+    // Home feed pull path: newest posts per author and per game category
+    @Index(name = "idx_posts_author_id", columnList = "author_id, id"),
+    @Index(name = "idx_posts_game_category", columnList = "game_category, id"),
+    // Due scheduled posts; publishing clears scheduled_at, so only pending posts are in range
+    @Index(name = "idx_posts_scheduled_at", columnList = "scheduled_at")
+})
 public class Post {
     
+    // A post needs e times the engagement to outrank one published this much later
+    public static final double TRENDING_TIME_SCALE_SECONDS = 43200;
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -87,21 +99,31 @@ public class Post {
     private Boolean isNsfw = false;
     
     // Engagement metrics
-    @Column(name = "view_count", nullable = false)
+    // Written only by ViewCountService increments, never by entity saves
+    @Column(name = "view_count", nullable = false, updatable = false)
     private Long viewCount = 0L;
     
-    @Column(name = "like_count", nullable = false)
+    // Written only by atomic increments in PostRepository, never by entity saves
+    @Column(name = "like_count", nullable = false, updatable = false)
     private Long likeCount = 0L;
     
     @Column(name = "dislike_count", nullable = false)
     private Long dislikeCount = 0L;
     
-    @Column(name = "comment_count", nullable = false)
+    // Written only by atomic increments in PostRepository, never by entity saves
+    @Column(name = "comment_count", nullable = false, updatable = false)
     private Long commentCount = 0L;
     
-    @Column(name = "share_count", nullable = false)
+    // Written only by atomic increments in PostRepository, never by entity saves
+    @Column(name = "share_count", nullable = false, updatable = false)
     private Long shareCount = 0L;
     
+    // ln(1 + engagement) plus publish time in TRENDING_TIME_SCALE_SECONDS units. Newer posts
+    // win ties in engagement, and the value only changes when engagement does. Set here on
+    // insert, then recomputed in SQL by the PostRepository counter updates.
+    @Column(name = "trending_score", updatable = false)
+    private Double trendingScore;
+    
     // Comments
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<PostComment> comments = new ArrayList<>();
@@ -235,6 +257,14 @@ public class Post {
         this.publishedAt = publishedAt;
     }
     
+    public LocalDateTime getScheduledAt() {
+        return scheduledAt;
+    }
+    
+    public void setScheduledAt(LocalDateTime scheduledAt) {
+        this.scheduledAt = scheduledAt;
+    }
+    
     // Helper methods
     public boolean isDeleted() {
         return this.deletedAt != null;
@@ -256,20 +286,6 @@ public class Post {
         return !this.attachedMedia.isEmpty();
     }
     
-    public void incrementViewCount() {
-        this.viewCount++;
-    }
-    
-    public void incrementLikeCount() {
-        this.likeCount++;
-    }
-    
-    public void decrementLikeCount() {
-        if (this.likeCount > 0) {
-            this.likeCount--;
-        }
-    }
-    
     public void incrementDislikeCount() {
         this.dislikeCount++;
     }
@@ -280,18 +296,11 @@ public class Post {
         }
     }
     
-    public void incrementCommentCount() {
-        this.commentCount++;
-    }
-    
-    public void decrementCommentCount() {
-        if (this.commentCount > 0) {
-            this.commentCount--;
-        }
-    }
-    
-    public void incrementShareCount() {
-        this.shareCount++;
+    public void refreshTrendingScore() {
+        LocalDateTime rankedAt = this.publishedAt != null ? this.publishedAt
+                : this.createdAt != null ? this.createdAt : LocalDateTime.now();
+        this.trendingScore = Math.log1p(this.likeCount + this.commentCount + this.shareCount)
+                + rankedAt.toEpochSecond(ZoneOffset.UTC) / TRENDING_TIME_SCALE_SECONDS;
     }
     
     public void pin() {
@@ -375,24 +384,20 @@ public class Post {
         this.viewCount = viewCount;
     }
     
-    public void setLikeCount(Long likeCount) {
-        this.likeCount = likeCount;
-    }
-    
     public Long getCommentCount() {
         return commentCount;
     }
     
-    public void setCommentCount(Long commentCount) {
-        this.commentCount = commentCount;
-    }
-    
     public Long getShareCount() {
         return shareCount;
     }
     
-    public void setShareCount(Long shareCount) {
-        this.shareCount = shareCount;
+    public Double getTrendingScore() {
+        return trendingScore;
+    }
+    
+    public void setTrendingScore(Double trendingScore) {
+        this.trendingScore = trendingScore;
     }
     
     public LocalDateTime getUpdatedAt() {
@@ -9,9 +9,24 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "post_comments")
+@Table(name = "post_comments", indexes = {
+    // Top-level comments of a post, newest first
+    @Index(name = "idx_post_comments_post_parent", columnList = "post_id, parent_comment_id, id"),
+    // First replies of each comment on a page
+    @Index(name = "idx_post_comments_parent", columnList = "parent_comment_id, id"),
+    // Subtree reads are range scans over the materialized path
+    @Index(name = "idx_post_comments_path", columnList = "path")
+})
 public class PostComment {
     
+    // Each path segment is an id zero-padded to the width of Long.MAX_VALUE, so
+    // comparing paths as strings orders a thread depth first, oldest reply first
+    public static final int PATH_SEGMENT_WIDTH = 19;
+    
+    public static final int MAX_PATH_LENGTH = 255;
+    
+    public static final int MAX_DEPTH = MAX_PATH_LENGTH / PATH_SEGMENT_WIDTH - 1;
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -33,6 +48,18 @@ public class PostComment {
     @JoinColumn(name = "parent_comment_id")
     private PostComment parentComment;
     
+    // Ids from the top-level comment down to this one; assigned once the id is known
+    @Column(name = "path", length = MAX_PATH_LENGTH)
+    private String path;
+    
+    @Column(name = "depth", nullable = false, columnDefinition = "integer default 0 not null")
+    private Integer depth = 0;
+    
+    // Live direct replies, kept by atomic increments; never written by entity saves
+    @Column(name = "reply_count", nullable = false, updatable = false,
+            columnDefinition = "bigint default 0 not null")
+    private Long replyCount = 0L;
+    
     @Column(name = "like_count", nullable = false)
     private Long likeCount = 0L;
     
@@ -113,6 +140,18 @@ public class PostComment {
         this.parentComment = parentComment;
     }
     
+    public String getPath() {
+        return path;
+    }
+    
+    public Integer getDepth() {
+        return depth;
+    }
+    
+    public Long getReplyCount() {
+        return replyCount;
+    }
+    
     public Long getLikeCount() {
         return likeCount;
     }
@@ -173,6 +212,24 @@ public class PostComment {
         return this.parentComment != null;
     }
     
+    // Places a saved comment in its thread: the parent's path plus its own id
+    public void assignPath() {
+        String segment = String.format("%0" + PATH_SEGMENT_WIDTH + "d", id);
+        if (parentComment == null) {
+            this.path = segment;
+            this.depth = 0;
+        } else {
+            this.path = parentComment.getPath() + segment;
+            this.depth = parentComment.getDepth() + 1;
+        }
+    }
+    
+    // Upper bound of this comment's descendants: every descendant path is this path
+    // followed by digits, so none sorts after this path padded out with nines
+    public String getSubtreeEndPath() {
+        return path + "9".repeat(MAX_PATH_LENGTH - path.length());
+    }
+    
     public boolean isToxic() {
         return this.toxicityScore != null && this.toxicityScore > 0.7;
     }
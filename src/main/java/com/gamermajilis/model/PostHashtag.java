@@ -0,0 +1,46 @@
+package com.gamermajilis.model;
+
+import jakarta.persistence.*;
+
+// One normalized hashtag of a post, parsed from its title, content and hashtags field
+// when the post is written. The unique (hashtag, post_id) index is also the keyset
+// for listing a hashtag's posts newest first.
+@Entity
+@Table(name = "post_hashtags",
+       uniqueConstraints = @UniqueConstraint(name = "uk_post_hashtags_hashtag_post", columnNames = {"hashtag", "post_id"}),
+       indexes = @Index(name = "idx_post_hashtags_post_id", columnList = "post_id"))
+public class PostHashtag {
+    
+    public static final int MAX_LENGTH = 50;
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "post_id", nullable = false)
+    private Long postId;
+    
+    // Lower case, without the leading '#'
+    @Column(name = "hashtag", nullable = false, length = MAX_LENGTH)
+    private String hashtag;
+    
+    public PostHashtag() {}
+    
+    public PostHashtag(Long postId, String hashtag) {
+        this.postId = postId;
+        this.hashtag = hashtag;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public Long getPostId() {
+        return postId;
+    }
+    
+    public String getHashtag() {
+        return hashtag;
+    }
+}
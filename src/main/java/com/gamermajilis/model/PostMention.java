@@ -0,0 +1,42 @@
+package com.gamermajilis.model;
+
+import jakarta.persistence.*;
+
+// A user @mentioned in a post, resolved by display name when the post is written.
+// The unique (mentioned_user_id, post_id) index is the keyset for a user's mentions.
+@Entity
+@Table(name = "post_mentions",
+       uniqueConstraints = @UniqueConstraint(name = "uk_post_mentions_user_post", columnNames = {"mentioned_user_id", "post_id"}),
+       indexes = @Index(name = "idx_post_mentions_post_id", columnList = "post_id"))
+public class PostMention {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "post_id", nullable = false)
+    private Long postId;
+    
+    @Column(name = "mentioned_user_id", nullable = false)
+    private Long mentionedUserId;
+    
+    public PostMention() {}
+    
+    public PostMention(Long postId, Long mentionedUserId) {
+        this.postId = postId;
+        this.mentionedUserId = mentionedUserId;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public Long getPostId() {
+        return postId;
+    }
+    
+    public Long getMentionedUserId() {
+        return mentionedUserId;
+    }
+}
@@ -156,7 +156,8 @@ public class Product {
     private String promotionDescription;
     
     // Analytics and statistics
-    @Column(name = "view_count", nullable = false)
+    // Written only by ViewCountService increments, never by entity saves
+    @Column(name = "view_count", nullable = false, updatable = false)
     private Long viewCount = 0L;
     
     @Column(name = "wishlist_count", nullable = false)
@@ -595,10 +596,6 @@ public class Product {
         return "APPROVED".equals(this.moderationStatus);
     }
     
-    public void incrementViewCount() {
-        this.viewCount++;
-    }
-    
     public void incrementWishlistCount() {
         this.wishlistCount++;
     }
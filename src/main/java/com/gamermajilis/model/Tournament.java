@@ -141,7 +141,8 @@ public class Tournament {
     private String settings; // JSON format for additional settings
     
     // Statistics
-    @Column(name = "view_count", nullable = false)
+    // Written only by ViewCountService increments, never by entity saves
+    @Column(name = "view_count", nullable = false, updatable = false)
     private Long viewCount = 0L;
     
     @Column(name = "spectator_count", nullable = false)
@@ -533,10 +534,6 @@ public class Tournament {
         }
     }
     
-    public void incrementViewCount() {
-        this.viewCount++;
-    }
-    
     public boolean isFull() {
         return this.currentParticipants >= this.maxParticipants;
     }
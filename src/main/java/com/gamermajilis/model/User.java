@@ -89,6 +89,11 @@ public class User {
     @Column(name = "privacy_settings", columnDefinition = "TEXT")
     private String privacySettings; // JSON format
     
+    // Kept in step with user_follows by atomic increments; never written by entity saves
+    @Column(name = "follower_count", nullable = false, updatable = false,
+            columnDefinition = "bigint default 0 not null")
+    private Long followerCount = 0L;
+    
     // Authentication Provider
     @Enumerated(EnumType.STRING)
     @Column(name = "auth_provider", nullable = false)
@@ -290,6 +295,10 @@ public class User {
         this.privacySettings = privacySettings;
     }
     
+    public Long getFollowerCount() {
+        return followerCount;
+    }
+    
     public AuthProvider getAuthProvider() {
         return authProvider;
     }
@@ -0,0 +1,56 @@
+package com.gamermajilis.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "user_follows",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"follower_id", "followed_id"}),
+       indexes = {
+           // Fan-out walks the followers of an author
+           @Index(name = "idx_user_follows_followed_id", columnList = "followed_id")
+       })
+public class UserFollow {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "follower_id", nullable = false)
+    private User follower;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "followed_id", nullable = false)
+    private User followed;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    public UserFollow() {}
+    
+    public UserFollow(User follower, User followed) {
+        this.follower = follower;
+        this.followed = followed;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public User getFollower() {
+        return follower;
+    }
+    
+    public User getFollowed() {
+        return followed;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
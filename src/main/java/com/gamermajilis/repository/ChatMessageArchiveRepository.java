@@ -0,0 +1,16 @@
+package com.gamermajilis.repository;
+
+import com.gamermajilis.model.ChatMessageArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ChatMessageArchiveRepository extends JpaRepository<ChatMessageArchive, Long> {
+    
+    // Archived blocks of a room for a date range, in message order
+    List<ChatMessageArchive> findByChatRoomIdAndArchiveDateBetweenOrderByArchiveDateAscFirstMessageIdAsc(
+        Long chatRoomId, LocalDate fromDate, LocalDate toDate);
+}
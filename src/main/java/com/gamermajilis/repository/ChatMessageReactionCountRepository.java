@@ -0,0 +1,41 @@
+package com.gamermajilis.repository;
+
+import com.gamermajilis.model.ChatMessageReactionCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ChatMessageReactionCountRepository extends JpaRepository<ChatMessageReactionCount, Long> {
+    
+    // Atomically bump the counter, creating it on the first reaction with this emoji
+    @Modifying
+    @Query(value = "INSERT INTO chat_message_reaction_counts (message_id, emoji, reaction_count) " +
+                   "VALUES (:messageId, :emoji, 1) ON CONFLICT (message_id, emoji) " +
+                   "DO UPDATE SET reaction_count = chat_message_reaction_counts.reaction_count + 1",
+           nativeQuery = true)
+    int incrementCount(@Param("messageId") Long messageId, @Param("emoji") String emoji);
+    
+    @Modifying
+    @Query("UPDATE ChatMessageReactionCount c SET c.reactionCount = c.reactionCount - 1 " +
+           "WHERE c.message.id = :messageId AND c.emoji = :emoji AND c.reactionCount > 0")
+    int decrementCount(@Param("messageId") Long messageId, @Param("emoji") String emoji);
+    
+    // Reaction summaries for a page of messages in one query:
+    // [messageId, emoji, count, reacted by the given user]
+    @Query("SELECT c.message.id, c.emoji, c.reactionCount, " +
+           "CASE WHEN EXISTS (SELECT r.id FROM ChatMessageReaction r WHERE r.message.id = c.message.id " +
+           "AND r.emoji = c.emoji AND r.user.id = :userId) THEN true ELSE false END " +
+           "FROM ChatMessageReactionCount c WHERE c.message.id IN :messageIds AND c.reactionCount > 0 " +
+           "ORDER BY c.message.id, c.reactionCount DESC, c.emoji")
+    List<Object[]> findReactionSummaries(@Param("messageIds") Collection<Long> messageIds, @Param("userId") Long userId);
+    
+    @Modifying
+    @Query("DELETE FROM ChatMessageReactionCount c WHERE c.message.id IN :messageIds")
+    int deleteByMessageIdIn(@Param("messageIds") Collection<Long> messageIds);
+}
@@ -0,0 +1,30 @@
+package com.gamermajilis.repository;
+
+import com.gamermajilis.model.ChatMessageReaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface ChatMessageReactionRepository extends JpaRepository<ChatMessageReaction, Long> {
+    
+    // Add a reaction; returns 0 if the user already reacted with this emoji
+    @Modifying
+    @Query(value = "INSERT INTO chat_message_reactions (message_id, user_id, emoji, created_at) " +
+                   "VALUES (:messageId, :userId, :emoji, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertReaction(@Param("messageId") Long messageId, @Param("userId") Long userId, @Param("emoji") String emoji);
+    
+    // Remove a reaction; returns 0 if the user had not reacted with this emoji
+    @Modifying
+    @Query("DELETE FROM ChatMessageReaction r WHERE r.message.id = :messageId AND r.user.id = :userId AND r.emoji = :emoji")
+    int deleteReaction(@Param("messageId") Long messageId, @Param("userId") Long userId, @Param("emoji") String emoji);
+    
+    @Modifying
+    @Query("DELETE FROM ChatMessageReaction r WHERE r.message.id IN :messageIds")
+    int deleteByMessageIdIn(@Param("messageIds") Collection<Long> messageIds);
+}
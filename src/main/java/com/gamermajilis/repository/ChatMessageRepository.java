@@ -4,12 +4,15 @@ import com.gamermajilis.model.ChatMessage;
 import com.gamermajilis.model.MessageType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,12 +39,30 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
            "AND m.deletedAt IS NULL ORDER BY m.createdAt DESC")
     Page<ChatMessage> findMessagesBefore(@Param("roomId") Long roomId, @Param("messageId") Long messageId, Pageable pageable);
     
+    // Keyset history (newest first) served by idx_chat_messages_room_id; Slice skips the count query
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.sender WHERE m.chatRoom.id = :roomId " +
+           "AND m.deletedAt IS NULL ORDER BY m.id DESC")
+    Slice<ChatMessage> findLatestHistory(@Param("roomId") Long roomId, Pageable pageable);
+    
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.sender WHERE m.chatRoom.id = :roomId " +
+           "AND m.id < :beforeId AND m.deletedAt IS NULL ORDER BY m.id DESC")
+    Slice<ChatMessage> findHistoryBefore(@Param("roomId") Long roomId, @Param("beforeId") Long beforeId, Pageable pageable);
+    
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.sender WHERE m.chatRoom.id = :roomId " +
+           "AND m.id > :afterId AND m.deletedAt IS NULL ORDER BY m.id ASC")
+    Slice<ChatMessage> findHistoryAfter(@Param("roomId") Long roomId, @Param("afterId") Long afterId, Pageable pageable);
+    
     // Find message by ID and sender for authorization
     Optional<ChatMessage> findByIdAndSenderIdAndDeletedAtIsNull(Long id, Long senderId);
     
     // Find recent messages in chat room
     List<ChatMessage> findTop50ByChatRoomIdAndDeletedAtIsNullOrderByCreatedAtDesc(Long chatRoomId);
     
+    // Find latest message in chat room (for the last message snapshot)
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.sender WHERE m.chatRoom.id = :roomId " +
+           "AND m.deletedAt IS NULL ORDER BY m.id DESC LIMIT 1")
+    Optional<ChatMessage> findLatestMessageInRoom(@Param("roomId") Long roomId);
+    
     // Count messages in chat room
     long countByChatRoomIdAndDeletedAtIsNull(Long chatRoomId);
     
@@ -56,11 +77,38 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
     Page<ChatMessage> findByChatRoomIdAndFileUrlIsNotNullAndDeletedAtIsNullOrderByCreatedAtDesc(
         Long chatRoomId, Pageable pageable);
     
-    // Search messages in chat room
-    @Query("SELECT m FROM ChatMessage m WHERE m.chatRoom.id = :roomId AND m.deletedAt IS NULL " +
-           "AND LOWER(m.content) LIKE LOWER(CONCAT('%', :query, '%')) " +
-           "ORDER BY m.createdAt DESC")
-    Page<ChatMessage> searchMessagesInRoom(@Param("roomId") Long roomId, @Param("query") String query, Pageable pageable);
+    // Full-text search in a chat room over the GIN-indexed search_vector column (see SearchSchemaInitializer).
+    // Rows: [id, sender_id, sender display_name, created_at, rank, snippet], best match first;
+    // snippets are only built for the returned page.
+    @Query(value = "SELECT hit.id, hit.sender_id, u.display_name, hit.created_at, hit.rank, " +
+                   "ts_headline('simple', hit.content, websearch_to_tsquery('simple', :query), " +
+                   "'StartSel=<mark>, StopSel=</mark>, MaxWords=20, MinWords=5, MaxFragments=2') " +
+                   "FROM (SELECT m.id, m.sender_id, m.content, m.created_at, " +
+                   "ts_rank_cd(m.search_vector, websearch_to_tsquery('simple', :query)) AS rank " +
+                   "FROM chat_messages m WHERE m.chat_room_id = :roomId AND m.deleted_at IS NULL " +
+                   "AND m.search_vector @@ websearch_to_tsquery('simple', :query) " +
+                   "ORDER BY rank DESC, m.id DESC LIMIT :maxResults) hit " +
+                   "JOIN users u ON u.id = hit.sender_id ORDER BY hit.rank DESC, hit.id DESC",
+           nativeQuery = true)
+    List<Object[]> searchMessagesInRoom(@Param("roomId") Long roomId, @Param("query") String query,
+                                        @Param("maxResults") int maxResults);
+    
+    // Next page of searchMessagesInRoom, keyset on (rank, id) of the last row returned
+    @Query(value = "SELECT hit.id, hit.sender_id, u.display_name, hit.created_at, hit.rank, " +
+                   "ts_headline('simple', hit.content, websearch_to_tsquery('simple', :query), " +
+                   "'StartSel=<mark>, StopSel=</mark>, MaxWords=20, MinWords=5, MaxFragments=2') " +
+                   "FROM (SELECT m.id, m.sender_id, m.content, m.created_at, " +
+                   "ts_rank_cd(m.search_vector, websearch_to_tsquery('simple', :query)) AS rank " +
+                   "FROM chat_messages m WHERE m.chat_room_id = :roomId AND m.deleted_at IS NULL " +
+                   "AND m.search_vector @@ websearch_to_tsquery('simple', :query) " +
+                   "AND (ts_rank_cd(m.search_vector, websearch_to_tsquery('simple', :query)), m.id) " +
+                   "< (CAST(:afterRank AS real), :afterId) " +
+                   "ORDER BY rank DESC, m.id DESC LIMIT :maxResults) hit " +
+                   "JOIN users u ON u.id = hit.sender_id ORDER BY hit.rank DESC, hit.id DESC",
+           nativeQuery = true)
+    List<Object[]> searchMessagesInRoomAfter(@Param("roomId") Long roomId, @Param("query") String query,
+                                             @Param("afterRank") float afterRank, @Param("afterId") Long afterId,
+                                             @Param("maxResults") int maxResults);
     
     // Find messages in date range
     @Query("SELECT m FROM ChatMessage m WHERE m.chatRoom.id = :roomId AND m.deletedAt IS NULL " +
@@ -72,4 +120,33 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
     
     // Find messages older than specified date (for cleanup)
     List<ChatMessage> findByChatRoomIdAndCreatedAtBefore(Long chatRoomId, LocalDateTime cutoffDate);
+    
+    // Keep the denormalized reaction total in step with chat_message_reactions
+    @Modifying
+    @Query("UPDATE ChatMessage m SET m.reactionCount = m.reactionCount + :delta WHERE m.id = :messageId")
+    int adjustReactionCount(@Param("messageId") Long messageId, @Param("delta") int delta);
+    
+    // Newest message id in a room, or null if it has none
+    @Query("SELECT MAX(m.id) FROM ChatMessage m WHERE m.chatRoom.id = :roomId")
+    Long findMaxMessageIdInRoom(@Param("roomId") Long roomId);
+    
+    // Newest message past the retention cutoff; the upper bound for archiving a room
+    @Query("SELECT m.id FROM ChatMessage m WHERE m.chatRoom.id = :roomId AND m.createdAt < :cutoff " +
+           "ORDER BY m.createdAt DESC, m.id DESC LIMIT 1")
+    Optional<Long> findArchiveBoundary(@Param("roomId") Long roomId, @Param("cutoff") LocalDateTime cutoff);
+    
+    // Next keyset batch of messages to archive, oldest first
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.sender WHERE m.chatRoom.id = :roomId " +
+           "AND m.id > :afterId AND m.id <= :maxId ORDER BY m.id ASC")
+    List<ChatMessage> findArchiveBatch(@Param("roomId") Long roomId, @Param("afterId") Long afterId,
+                                       @Param("maxId") Long maxId, Pageable pageable);
+    
+    // Detach newer replies from messages that are about to be archived
+    @Modifying
+    @Query("UPDATE ChatMessage m SET m.replyToMessage = null WHERE m.replyToMessage.id IN :messageIds")
+    int clearReplyReferences(@Param("messageIds") Collection<Long> messageIds);
+    
+    @Modifying
+    @Query("DELETE FROM ChatMessage m WHERE m.id IN :messageIds")
+    int deleteByIdIn(@Param("messageIds") Collection<Long> messageIds);
 }
@@ -6,10 +6,12 @@ import com.gamermajilis.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,7 +31,8 @@ public interface ChatRoomMemberRepository extends JpaRepository<ChatRoomMember,
     List<ChatRoomMember> findByChatRoomOrderByJoinedAtAsc(ChatRoom chatRoom);
     
     // Find all chat rooms for a user
-    @Query("SELECT crm FROM ChatRoomMember crm WHERE crm.user = :user AND crm.isBanned = false ORDER BY crm.chatRoom.lastActivity DESC")
+    @Query(value = "SELECT crm FROM ChatRoomMember crm JOIN FETCH crm.chatRoom cr WHERE crm.user = :user AND crm.isBanned = false ORDER BY cr.lastActivity DESC",
+           countQuery = "SELECT COUNT(crm) FROM ChatRoomMember crm WHERE crm.user = :user AND crm.isBanned = false")
     Page<ChatRoomMember> findByUserAndIsBannedFalseOrderByChatRoomLastActivityDesc(@Param("user") User user, Pageable pageable);
     
     // Check if user is member of chat room
@@ -52,4 +55,26 @@ public interface ChatRoomMemberRepository extends JpaRepository<ChatRoomMember,
     
     // Find members by chat room ID
     Page<ChatRoomMember> findByChatRoomIdOrderByJoinedAtAsc(Long chatRoomId, Pageable pageable);
+    
+    // Unread messages per room for one user in a single grouped query: [roomId, count].
+    // Rooms with nothing unread are omitted.
+    @Query("SELECT crm.chatRoom.id, COUNT(m.id) FROM ChatRoomMember crm, ChatMessage m " +
+           "WHERE crm.user.id = :userId AND crm.chatRoom.id IN :roomIds AND crm.isBanned = false " +
+           "AND m.chatRoom.id = crm.chatRoom.id AND m.id > COALESCE(crm.lastReadMessageId, 0) " +
+           "AND m.deletedAt IS NULL AND m.sender.id <> :userId GROUP BY crm.chatRoom.id")
+    List<Object[]> countUnreadMessages(@Param("userId") Long userId, @Param("roomIds") Collection<Long> roomIds);
+    
+    // Move a read cursor forward, never back
+    @Modifying
+    @Query("UPDATE ChatRoomMember crm SET crm.lastReadMessageId = :messageId " +
+           "WHERE crm.chatRoom.id = :roomId AND crm.user.id = :userId " +
+           "AND (crm.lastReadMessageId IS NULL OR crm.lastReadMessageId < :messageId)")
+    int advanceReadCursor(@Param("roomId") Long roomId, @Param("userId") Long userId, @Param("messageId") Long messageId);
+    
+    // Start members that predate read cursors at their room's newest message
+    @Modifying
+    @Query("UPDATE ChatRoomMember crm SET crm.lastReadMessageId = " +
+           "(SELECT COALESCE(MAX(m.id), 0) FROM ChatMessage m WHERE m.chatRoom = crm.chatRoom) " +
+           "WHERE crm.lastReadMessageId IS NULL")
+    int backfillReadCursors();
 }
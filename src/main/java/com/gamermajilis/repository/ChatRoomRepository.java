@@ -5,10 +5,12 @@ import com.gamermajilis.model.ChatRoomType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -40,11 +42,10 @@ public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
     // Find chat rooms by event
     Page<ChatRoom> findByEventIdAndDeletedAtIsNullOrderByCreatedAtDesc(Long eventId, Pageable pageable);
     
-    // Find direct message room between two users
-    @Query("SELECT cr FROM ChatRoom cr JOIN cr.members m1 JOIN cr.members m2 " +
-           "WHERE cr.type = 'DIRECT_MESSAGE' AND cr.deletedAt IS NULL " +
-           "AND m1.user.id = :user1Id AND m2.user.id = :user2Id")
-    Optional<ChatRoom> findDirectMessageRoom(@Param("user1Id") Long user1Id, @Param("user2Id") Long user2Id);
+    // Find direct message room between two users by its canonical (lower id, higher id) pair
+    @Query("SELECT cr FROM ChatRoom cr WHERE cr.directUserLowId = :lowUserId AND cr.directUserHighId = :highUserId " +
+           "AND cr.deletedAt IS NULL")
+    Optional<ChatRoom> findDirectMessageRoom(@Param("lowUserId") Long lowUserId, @Param("highUserId") Long highUserId);
     
     // Search chat rooms
     @Query("SELECT cr FROM ChatRoom cr WHERE cr.deletedAt IS NULL AND cr.isPrivate = false AND cr.isActive = true " +
@@ -58,6 +59,45 @@ public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
     @Query("SELECT cr FROM ChatRoom cr JOIN cr.members m WHERE cr.id = :roomId AND m.user.id = :userId AND cr.deletedAt IS NULL")
     Optional<ChatRoom> findChatRoomForUser(@Param("roomId") Long roomId, @Param("userId") Long userId);
     
+    // Rooms with a retention window: [roomId, messageHistoryDays]
+    @Query("SELECT cr.id, cr.messageHistoryDays FROM ChatRoom cr WHERE cr.messageHistoryDays > 0 ORDER BY cr.id")
+    List<Object[]> findRetentionSettings();
+    
+    // Apply buffered message activity (see ChatRoomActivityService)
+    @Modifying
+    @Query("UPDATE ChatRoom cr SET cr.totalMessages = cr.totalMessages + :messageCount, " +
+           "cr.lastActivity = CASE WHEN cr.lastActivity IS NULL OR cr.lastActivity < :lastActivity " +
+           "THEN :lastActivity ELSE cr.lastActivity END WHERE cr.id = :roomId")
+    int addMessageActivity(@Param("roomId") Long roomId,
+                           @Param("messageCount") long messageCount,
+                           @Param("lastActivity") LocalDateTime lastActivity);
+    
+    // Move the last message snapshot forward, never back, and never onto a deleted message
+    @Modifying
+    @Query("UPDATE ChatRoom cr SET cr.lastMessageId = :messageId, cr.lastMessageContent = :content, " +
+           "cr.lastMessageSenderId = :senderId, cr.lastMessageSenderName = :senderName, cr.lastMessageAt = :createdAt " +
+           "WHERE cr.id = :roomId AND (cr.lastMessageId IS NULL OR cr.lastMessageId < :messageId) " +
+           "AND EXISTS (SELECT m.id FROM ChatMessage m WHERE m.id = :messageId AND m.deletedAt IS NULL)")
+    int updateLastMessageIfNewer(@Param("roomId") Long roomId,
+                                 @Param("messageId") Long messageId,
+                                 @Param("content") String content,
+                                 @Param("senderId") Long senderId,
+                                 @Param("senderName") String senderName,
+                                 @Param("createdAt") LocalDateTime createdAt);
+    
+    // Backfill last message snapshots for rooms created before the snapshot columns existed
+    @Modifying
+    @Query(value = "UPDATE chat_rooms cr SET last_message_id = m.id, last_message_content = m.content, " +
+           "last_message_sender_id = m.sender_id, last_message_sender_name = u.display_name, " +
+           "last_message_at = m.created_at " +
+           "FROM (SELECT DISTINCT ON (chat_room_id) id, chat_room_id, content, sender_id, created_at " +
+           "FROM chat_messages WHERE deleted_at IS NULL AND chat_room_id IN " +
+           "(SELECT id FROM chat_rooms WHERE last_message_id IS NULL AND total_messages > 0) " +
+           "ORDER BY chat_room_id, id DESC) m " +
+           "JOIN users u ON u.id = m.sender_id " +
+           "WHERE cr.id = m.chat_room_id AND cr.last_message_id IS NULL", nativeQuery = true)
+    int backfillLastMessageSnapshots();
+    
     // Count chat rooms by creator
     long countByCreatorIdAndDeletedAtIsNull(Long creatorId);
 }
@@ -0,0 +1,60 @@
+package com.gamermajilis.repository;
+
+import com.gamermajilis.model.FeedEntry;
+import com.gamermajilis.model.Post;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FeedEntryRepository extends JpaRepository<FeedEntry, Long> {
+    
+    // Append a new post to the timeline of every follower of its author in one statement
+    @Modifying
+    @Query(value = "INSERT INTO feed_entries (user_id, post_id, author_id, created_at) " +
+                   "SELECT f.follower_id, :postId, :authorId, CURRENT_TIMESTAMP FROM user_follows f " +
+                   "WHERE f.followed_id = :authorId " +
+                   "ON CONFLICT (user_id, post_id) DO NOTHING",
+           nativeQuery = true)
+    int fanOutToFollowers(@Param("postId") Long postId, @Param("authorId") Long authorId);
+    
+    // Seed a new follower's timeline with the author's latest feed-visible posts
+    @Modifying
+    @Query(value = "INSERT INTO feed_entries (user_id, post_id, author_id, created_at) " +
+                   "SELECT :userId, p.id, p.author_id, CURRENT_TIMESTAMP FROM posts p " +
+                   "WHERE p.author_id = :authorId AND p.deleted_at IS NULL AND p.moderation_status = 'APPROVED' " +
+                   "AND p.visibility IN ('PUBLIC', 'FOLLOWERS_ONLY') " +
+                   "ORDER BY p.id DESC LIMIT :limit " +
+                   "ON CONFLICT (user_id, post_id) DO NOTHING",
+           nativeQuery = true)
+    int backfillFromAuthor(@Param("userId") Long userId, @Param("authorId") Long authorId, @Param("limit") int limit);
+    
+    // Drop an author's posts from a user's timeline after an unfollow
+    @Modifying
+    @Query("DELETE FROM FeedEntry e WHERE e.userId = :userId AND e.authorId = :authorId")
+    int deleteByUserIdAndAuthorId(@Param("userId") Long userId, @Param("authorId") Long authorId);
+    
+    // Cap the timelines of users in an id range at their newest maxEntries posts. Each user's
+    // cutoff is one offset read on (user_id, post_id); timelines under the cap have none.
+    @Modifying
+    @Query(value = "DELETE FROM feed_entries e USING (" +
+                   "SELECT u.id AS user_id, (SELECT f.post_id FROM feed_entries f WHERE f.user_id = u.id " +
+                   "ORDER BY f.post_id DESC OFFSET :maxEntries LIMIT 1) AS cutoff " +
+                   "FROM users u WHERE u.id BETWEEN :fromUserId AND :toUserId) c " +
+                   "WHERE e.user_id = c.user_id AND e.post_id <= c.cutoff",
+           nativeQuery = true)
+    int trimTimelines(@Param("fromUserId") Long fromUserId, @Param("toUserId") Long toUserId,
+                      @Param("maxEntries") int maxEntries);
+    
+    // Timeline page older than a post id, newest first, skipping posts that were removed or hidden since fan-out
+    @Query("SELECT p FROM FeedEntry e JOIN Post p ON p.id = e.postId " +
+           "WHERE e.userId = :userId AND e.postId < :beforePostId AND p.deletedAt IS NULL " +
+           "AND p.moderationStatus = 'APPROVED' AND p.visibility IN ('PUBLIC', 'FOLLOWERS_ONLY') " +
+           "ORDER BY e.postId DESC")
+    List<Post> findTimelinePosts(@Param("userId") Long userId, @Param("beforePostId") Long beforePostId, Pageable pageable);
+}
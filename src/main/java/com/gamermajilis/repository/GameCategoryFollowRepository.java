@@ -0,0 +1,30 @@
+package com.gamermajilis.repository;
+
+import com.gamermajilis.model.GameCategoryFollow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface GameCategoryFollowRepository extends JpaRepository<GameCategoryFollow, Long> {
+    
+    // Follow a game category; returns 0 if the follow already exists
+    @Modifying
+    @Query(value = "INSERT INTO game_category_follows (user_id, game_category, created_at) " +
+                   "VALUES (:userId, :gameCategory, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("gameCategory") String gameCategory);
+    
+    // Unfollow a game category; returns 0 if there was no follow
+    @Modifying
+    @Query("DELETE FROM GameCategoryFollow f WHERE f.user.id = :userId AND f.gameCategory = :gameCategory")
+    int deleteFollow(@Param("userId") Long userId, @Param("gameCategory") String gameCategory);
+    
+    // Game categories a user follows
+    @Query("SELECT f.gameCategory FROM GameCategoryFollow f WHERE f.user.id = :userId ORDER BY f.gameCategory")
+    List<String> findGameCategoriesByUserId(@Param("userId") Long userId);
+}
@@ -4,18 +4,19 @@ import com.gamermajilis.model.PostComment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PostCommentRepository extends JpaRepository<PostComment, Long> {
     
-    // Find comments by post ID
-    Page<PostComment> findByPostIdAndDeletedAtIsNullOrderByCreatedAtDesc(Long postId, Pageable pageable);
-    
     // Find comment by ID and author for authorization
     Optional<PostComment> findByIdAndAuthorIdAndDeletedAtIsNull(Long id, Long authorId);
     
@@ -32,4 +33,66 @@ public interface PostCommentRepository extends JpaRepository<PostComment, Long>
     @Query("SELECT c FROM PostComment c WHERE c.author.id = :authorId AND c.deletedAt IS NULL " +
            "ORDER BY c.createdAt DESC")
     Page<PostComment> findRecentCommentsByAuthor(@Param("authorId") Long authorId, Pageable pageable);
+    
+    // Keyset page of a post's top-level comments, newest first. A deleted comment that still
+    // has replies is kept as a placeholder so its thread stays reachable.
+    @Query("SELECT c FROM PostComment c WHERE c.post.id = :postId AND c.parentComment IS NULL " +
+           "AND (c.deletedAt IS NULL OR c.replyCount > 0) AND c.id < :beforeId ORDER BY c.id DESC")
+    List<PostComment> findTopLevelComments(@Param("postId") Long postId, @Param("beforeId") Long beforeId,
+                                           Pageable pageable);
+    
+    // The oldest :limit replies of each parent, for all parents in one query; deleted replies
+    // only appear as placeholders for their own replies
+    @Query(value = "SELECT c.* FROM post_comments c WHERE c.id IN (" +
+                   "SELECT ranked.id FROM (" +
+                   "SELECT r.id, row_number() OVER (PARTITION BY r.parent_comment_id ORDER BY r.id) AS position " +
+                   "FROM post_comments r WHERE r.parent_comment_id IN (:parentIds) " +
+                   "AND (r.deleted_at IS NULL OR r.reply_count > 0)" +
+                   ") ranked WHERE ranked.position <= :limit) " +
+                   "ORDER BY c.id",
+           nativeQuery = true)
+    List<PostComment> findFirstReplies(@Param("parentIds") Collection<Long> parentIds, @Param("limit") int limit);
+    
+    // Keyset page of a subtree in path (depth-first) order; the bounds come from the subtree root
+    @Query("SELECT c FROM PostComment c WHERE c.path > :afterPath AND c.path <= :subtreeEndPath " +
+           "AND (c.deletedAt IS NULL OR c.replyCount > 0) ORDER BY c.path")
+    List<PostComment> findSubtreePage(@Param("afterPath") String afterPath,
+                                      @Param("subtreeEndPath") String subtreeEndPath, Pageable pageable);
+    
+    // Loads the authors of the given comments in one query, so formatting a page does not
+    // lazy-load one author per comment
+    @Query("SELECT DISTINCT c FROM PostComment c JOIN FETCH c.author a LEFT JOIN FETCH a.roles " +
+           "WHERE c.id IN :ids")
+    List<PostComment> fetchAuthors(@Param("ids") Collection<Long> ids);
+    
+    // Soft delete that only succeeds once, so concurrent deletes cannot decrement counters twice
+    @Modifying
+    @Query("UPDATE PostComment c SET c.deletedAt = :deletedAt WHERE c.id = :commentId AND c.deletedAt IS NULL")
+    int softDelete(@Param("commentId") Long commentId, @Param("deletedAt") LocalDateTime deletedAt);
+    
+    // Atomically adjust the reply counter (the column is not written by entity saves)
+    @Modifying
+    @Query(value = "UPDATE post_comments SET reply_count = reply_count + :delta WHERE id = :commentId",
+           nativeQuery = true)
+    int adjustReplyCount(@Param("commentId") Long commentId, @Param("delta") long delta);
+    
+    // Counts a new reply only while the parent is live. A delete of the parent holds its row,
+    // so a reply racing the delete re-checks afterwards and is refused.
+    @Modifying
+    @Query(value = "UPDATE post_comments SET reply_count = reply_count + 1 " +
+                   "WHERE id = :commentId AND deleted_at IS NULL",
+           nativeQuery = true)
+    int incrementReplyCountIfLive(@Param("commentId") Long commentId);
+    
+    // A deleted comment without replies has no placeholder left in its thread
+    @Query("SELECT COUNT(c) > 0 FROM PostComment c WHERE c.id = :commentId " +
+           "AND c.deletedAt IS NOT NULL AND c.replyCount <= 0")
+    boolean isDeletedWithoutReplies(@Param("commentId") Long commentId);
+    
+    // Comments from before threading are all top level, so their path is just their id
+    @Modifying
+    @Query(value = "UPDATE post_comments SET path = lpad(CAST(id AS varchar), 19, '0'), depth = 0 " +
+                   "WHERE path IS NULL AND parent_comment_id IS NULL",
+           nativeQuery = true)
+    int backfillTopLevelPaths();
 }
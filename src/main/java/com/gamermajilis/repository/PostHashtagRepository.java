@@ -0,0 +1,42 @@
+package com.gamermajilis.repository;
+
+import com.gamermajilis.model.Post;
+import com.gamermajilis.model.PostHashtag;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PostHashtagRepository extends JpaRepository<PostHashtag, Long> {
+    
+    // Clear a post's hashtags before it is reindexed
+    @Modifying
+    @Query("DELETE FROM PostHashtag h WHERE h.postId = :postId")
+    int deleteByPostId(@Param("postId") Long postId);
+    
+    // Keyset page of public posts with a hashtag, newest first
+    @Query("SELECT p FROM PostHashtag h JOIN Post p ON p.id = h.postId " +
+           "WHERE h.hashtag = :hashtag AND h.postId < :beforePostId " +
+           "AND p.deletedAt IS NULL AND p.visibility = 'PUBLIC' AND p.moderationStatus = 'APPROVED' " +
+           "ORDER BY h.postId DESC")
+    List<Post> findPostsByHashtag(@Param("hashtag") String hashtag, @Param("beforePostId") Long beforePostId,
+                                  Pageable pageable);
+    
+    // Hashtags of those given posts that are public, one row per post and hashtag
+    @Query("SELECT h.hashtag FROM PostHashtag h JOIN Post p ON p.id = h.postId " +
+           "WHERE h.postId IN :postIds AND p.visibility = 'PUBLIC'")
+    List<String> findPublicHashtagsByPostIds(@Param("postIds") Collection<Long> postIds);
+    
+    // Hashtag and publish time of every public post published since the given time
+    @Query("SELECT h.hashtag, p.publishedAt FROM PostHashtag h JOIN Post p ON p.id = h.postId " +
+           "WHERE p.publishedAt >= :since AND p.deletedAt IS NULL " +
+           "AND p.visibility = 'PUBLIC' AND p.moderationStatus = 'APPROVED'")
+    List<Object[]> findPublishedSince(@Param("since") LocalDateTime since);
+}
@@ -0,0 +1,29 @@
+package com.gamermajilis.repository;
+
+import com.gamermajilis.model.Post;
+import com.gamermajilis.model.PostMention;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PostMentionRepository extends JpaRepository<PostMention, Long> {
+    
+    // Clear a post's mentions before it is reindexed
+    @Modifying
+    @Query("DELETE FROM PostMention m WHERE m.postId = :postId")
+    int deleteByPostId(@Param("postId") Long postId);
+    
+    // Keyset page of public posts mentioning a user, newest first
+    @Query("SELECT p FROM PostMention m JOIN Post p ON p.id = m.postId " +
+           "WHERE m.mentionedUserId = :userId AND m.postId < :beforePostId " +
+           "AND p.deletedAt IS NULL AND p.visibility = 'PUBLIC' AND p.moderationStatus = 'APPROVED' " +
+           "ORDER BY m.postId DESC")
+    List<Post> findPostsMentioningUser(@Param("userId") Long userId, @Param("beforePostId") Long beforePostId,
+                                       Pageable pageable);
+}
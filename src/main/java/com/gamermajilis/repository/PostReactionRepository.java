@@ -3,6 +3,7 @@ package com.gamermajilis.repository;
 import com.gamermajilis.model.PostReaction;
 import com.gamermajilis.model.ReactionType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,6 +13,18 @@ import java.util.Optional;
 @Repository
 public interface PostReactionRepository extends JpaRepository<PostReaction, Long> {
     
+    // Add a reaction; returns 0 if the user already reacted to the post
+    @Modifying
+    @Query(value = "INSERT INTO post_reactions (post_id, user_id, reaction_type, created_at) " +
+                   "VALUES (:postId, :userId, :reactionType, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertReaction(@Param("postId") Long postId, @Param("userId") Long userId, @Param("reactionType") String reactionType);
+    
+    // Remove a reaction of the given type; returns 0 if there was none
+    @Modifying
+    @Query("DELETE FROM PostReaction pr WHERE pr.post.id = :postId AND pr.user.id = :userId AND pr.reactionType = :reactionType")
+    int deleteReaction(@Param("postId") Long postId, @Param("userId") Long userId, @Param("reactionType") ReactionType reactionType);
+    
     // Find reaction by post and user
     Optional<PostReaction> findByPostIdAndUserId(Long postId, Long userId);
     
@@ -6,11 +6,13 @@ import com.gamermajilis.model.PostVisibility;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,37 +41,176 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     Optional<Post> findByIdAndVisibilityAndModerationStatusAndDeletedAtIsNull(
         Long id, PostVisibility visibility, String moderationStatus);
     
-    // Search posts by title, content, or tags
-    @Query("SELECT p FROM Post p WHERE p.deletedAt IS NULL AND p.visibility = :visibility " +
-           "AND p.moderationStatus = 'APPROVED' AND " +
-           "(LOWER(p.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(p.content) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(p.tags) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(p.hashtags) LIKE LOWER(CONCAT('%', :query, '%'))) " +
-           "ORDER BY p.createdAt DESC")
-    Page<Post> searchPosts(@Param("query") String query, 
-                          @Param("visibility") PostVisibility visibility, 
-                          Pageable pageable);
-    
-    // Search posts by game category
-    @Query("SELECT p FROM Post p WHERE p.deletedAt IS NULL AND p.visibility = :visibility " +
-           "AND p.moderationStatus = 'APPROVED' AND p.gameCategory = :gameCategory AND " +
-           "(LOWER(p.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(p.content) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(p.tags) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(p.hashtags) LIKE LOWER(CONCAT('%', :query, '%'))) " +
-           "ORDER BY p.createdAt DESC")
-    Page<Post> searchPostsByGameCategory(@Param("query") String query, 
-                                        @Param("gameCategory") String gameCategory,
-                                        @Param("visibility") PostVisibility visibility, 
-                                        Pageable pageable);
-    
-    // Find trending posts (most engagement in recent days)
-    @Query("SELECT p FROM Post p WHERE p.deletedAt IS NULL AND p.visibility = 'PUBLIC' " +
-           "AND p.moderationStatus = 'APPROVED' AND p.createdAt >= :since " +
-           "ORDER BY (p.likeCount + p.commentCount + p.shareCount) DESC, p.createdAt DESC")
+    // Relevance gets a bonus of 1 per SEARCH_RECENCY_SCALE_SECONDS of publish time, so among equally
+    // relevant posts the newer one wins. Depends only on the row, so keyset cursors stay stable.
+    double SEARCH_RECENCY_SCALE_SECONDS = 30 * 24 * 3600;
+    
+    // Scores are double precision throughout: as real, the recency term would swallow the relevance digits
+    String SEARCH_RECENCY_SQL = "CAST(extract(epoch FROM coalesce(p.published_at, p.created_at)) AS double precision) / " +
+           SEARCH_RECENCY_SCALE_SECONDS;
+    
+    // Normalization 32 maps ts_rank_cd into [0, 1) so it is comparable with the recency bonus
+    String TEXT_SEARCH_SCORE_SQL = "CAST(ts_rank_cd(p.search_vector, websearch_to_tsquery('simple', :query), 32) AS double precision) + " +
+           SEARCH_RECENCY_SQL;
+    
+    String FUZZY_SEARCH_SCORE_SQL = "CAST(word_similarity(:query, p.title) AS double precision) + " + SEARCH_RECENCY_SQL;
+    
+    String SEARCH_FILTER_SQL = "p.deleted_at IS NULL AND p.visibility = 'PUBLIC' AND p.moderation_status = 'APPROVED' " +
+           "AND (CAST(:gameCategory AS text) IS NULL OR p.game_category = CAST(:gameCategory AS text))";
+    
+    // Full-text search over the weighted, GIN-indexed search_vector column (see SearchSchemaInitializer).
+    // Rows: [id, score], best first, keyset on (score, id) of the last row of the previous page.
+    @Query(value = "SELECT p.id, " + TEXT_SEARCH_SCORE_SQL + " AS score FROM posts p " +
+           "WHERE p.search_vector @@ websearch_to_tsquery('simple', :query) AND " + SEARCH_FILTER_SQL + " " +
+           "AND (" + TEXT_SEARCH_SCORE_SQL + ", p.id) < (:afterScore, :afterId) " +
+           "ORDER BY score DESC, p.id DESC LIMIT :maxResults", nativeQuery = true)
+    List<Object[]> searchPostIds(@Param("query") String query,
+                                 @Param("gameCategory") String gameCategory,
+                                 @Param("afterScore") double afterScore,
+                                 @Param("afterId") long afterId,
+                                 @Param("maxResults") int maxResults);
+    
+    // Typo-tolerant title search through the pg_trgm index, used when full-text search finds nothing.
+    // Same row shape and keyset as searchPostIds.
+    @Query(value = "SELECT p.id, " + FUZZY_SEARCH_SCORE_SQL + " AS score FROM posts p " +
+           "WHERE :query <% p.title AND " + SEARCH_FILTER_SQL + " " +
+           "AND (" + FUZZY_SEARCH_SCORE_SQL + ", p.id) < (:afterScore, :afterId) " +
+           "ORDER BY score DESC, p.id DESC LIMIT :maxResults", nativeQuery = true)
+    List<Object[]> fuzzySearchPostIds(@Param("query") String query,
+                                      @Param("gameCategory") String gameCategory,
+                                      @Param("afterScore") double afterScore,
+                                      @Param("afterId") long afterId,
+                                      @Param("maxResults") int maxResults);
+    
+    // Whether the pg_trgm extension is installed (it may need a superuser to create)
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm')", nativeQuery = true)
+    boolean isTrigramSearchAvailable();
+    
+    // Find trending posts (highest precomputed trending score in recent days)
+    @Query("SELECT p FROM Post p WHERE p.trendingScore IS NOT NULL AND p.deletedAt IS NULL " +
+           "AND p.visibility = 'PUBLIC' AND p.moderationStatus = 'APPROVED' AND p.createdAt >= :since " +
+           "ORDER BY p.trendingScore DESC")
     List<Post> findTrendingPosts(@Param("since") LocalDateTime since, Pageable pageable);
     
+    // Publish-time part of the trending score in SQL (same formula as Post.refreshTrendingScore)
+    String TRENDING_TIME_SQL = "extract(epoch FROM coalesce(published_at, created_at)) / " + Post.TRENDING_TIME_SCALE_SECONDS;
+    
+    // Backfill trending scores for posts created before the column existed
+    @Modifying
+    @Query(value = "UPDATE posts SET trending_score = ln(1 + like_count + comment_count + share_count) + " +
+           TRENDING_TIME_SQL + " WHERE trending_score IS NULL", nativeQuery = true)
+    int backfillTrendingScores();
+    
+    // Atomically adjust the like counter and the trending score in one statement; SET sees the old row,
+    // hence the delta inside ln(). Clamped at zero so an unlike on a drifted row never fails.
+    @Modifying
+    @Query(value = "UPDATE posts SET like_count = GREATEST(like_count + :delta, 0), " +
+           "trending_score = ln(GREATEST(1 + GREATEST(like_count + :delta, 0) + comment_count + share_count, 1)) + " +
+           TRENDING_TIME_SQL + " " +
+           "WHERE id = :postId", nativeQuery = true)
+    int adjustLikeCount(@Param("postId") Long postId, @Param("delta") long delta);
+    
+    // Atomically adjust the share counter and the trending score in one statement, clamped like the others
+    @Modifying
+    @Query(value = "UPDATE posts SET share_count = GREATEST(share_count + :delta, 0), " +
+           "trending_score = ln(GREATEST(1 + like_count + comment_count + GREATEST(share_count + :delta, 0), 1)) + " +
+           TRENDING_TIME_SQL + " " +
+           "WHERE id = :postId", nativeQuery = true)
+    int adjustShareCount(@Param("postId") Long postId, @Param("delta") long delta);
+    
+    // Atomically adjust the comment counter and the trending score in one statement. Clamped at
+    // zero so a decrement on a drifted row never fails; CommentCountReconciler repairs the count.
+    @Modifying
+    @Query(value = "UPDATE posts SET comment_count = GREATEST(comment_count + :delta, 0), " +
+           "trending_score = ln(GREATEST(1 + like_count + GREATEST(comment_count + :delta, 0) + share_count, 1)) + " +
+           TRENDING_TIME_SQL + " " +
+           "WHERE id = :postId", nativeQuery = true)
+    int adjustCommentCount(@Param("postId") Long postId, @Param("delta") long delta);
+    
+    // Claims a batch of due scheduled posts. SKIP LOCKED passes over rows another instance
+    // has already claimed instead of waiting for them, so each post is published once.
+    @Query(value = "SELECT id FROM posts WHERE scheduled_at <= :now AND published_at IS NULL " +
+           "AND deleted_at IS NULL ORDER BY scheduled_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> claimDueScheduledPosts(@Param("now") LocalDateTime now, @Param("limit") int limit);
+    
+    // Publishes claimed posts and clears scheduled_at, so they leave the due range of the index
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE posts SET published_at = :publishedAt, scheduled_at = NULL, moderation_status = 'APPROVED' " +
+           "WHERE id IN (:postIds)", nativeQuery = true)
+    int publishScheduledPosts(@Param("postIds") Collection<Long> postIds, @Param("publishedAt") LocalDateTime publishedAt);
+    
+    // Recompute trending scores from the stored counters and publish times
+    @Modifying
+    @Query(value = "UPDATE posts SET trending_score = ln(1 + like_count + comment_count + share_count) + " +
+           TRENDING_TIME_SQL + " WHERE id IN (:postIds)", nativeQuery = true)
+    int refreshTrendingScores(@Param("postIds") Collection<Long> postIds);
+    
+    // Post ids in keyset batches, for the comment count reconciler
+    @Query("SELECT p.id FROM Post p WHERE p.id > :afterId ORDER BY p.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Posts in the id range whose comment_count disagrees with their live comments
+    @Query(value = "SELECT p.id FROM posts p " +
+           "LEFT JOIN post_comments c ON c.post_id = p.id AND c.deleted_at IS NULL " +
+           "WHERE p.id BETWEEN :fromId AND :toId " +
+           "GROUP BY p.id, p.comment_count HAVING p.comment_count <> count(c.id)", nativeQuery = true)
+    List<Long> findCommentCountDrift(@Param("fromId") Long fromId, @Param("toId") Long toId);
+    
+    // Row locks that hold off concurrent counter increments while drifted counts are recounted
+    @Query(value = "SELECT id FROM posts WHERE id IN (:postIds) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockForCounterRepair(@Param("postIds") Collection<Long> postIds);
+    
+    // Reset comment_count and the trending score to the live comment count
+    @Modifying
+    @Query(value = "UPDATE posts SET comment_count = live.live_count, " +
+           "trending_score = ln(1 + like_count + live.live_count + share_count) + " + TRENDING_TIME_SQL + " " +
+           "FROM (SELECT p.id, count(c.id) AS live_count FROM posts p " +
+           "LEFT JOIN post_comments c ON c.post_id = p.id AND c.deleted_at IS NULL " +
+           "WHERE p.id IN (:postIds) GROUP BY p.id) live " +
+           "WHERE posts.id = live.id AND posts.comment_count <> live.live_count", nativeQuery = true)
+    int repairCommentCounts(@Param("postIds") Collection<Long> postIds);
+    
+    // Current counters, read from the database rather than a possibly stale loaded entity
+    @Query("SELECT p.likeCount FROM Post p WHERE p.id = :postId")
+    Long findLikeCount(@Param("postId") Long postId);
+    
+    @Query("SELECT p.shareCount FROM Post p WHERE p.id = :postId")
+    Long findShareCount(@Param("postId") Long postId);
+    
+    // Home feed posts read at request time rather than fanned out: the user's own posts, posts
+    // by followed authors with more than maxFanOutFollowers followers, and followed game categories.
+    // One limited branch per source, and per author or category inside a branch, so each is a
+    // backwards range scan on (author_id, id) or (game_category, id) that stops after :limit rows.
+    @Query(value = "SELECT p.* FROM posts p WHERE p.id IN (" +
+           "(SELECT o.id FROM posts o WHERE o.author_id = :userId AND o.id < :beforePostId " +
+           "AND o.deleted_at IS NULL AND o.moderation_status = 'APPROVED' " +
+           "ORDER BY o.id DESC LIMIT :limit) " +
+           "UNION ALL " +
+           "(SELECT a.id FROM user_follows f JOIN users u ON u.id = f.followed_id " +
+           "CROSS JOIN LATERAL (SELECT x.id FROM posts x WHERE x.author_id = f.followed_id AND x.id < :beforePostId " +
+           "AND x.deleted_at IS NULL AND x.moderation_status = 'APPROVED' AND x.visibility IN ('PUBLIC', 'FOLLOWERS_ONLY') " +
+           "ORDER BY x.id DESC LIMIT :limit) a " +
+           "WHERE f.follower_id = :userId AND u.follower_count > :maxFanOutFollowers " +
+           "ORDER BY a.id DESC LIMIT :limit) " +
+           "UNION ALL " +
+           "(SELECT g.id FROM game_category_follows c " +
+           "CROSS JOIN LATERAL (SELECT x.id FROM posts x WHERE x.game_category = c.game_category AND x.id < :beforePostId " +
+           "AND x.deleted_at IS NULL AND x.moderation_status = 'APPROVED' AND x.visibility = 'PUBLIC' " +
+           "ORDER BY x.id DESC LIMIT :limit) g " +
+           "WHERE c.user_id = :userId " +
+           "ORDER BY g.id DESC LIMIT :limit)) " +
+           "ORDER BY p.id DESC LIMIT :limit", nativeQuery = true)
+    List<Post> findPulledFeedPosts(@Param("userId") Long userId,
+                                   @Param("maxFanOutFollowers") long maxFanOutFollowers,
+                                   @Param("beforePostId") Long beforePostId,
+                                   @Param("limit") int limit);
+    
+    // Initialize author and media of already loaded posts in one round trip (used when formatting pages).
+    // Author roles are an eager collection, so they are fetched here too rather than once per author.
+    @Query("SELECT DISTINCT p FROM Post p JOIN FETCH p.author a LEFT JOIN FETCH a.roles " +
+           "LEFT JOIN FETCH p.attachedMedia WHERE p.id IN :ids")
+    List<Post> fetchAuthorsAndMedia(@Param("ids") Collection<Long> ids);
+    
     // Find featured posts
     List<Post> findByIsFeaturedTrueAndVisibilityAndModerationStatusAndDeletedAtIsNullOrderByCreatedAtDesc(
         PostVisibility visibility, String moderationStatus, Pageable pageable);
@@ -0,0 +1,27 @@
+package com.gamermajilis.repository;
+
+import com.gamermajilis.model.UserFollow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserFollowRepository extends JpaRepository<UserFollow, Long> {
+    
+    // Follow a user; returns 0 if the follow already exists
+    @Modifying
+    @Query(value = "INSERT INTO user_follows (follower_id, followed_id, created_at) " +
+                   "VALUES (:followerId, :followedId, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("followerId") Long followerId, @Param("followedId") Long followedId);
+    
+    // Unfollow a user; returns 0 if there was no follow
+    @Modifying
+    @Query("DELETE FROM UserFollow f WHERE f.follower.id = :followerId AND f.followed.id = :followedId")
+    int deleteFollow(@Param("followerId") Long followerId, @Param("followedId") Long followedId);
+    
+    // Check if a user follows another user
+    boolean existsByFollowerIdAndFollowedId(Long followerId, Long followedId);
+}
@@ -2,6 +2,7 @@ package com.gamermajilis.repository;
 
 import com.gamermajilis.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -47,4 +48,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.id != :excludeUserId AND u.active = true AND u.banned = false " +
            "AND u.lastLogin IS NOT NULL ORDER BY u.lastLogin DESC")
     java.util.List<User> findActiveUsersExcluding(@Param("excludeUserId") Long excludeUserId, org.springframework.data.domain.Pageable pageable);
-}
\ No newline at end of file
+    
+    // User ids in keyset batches, for the feed timeline trim
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    java.util.List<Long> findIdsAfter(@Param("afterId") Long afterId, org.springframework.data.domain.Pageable pageable);
+    
+    // Ids of users with any of the given display names, for resolving @mentions
+    @Query("SELECT u.id FROM User u WHERE u.displayName IN :displayNames")
+    java.util.List<Long> findIdsByDisplayNameIn(@Param("displayNames") java.util.Collection<String> displayNames);
+    
+    // Atomically adjust the follower counter (the column is not written by entity saves)
+    @Modifying
+    @Query(value = "UPDATE users SET follower_count = follower_count + :delta WHERE id = :userId", nativeQuery = true)
+    int adjustFollowerCount(@Param("userId") Long userId, @Param("delta") long delta);
+}
@@ -0,0 +1,127 @@
+package com.gamermajilis.security;
+
+import com.gamermajilis.model.ChatRoom;
+import com.gamermajilis.repository.ChatRoomRepository;
+import com.gamermajilis.service.ChatBroadcastService;
+import com.gamermajilis.service.ChatMembershipCache;
+import com.gamermajilis.util.JwtUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Authenticates STOMP sessions with the same JWT used by the REST API and
+// guards what clients may subscribe and send to. The principal name is the user id.
+// Destinations are matched against an allow-list of exact shapes: the simple broker
+// treats '*' and '{..}' as patterns, so anything looser would let a client subscribe
+// to every room at once.
+@Component
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StompAuthChannelInterceptor.class);
+
+    private static final String APP_DESTINATION_PREFIX = "/app/";
+
+    // /topic/rooms/{roomId} and its typing and presence channels
+    private static final Pattern ROOM_DESTINATION = Pattern.compile(
+            "^" + Pattern.quote(ChatBroadcastService.ROOM_TOPIC_PREFIX) + "(\\d{1,18})(?:/(?:typing|presence))?$");
+
+    // Per-session queues such as /user/queue/chat.replies; resolved to the subscriber's own session
+    private static final Pattern USER_QUEUE_DESTINATION = Pattern.compile("^/user/queue/[A-Za-z0-9._-]+$");
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+
+    @Autowired
+    private ChatMembershipCache chatMembershipCache;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            Long userId = getUserIdFromHeader(accessor.getFirstNativeHeader("Authorization"));
+            if (userId == null) {
+                throw new MessagingException("Authentication required");
+            }
+            accessor.setUser(new UsernamePasswordAuthenticationToken(userId.toString(), null, Collections.emptyList()));
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            Principal user = accessor.getUser();
+            if (user == null) {
+                throw new MessagingException("Authentication required");
+            }
+            String destination = accessor.getDestination();
+            if (destination != null && USER_QUEUE_DESTINATION.matcher(destination).matches()) {
+                return message;
+            }
+            Long roomId = getRoomIdFromDestination(destination);
+            if (!canSubscribeToRoom(Long.valueOf(user.getName()), roomId)) {
+                throw new MessagingException("Chat room not found or access denied");
+            }
+        } else if (StompCommand.SEND.equals(accessor.getCommand())) {
+            // Clients only talk to @MessageMapping handlers; frames sent straight to a broker
+            // destination would reach every subscriber without any checks
+            String destination = accessor.getDestination();
+            if (destination == null || !destination.startsWith(APP_DESTINATION_PREFIX)) {
+                throw new MessagingException("Invalid destination");
+            }
+        }
+
+        return message;
+    }
+
+    // Helper methods
+    private Long getUserIdFromHeader(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return null;
+        }
+
+        try {
+            String token = authHeader.substring(7);
+            if (!jwtUtil.validateToken(token)) {
+                return null;
+            }
+            return jwtUtil.getUserIdFromToken(token);
+        } catch (Exception e) {
+            logger.warn("Invalid token in STOMP CONNECT", e);
+            return null;
+        }
+    }
+
+    private Long getRoomIdFromDestination(String destination) {
+        Matcher matcher = destination != null ? ROOM_DESTINATION.matcher(destination) : null;
+        if (matcher == null || !matcher.matches()) {
+            throw new MessagingException("Invalid destination");
+        }
+        return Long.valueOf(matcher.group(1));
+    }
+
+    private boolean canSubscribeToRoom(Long userId, Long roomId) {
+        Optional<ChatRoom> chatRoomOpt = chatRoomRepository.findById(roomId);
+        if (chatRoomOpt.isEmpty() || chatRoomOpt.get().isDeleted()) {
+            return false;
+        }
+
+        return chatMembershipCache.canAccess(chatRoomOpt.get(), userId);
+    }
+}
@@ -0,0 +1,243 @@
+package com.gamermajilis.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gamermajilis.model.ChatMessage;
+import com.gamermajilis.model.ChatMessageArchive;
+import com.gamermajilis.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Moves chat messages older than their room's messageHistoryDays out of chat_messages
+// into chat_message_archives, as gzip NDJSON blocks per room and day. Runs off-peak in
+// small keyset batches, each in its own transaction, with a pause between batches so
+// it never holds locks or I/O long enough to slow down live chat.
+@Service
+public class ChatArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatArchiveService.class);
+
+    private static final TypeReference<Map<String, Object>> MESSAGE_TYPE = new TypeReference<>() {};
+
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private ChatMessageArchiveRepository chatMessageArchiveRepository;
+
+    @Autowired
+    private ChatMessageReactionRepository chatMessageReactionRepository;
+
+    @Autowired
+    private ChatMessageReactionCountRepository chatMessageReactionCountRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ChatUnreadService chatUnreadService;
+
+    @Value("${chat.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${chat.archive.batch-pause-ms:200}")
+    private long batchPauseMs;
+
+    @Value("${chat.archive.max-batches-per-run:2000}")
+    private int maxBatchesPerRun;
+
+    @Value("${chat.archive.max-read-messages:5000}")
+    private int maxReadMessages;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(cron = "${chat.archive.cron:0 30 3 * * *}")
+    public void archiveExpiredMessages() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            int batches = 0;
+            LocalDateTime now = LocalDateTime.now();
+
+            for (Object[] room : chatRoomRepository.findRetentionSettings()) {
+                Long roomId = (Long) room[0];
+                LocalDateTime cutoff = now.minusDays((Integer) room[1]);
+
+                Optional<Long> boundary = chatMessageRepository.findArchiveBoundary(roomId, cutoff);
+                if (boundary.isEmpty()) {
+                    continue;
+                }
+
+                long afterId = 0;
+                while (batches < maxBatchesPerRun) {
+                    Long lastArchivedId = archiveBatch(roomId, afterId, boundary.get());
+                    if (lastArchivedId == null) {
+                        break;
+                    }
+                    batches++;
+                    afterId = lastArchivedId;
+                    pauseBetweenBatches();
+                }
+
+                if (batches >= maxBatchesPerRun) {
+                    logger.info("Chat archival stopped after {} batches; the rest is picked up by the next run", batches);
+                    break;
+                }
+            }
+
+            if (batches > 0) {
+                logger.info("Chat archival finished: {} batches archived", batches);
+            }
+        } catch (Exception e) {
+            logger.error("Error archiving chat messages", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Reads archived messages of a room between two dates (inclusive), oldest first
+    public Map<String, Object> readArchive(Long roomId, LocalDate fromDate, LocalDate toDate) throws IOException {
+        List<Map<String, Object>> messages = new ArrayList<>();
+        boolean truncated = false;
+
+        List<ChatMessageArchive> archives = chatMessageArchiveRepository
+                .findByChatRoomIdAndArchiveDateBetweenOrderByArchiveDateAscFirstMessageIdAsc(roomId, fromDate, toDate);
+
+        for (ChatMessageArchive archive : archives) {
+            if (messages.size() + archive.getMessageCount() > maxReadMessages) {
+                truncated = true;
+                break;
+            }
+            messages.addAll(decompress(archive.getPayload()));
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("messages", messages);
+        result.put("truncated", truncated);
+        return result;
+    }
+
+    // Helper methods
+
+    // Archives the next batch in one transaction and returns the last archived id,
+    // or null once the room has nothing left below the boundary
+    private Long archiveBatch(Long roomId, long afterId, Long maxId) {
+        return transactionTemplate.execute(status -> {
+            List<ChatMessage> batch = chatMessageRepository.findArchiveBatch(roomId, afterId, maxId,
+                    PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return null;
+            }
+
+            Map<LocalDate, List<ChatMessage>> byDay = batch.stream()
+                    .collect(Collectors.groupingBy(message -> message.getCreatedAt().toLocalDate(),
+                            TreeMap::new, Collectors.toList()));
+            for (Map.Entry<LocalDate, List<ChatMessage>> day : byDay.entrySet()) {
+                List<ChatMessage> messages = day.getValue();
+                chatMessageArchiveRepository.save(new ChatMessageArchive(roomId, day.getKey(),
+                        messages.get(0).getId(), messages.get(messages.size() - 1).getId(),
+                        messages.size(), compress(messages)));
+            }
+
+            List<Long> messageIds = batch.stream().map(ChatMessage::getId).collect(Collectors.toList());
+            chatMessageReactionRepository.deleteByMessageIdIn(messageIds);
+            chatMessageReactionCountRepository.deleteByMessageIdIn(messageIds);
+            chatMessageRepository.clearReplyReferences(messageIds);
+
+            // Another instance archived (part of) this batch first; roll back rather than store it twice
+            if (chatMessageRepository.deleteByIdIn(messageIds) != messageIds.size()) {
+                status.setRollbackOnly();
+                return null;
+            }
+
+            // Archived messages leave chat_messages, so cached unread counts of the room are stale
+            chatUnreadService.invalidateRoom(roomId);
+
+            return messageIds.get(messageIds.size() - 1);
+        });
+    }
+
+    private byte[] compress(List<ChatMessage> messages) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+                for (ChatMessage message : messages) {
+                    writer.write(objectMapper.writeValueAsString(toArchiveRecord(message)));
+                    writer.write('\n');
+                }
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compress chat archive", e);
+        }
+    }
+
+    private List<Map<String, Object>> decompress(byte[] payload) throws IOException {
+        List<Map<String, Object>> messages = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(payload)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    messages.add(objectMapper.readValue(line, MESSAGE_TYPE));
+                }
+            }
+        }
+        return messages;
+    }
+
+    private Map<String, Object> toArchiveRecord(ChatMessage message) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("id", message.getId());
+        record.put("content", message.getContent());
+        record.put("messageType", message.getMessageType().name());
+        record.put("senderId", message.getSender().getId());
+        record.put("senderDisplayName", message.getSender().getDisplayName());
+        record.put("replyToMessageId", message.getReplyToMessage() != null ? message.getReplyToMessage().getId() : null);
+        record.put("fileUrl", message.getFileUrl());
+        record.put("fileName", message.getFileName());
+        record.put("fileSize", message.getFileSize());
+        record.put("reactionCount", message.getReactionCount());
+        record.put("isDeleted", message.getDeletedAt() != null);
+        record.put("createdAt", message.getCreatedAt().toString());
+        record.put("updatedAt", message.getUpdatedAt() != null ? message.getUpdatedAt().toString() : null);
+        return record;
+    }
+
+    private void pauseBetweenBatches() {
+        if (batchPauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(batchPauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
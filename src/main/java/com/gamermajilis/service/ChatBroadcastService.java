@@ -0,0 +1,85 @@
+package com.gamermajilis.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Service
+public class ChatBroadcastService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatBroadcastService.class);
+
+    public static final String ROOM_TOPIC_PREFIX = "/topic/rooms/";
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    public static String roomTopic(Long roomId) {
+        return ROOM_TOPIC_PREFIX + roomId;
+    }
+
+    public static String roomTopic(Long roomId, String channel) {
+        return roomTopic(roomId) + "/" + channel;
+    }
+
+    public void publishMessageCreated(Long roomId, Map<String, Object> chatMessage) {
+        publishToRoom(roomId, "MESSAGE_CREATED", "chatMessage", chatMessage);
+    }
+
+    // For callers that already run after their transaction committed, where a newly
+    // registered synchronization would never be invoked
+    public void publishMessageCreatedNow(Long roomId, Map<String, Object> chatMessage) {
+        send(roomTopic(roomId), roomEvent(roomId, "MESSAGE_CREATED", "chatMessage", chatMessage));
+    }
+
+    public void publishMessageDeleted(Long roomId, Long messageId) {
+        publishToRoom(roomId, "MESSAGE_DELETED", "messageId", messageId);
+    }
+
+    public void publishReactionUpdated(Long roomId, Map<String, Object> reaction) {
+        publishToRoom(roomId, "MESSAGE_REACTION", "reaction", reaction);
+    }
+
+    private void publishToRoom(Long roomId, String eventType, String payloadKey, Object payload) {
+        sendAfterCommit(roomTopic(roomId), roomEvent(roomId, eventType, payloadKey, payload));
+    }
+
+    private Map<String, Object> roomEvent(Long roomId, String eventType, String payloadKey, Object payload) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("type", eventType);
+        event.put("roomId", roomId);
+        event.put(payloadKey, payload);
+        return event;
+    }
+
+    // Subscribers must never see a message that is later rolled back, so defer
+    // the send until the surrounding transaction (if any) has committed
+    public void sendAfterCommit(String destination, Object payload) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(destination, payload);
+                }
+            });
+        } else {
+            send(destination, payload);
+        }
+    }
+
+    public void send(String destination, Object payload) {
+        try {
+            messagingTemplate.convertAndSend(destination, payload);
+        } catch (Exception e) {
+            // Delivery is best effort; clients can always resync through the REST history endpoint
+            logger.warn("Failed to publish to {}: {}", destination, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.gamermajilis.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// LRU of direct message rooms keyed by the canonical (lower id, higher id) user pair,
+// so reopening a conversation skips the pair lookup and goes straight to the room.
+// A DM pair never changes rooms, so entries only leave by eviction or when the
+// cached room turns out to be gone.
+@Service
+public class ChatDirectRoomCache {
+
+    @Value("${chat.direct-room-cache.max-entries:50000}")
+    private int maxEntries;
+
+    private final Map<UserPair, Long> rooms = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UserPair, Long> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public synchronized Long get(Long lowUserId, Long highUserId) {
+        return rooms.get(new UserPair(lowUserId, highUserId));
+    }
+
+    public synchronized void put(Long lowUserId, Long highUserId, Long roomId) {
+        rooms.put(new UserPair(lowUserId, highUserId), roomId);
+    }
+
+    public synchronized void evict(Long lowUserId, Long highUserId) {
+        rooms.remove(new UserPair(lowUserId, highUserId));
+    }
+
+    private record UserPair(Long lowUserId, Long highUserId) {}
+}
@@ -0,0 +1,123 @@
+package com.gamermajilis.service;
+
+import com.gamermajilis.model.ChatMemberRole;
+import com.gamermajilis.model.ChatRoom;
+import com.gamermajilis.model.ChatRoomMember;
+import com.gamermajilis.repository.ChatRoomMemberRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-process cache of (roomId, userId) -> role and ban status for chat authorization.
+// Non-members are cached too, so repeated checks by outsiders stay off the database.
+// Entries expire after chat.membership-cache.ttl-ms, which also bounds staleness when
+// another instance changes a membership.
+@Service
+public class ChatMembershipCache {
+
+    @Autowired
+    private ChatRoomMemberRepository chatRoomMemberRepository;
+
+    @Value("${chat.membership-cache.ttl-ms:300000}")
+    private long ttlMs;
+
+    @Value("${chat.membership-cache.max-entries:100000}")
+    private int maxEntries;
+
+    private final Map<RoomUserKey, CachedMembership> entries = new ConcurrentHashMap<>();
+
+    // Bumped on every invalidation; a load that started before an invalidation
+    // is not cached, so a stale row read can never outlive the change
+    private final AtomicLong generation = new AtomicLong();
+
+    public record Membership(ChatMemberRole role, boolean banned) {}
+
+    // Returns the user's membership in the room, or empty if they are not a member
+    public Optional<Membership> getMembership(Long roomId, Long userId) {
+        RoomUserKey key = new RoomUserKey(roomId, userId);
+        long now = System.currentTimeMillis();
+
+        CachedMembership cached = entries.get(key);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.membership;
+        }
+
+        long loadGeneration = generation.get();
+        Optional<Membership> membership = chatRoomMemberRepository.findByChatRoomIdAndUserId(roomId, userId)
+                .map(ChatMembershipCache::toMembership);
+
+        if (generation.get() == loadGeneration) {
+            if (entries.size() >= maxEntries) {
+                evictExpired(now);
+            }
+            entries.put(key, new CachedMembership(membership, now + ttlMs));
+        }
+        return membership;
+    }
+
+    public boolean isActiveMember(Long roomId, Long userId) {
+        return getMembership(roomId, userId).map(membership -> !membership.banned()).orElse(false);
+    }
+
+    public boolean isBanned(Long roomId, Long userId) {
+        return getMembership(roomId, userId).map(Membership::banned).orElse(false);
+    }
+
+    // Public rooms are readable by anyone; private rooms need an active membership
+    public boolean canAccess(ChatRoom chatRoom, Long userId) {
+        return !chatRoom.getIsPrivate() || isActiveMember(chatRoom.getId(), userId);
+    }
+
+    // Drops the entry now and again after the surrounding transaction commits, so a
+    // concurrent read cannot re-cache the pre-commit row
+    public void invalidate(Long roomId, Long userId) {
+        RoomUserKey key = new RoomUserKey(roomId, userId);
+        evict(key);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(key);
+                }
+            });
+        }
+    }
+
+    // Helper methods
+    private void evict(RoomUserKey key) {
+        generation.incrementAndGet();
+        entries.remove(key);
+    }
+
+    private void evictExpired(long now) {
+        entries.values().removeIf(cached -> cached.expiresAt <= now);
+        if (entries.size() >= maxEntries) {
+            entries.clear();
+        }
+    }
+
+    private static Membership toMembership(ChatRoomMember member) {
+        return new Membership(member.getRole(), Boolean.TRUE.equals(member.getIsBanned()));
+    }
+
+    private record RoomUserKey(Long roomId, Long userId) {}
+
+    private static final class CachedMembership {
+
+        private final Optional<Membership> membership;
+        private final long expiresAt;
+
+        private CachedMembership(Optional<Membership> membership, long expiresAt) {
+            this.membership = membership;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
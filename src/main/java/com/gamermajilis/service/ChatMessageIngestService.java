@@ -0,0 +1,244 @@
+package com.gamermajilis.service;
+
+import com.gamermajilis.model.ChatMessage;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Write-behind persistence for rooms flagged with batchedIngestion, such as tournament
+// finals. sendMessage validates synchronously and takes an id reserved from the
+// chat_messages sequence; once its transaction commits the row is queued and broadcast,
+// and a dedicated thread writes queued rows with JDBC batch inserts. The queue is bounded: when it is full,
+// new messages are rejected so senders back off instead of the backlog growing.
+@Service
+public class ChatMessageIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatMessageIngestService.class);
+
+    private static final String RESERVE_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('chat_messages', 'id')) FROM generate_series(1, ?)";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO chat_messages (id, chat_room_id, sender_id, content, message_type, reply_to_message_id, " +
+            "is_deleted, is_edited, is_flagged, reaction_count, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, false, false, false, 0, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ChatRoomActivityService chatRoomActivityService;
+
+    @Autowired
+    private ChatUnreadService chatUnreadService;
+
+    @Autowired
+    private ChatBroadcastService chatBroadcastService;
+
+    @Value("${chat.ingest.batch-size:500}")
+    private int batchSize;
+
+    @Value("${chat.ingest.id-block-size:50}")
+    private int idBlockSize;
+
+    @Value("${chat.ingest.flush-interval-ms:100}")
+    private long flushIntervalMs;
+
+    // How long shutdown waits for the flusher to finish the batch it is writing
+    @Value("${chat.ingest.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private final BlockingQueue<ChatMessage> queue;
+
+    // Ids reserved from the sequence but not yet handed out
+    private final Deque<Long> reservedIds = new ArrayDeque<>();
+
+    private volatile boolean running;
+
+    private Thread flusher;
+
+    public ChatMessageIngestService(@Value("${chat.ingest.queue-capacity:10000}") int queueCapacity) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        flusher = new Thread(this::flushLoop, "chat-ingest-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // Assigns the message its final id and creation time, then queues it for insertion and
+    // runs onQueued once the surrounding transaction (if any) commits, so a rolled-back
+    // send is neither persisted nor delivered. Returns false if the queue is full and the
+    // message was not accepted.
+    public boolean enqueue(ChatMessage message, Runnable onQueued) {
+        if (queue.remainingCapacity() == 0) {
+            return false;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        message.setId(nextId());
+        message.setCreatedAt(now);
+        message.setUpdatedAt(now);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offerCommitted(message, onQueued);
+                }
+            });
+            return true;
+        }
+        if (!queue.offer(message)) {
+            return false;
+        }
+        onQueued.run();
+        return true;
+    }
+
+    // Stops the flusher and waits for its batch before draining the rest on this thread,
+    // so no batch is written twice or cut off by the JVM exiting
+    @PreDestroy
+    public void flushOnShutdown() {
+        running = false;
+        if (flusher != null) {
+            try {
+                flusher.join(shutdownTimeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (flusher.isAlive()) {
+                logger.warn("Chat ingest flusher did not stop within {} ms; its current batch may be lost", shutdownTimeoutMs);
+                return;
+            }
+        }
+
+        List<ChatMessage> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            persist(batch);
+            batch.clear();
+        }
+    }
+
+    // Helper methods
+
+    // The queue had room when the send was accepted; if it has filled up since, wait one
+    // flush interval for space before giving the message up
+    private void offerCommitted(ChatMessage message, Runnable onQueued) {
+        try {
+            if (queue.offer(message, flushIntervalMs, TimeUnit.MILLISECONDS)) {
+                onQueued.run();
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.error("Dropping chat message {} in room {}: ingest queue is full", message.getId(), message.getChatRoom().getId());
+    }
+
+    private void flushLoop() {
+        List<ChatMessage> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                ChatMessage first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                persist(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Error flushing queued chat messages", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void persist(List<ChatMessage> batch) {
+        List<ChatMessage> persisted;
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), this::bindMessage));
+            persisted = batch;
+        } catch (Exception e) {
+            // One bad row fails the whole batch; retry row by row so only that row is lost
+            logger.warn("Batch insert of {} chat messages failed, retrying one by one: {}", batch.size(), e.getMessage());
+            persisted = new ArrayList<>();
+            for (ChatMessage message : batch) {
+                if (persistOne(message)) {
+                    persisted.add(message);
+                }
+            }
+        }
+
+        for (ChatMessage message : persisted) {
+            chatRoomActivityService.recordMessage(message);
+            chatUnreadService.recordMessage(message.getChatRoom().getId(), message.getSender().getId());
+        }
+    }
+
+    private boolean persistOne(ChatMessage message) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.update(INSERT_SQL, ps -> bindMessage(ps, message)));
+            return true;
+        } catch (Exception e) {
+            logger.error("Dropping queued chat message {} in room {}", message.getId(), message.getChatRoom().getId(), e);
+            // Subscribers already received it, so tell them it is gone
+            chatBroadcastService.publishMessageDeleted(message.getChatRoom().getId(), message.getId());
+            return false;
+        }
+    }
+
+    private void bindMessage(PreparedStatement ps, ChatMessage message) throws SQLException {
+        ps.setLong(1, message.getId());
+        ps.setLong(2, message.getChatRoom().getId());
+        ps.setLong(3, message.getSender().getId());
+        ps.setString(4, message.getContent());
+        ps.setString(5, message.getMessageType().name());
+        if (message.getReplyToMessage() != null) {
+            ps.setLong(6, message.getReplyToMessage().getId());
+        } else {
+            ps.setNull(6, Types.BIGINT);
+        }
+        ps.setTimestamp(7, Timestamp.valueOf(message.getCreatedAt()));
+        ps.setTimestamp(8, Timestamp.valueOf(message.getUpdatedAt()));
+    }
+
+    // Reserves ids in blocks so the sequence is hit once per idBlockSize messages
+    private synchronized Long nextId() {
+        if (reservedIds.isEmpty()) {
+            reservedIds.addAll(jdbcTemplate.queryForList(RESERVE_IDS_SQL, Long.class, idBlockSize));
+        }
+        return reservedIds.poll();
+    }
+}
@@ -0,0 +1,237 @@
+package com.gamermajilis.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeType;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Cross-node fan-out for the simple broker (chat.broker.mode=postgres). Every /topic
+// message this node hands to its broker is also published on a PostgreSQL NOTIFY
+// channel; every node LISTENs on it and replays messages from other nodes into its own
+// broker, so subscribers see events no matter which instance produced them.
+// Delivery is best effort, like local broadcasts: payloads over the NOTIFY size limit
+// and notifications sent while the listener reconnects are only delivered locally.
+@Service
+@ConditionalOnProperty(name = "chat.broker.mode", havingValue = "postgres")
+public class ChatNotifyRelay implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatNotifyRelay.class);
+
+    // Set on replayed messages so they are not published back to the channel
+    public static final String ORIGIN_HEADER = "chatRelayOrigin";
+
+    // PostgreSQL rejects NOTIFY payloads of 8000 bytes or more
+    private static final int MAX_NOTIFY_BYTES = 7900;
+
+    private static final int PUBLISH_BATCH_SIZE = 100;
+
+    // Lazy because WebSocketConfig registers this bean on the broker channel it sends to
+    @Autowired
+    @Lazy
+    @Qualifier("brokerChannel")
+    private MessageChannel brokerChannel;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Value("${chat.broker.notify.channel:chat_broadcast}")
+    private String channel;
+
+    @Value("${chat.broker.notify.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${chat.broker.notify.poll-timeout-ms:500}")
+    private int pollTimeoutMs;
+
+    @Value("${chat.broker.notify.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private BlockingQueue<String> outbound;
+
+    private volatile boolean running;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalStateException("Invalid chat.broker.notify.channel: " + channel);
+        }
+
+        outbound = new LinkedBlockingQueue<>(queueCapacity);
+        running = true;
+
+        startDaemon("chat-notify-publisher", this::publishLoop);
+        startDaemon("chat-notify-listener", this::listenLoop);
+        logger.info("Chat broadcasts relayed over PostgreSQL channel {} as node {}", channel, nodeId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+    }
+
+    // Broker channel interceptor: queue locally produced topic messages for NOTIFY
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+
+        if (!running
+                || SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE
+                || destination == null || !destination.startsWith("/topic/")
+                || headers.containsKey(ORIGIN_HEADER)
+                || !(message.getPayload() instanceof byte[] payload)) {
+            return message;
+        }
+
+        try {
+            Map<String, Object> notification = new HashMap<>();
+            notification.put("origin", nodeId);
+            notification.put("destination", destination);
+            notification.put("contentType", Objects.toString(headers.get(MessageHeaders.CONTENT_TYPE), null));
+            notification.put("payload", new String(payload, StandardCharsets.UTF_8));
+
+            String json = objectMapper.writeValueAsString(notification);
+            if (json.getBytes(StandardCharsets.UTF_8).length > MAX_NOTIFY_BYTES) {
+                logger.warn("Broadcast to {} is too large to relay; delivered on this node only", destination);
+            } else if (!outbound.offer(json)) {
+                logger.warn("Chat relay queue is full; broadcast to {} delivered on this node only", destination);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to queue broadcast to {} for relay: {}", destination, e.getMessage());
+        }
+
+        return message;
+    }
+
+    // Helper methods
+    private void publishLoop() {
+        List<String> batch = new ArrayList<>(PUBLISH_BATCH_SIZE);
+        while (running) {
+            try {
+                String first = outbound.poll(pollTimeoutMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                outbound.drainTo(batch, PUBLISH_BATCH_SIZE - 1);
+
+                // One round trip per batch; NOTIFY keeps the order within a statement
+                jdbcTemplate.queryForList("SELECT pg_notify(?, p) FROM unnest(?::text[]) WITH ORDINALITY AS t(p, n) ORDER BY n",
+                        channel, batch.toArray(new String[0]));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.warn("Failed to publish {} chat broadcasts to other nodes: {}", batch.size(), e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Holds a dedicated connection outside the pool, since LISTEN ties it up for good
+    protected Connection openListenerConnection() throws SQLException {
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = openListenerConnection()) {
+
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            replay(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    logger.warn("Chat relay listener lost its connection, retrying in {} ms: {}",
+                            reconnectDelayMs, e.getMessage());
+                    sleep(reconnectDelayMs);
+                }
+            }
+        }
+    }
+
+    private void replay(String json) {
+        try {
+            Map<?, ?> notification = objectMapper.readValue(json, Map.class);
+            String origin = (String) notification.get("origin");
+            if (nodeId.equals(origin)) {
+                return;
+            }
+
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            accessor.setDestination((String) notification.get("destination"));
+            if (notification.get("contentType") != null) {
+                accessor.setContentType(MimeType.valueOf((String) notification.get("contentType")));
+            }
+            accessor.setHeader(ORIGIN_HEADER, origin);
+
+            byte[] payload = ((String) notification.get("payload")).getBytes(StandardCharsets.UTF_8);
+            brokerChannel.send(MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+        } catch (Exception e) {
+            logger.warn("Failed to replay relayed chat broadcast: {}", e.getMessage());
+        }
+    }
+
+    private void startDaemon(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
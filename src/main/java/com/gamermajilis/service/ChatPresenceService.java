@@ -0,0 +1,298 @@
+package com.gamermajilis.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.security.Principal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory presence for STOMP sessions on /ws. A user is online while at least one
+// session is alive, and online in a room while one of their sessions is subscribed to
+// /topic/rooms/{roomId}. Changes are coalesced per room and published in batches.
+@Service
+public class ChatPresenceService implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatPresenceService.class);
+
+    // Lazy because WebSocketConfig registers this bean as an interceptor while the
+    // messaging template it ultimately depends on is still being configured
+    @Autowired
+    @Lazy
+    private ChatBroadcastService chatBroadcastService;
+
+    @Value("${chat.presence.session-timeout-ms:60000}")
+    private long sessionTimeoutMs;
+
+    // sessionId -> session state
+    private final Map<String, PresenceSession> sessions = new ConcurrentHashMap<>();
+
+    // userId -> live sessionIds
+    private final Map<Long, Set<String>> userSessions = new ConcurrentHashMap<>();
+
+    // roomId -> (userId -> number of live subscriptions to the room topic)
+    private final Map<Long, Map<Long, Integer>> roomUsers = new ConcurrentHashMap<>();
+
+    // roomId -> (userId -> latest online state) waiting for the next flush
+    private final Map<Long, Map<Long, Boolean>> pendingChanges = new ConcurrentHashMap<>();
+
+    public boolean isOnline(Long userId) {
+        return userSessions.containsKey(userId);
+    }
+
+    public Set<Long> getOnlineUserIds() {
+        return new HashSet<>(userSessions.keySet());
+    }
+
+    public Set<Long> getOnlineUserIdsInRoom(Long roomId) {
+        Map<Long, Integer> users = roomUsers.get(roomId);
+        return users == null ? new HashSet<>() : new HashSet<>(users.keySet());
+    }
+
+    public boolean isOnlineInRoom(Long userId, Long roomId) {
+        Map<Long, Integer> users = roomUsers.get(roomId);
+        return users != null && users.containsKey(userId);
+    }
+
+    // Any inbound frame, heartbeats included, counts as a sign of life
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId != null) {
+            PresenceSession session = sessions.get(sessionId);
+            if (session != null) {
+                session.lastSeen = System.currentTimeMillis();
+            }
+        }
+        return message;
+    }
+
+    @EventListener
+    public void handleSessionConnect(SessionConnectEvent event) {
+        Long userId = getUserId(event.getUser());
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (userId == null || sessionId == null) {
+            return;
+        }
+
+        sessions.put(sessionId, new PresenceSession(userId));
+        userSessions.compute(userId, (id, sessionIds) -> {
+            Set<String> result = sessionIds != null ? sessionIds : ConcurrentHashMap.newKeySet();
+            result.add(sessionId);
+            return result;
+        });
+    }
+
+    @EventListener
+    public void handleSessionSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        PresenceSession session = accessor.getSessionId() != null ? sessions.get(accessor.getSessionId()) : null;
+        Long roomId = getRoomIdFromDestination(accessor.getDestination());
+        if (session == null || roomId == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+
+        if (session.subscriptions.put(accessor.getSubscriptionId(), roomId) == null) {
+            addRoomUser(roomId, session.userId);
+
+            // The session disconnected while this SUBSCRIBE was handled; release what it added
+            if (!sessions.containsKey(accessor.getSessionId())
+                    && session.subscriptions.remove(accessor.getSubscriptionId()) != null) {
+                removeRoomUser(roomId, session.userId);
+            }
+        }
+    }
+
+    @EventListener
+    public void handleSessionUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        PresenceSession session = accessor.getSessionId() != null ? sessions.get(accessor.getSessionId()) : null;
+        if (session == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+
+        Long roomId = session.subscriptions.remove(accessor.getSubscriptionId());
+        if (roomId != null) {
+            removeRoomUser(roomId, session.userId);
+        }
+    }
+
+    @EventListener
+    public void handleSessionDisconnect(SessionDisconnectEvent event) {
+        removeSession(event.getSessionId());
+    }
+
+    // Drops sessions whose client stopped heartbeating without a clean DISCONNECT
+    @Scheduled(fixedDelayString = "${chat.presence.sweep-interval-ms:15000}")
+    public void expireIdleSessions() {
+        long cutoff = System.currentTimeMillis() - sessionTimeoutMs;
+        for (Map.Entry<String, PresenceSession> entry : sessions.entrySet()) {
+            if (entry.getValue().lastSeen < cutoff) {
+                logger.debug("Expiring idle WebSocket session {}", entry.getKey());
+                removeSession(entry.getKey());
+            }
+        }
+    }
+
+    // One presence frame per room per interval, however many users came and went
+    @Scheduled(fixedDelayString = "${chat.presence.flush-interval-ms:1000}")
+    public void flushPresenceChanges() {
+        for (Long roomId : new ArrayList<>(pendingChanges.keySet())) {
+            Map<Long, Boolean> changes = pendingChanges.remove(roomId);
+            if (changes == null || changes.isEmpty()) {
+                continue;
+            }
+
+            List<Long> online = new ArrayList<>();
+            List<Long> offline = new ArrayList<>();
+            changes.forEach((userId, isOnline) -> (isOnline ? online : offline).add(userId));
+
+            Map<String, Object> event = new HashMap<>();
+            event.put("type", "PRESENCE");
+            event.put("roomId", roomId);
+            event.put("online", online);
+            event.put("offline", offline);
+            chatBroadcastService.send(ChatBroadcastService.roomTopic(roomId, "presence"), event);
+        }
+    }
+
+    // Helper methods
+    private void removeSession(String sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+
+        PresenceSession session = sessions.remove(sessionId);
+        if (session == null) {
+            return;
+        }
+
+        // Remove key by key so a concurrent UNSUBSCRIBE cannot release the same subscription twice
+        for (String subscriptionId : new ArrayList<>(session.subscriptions.keySet())) {
+            Long roomId = session.subscriptions.remove(subscriptionId);
+            if (roomId != null) {
+                removeRoomUser(roomId, session.userId);
+            }
+        }
+
+        userSessions.computeIfPresent(session.userId, (id, sessionIds) -> {
+            sessionIds.remove(sessionId);
+            return sessionIds.isEmpty() ? null : sessionIds;
+        });
+    }
+
+    private void addRoomUser(Long roomId, Long userId) {
+        boolean[] cameOnline = new boolean[1];
+        roomUsers.compute(roomId, (id, users) -> {
+            Map<Long, Integer> result = users != null ? users : new ConcurrentHashMap<>();
+            cameOnline[0] = result.merge(userId, 1, Integer::sum) == 1;
+            return result;
+        });
+        if (cameOnline[0]) {
+            queuePresenceChange(roomId, userId, true);
+        }
+    }
+
+    private void removeRoomUser(Long roomId, Long userId) {
+        boolean[] wentOffline = new boolean[1];
+        roomUsers.computeIfPresent(roomId, (id, users) -> {
+            Integer remaining = users.computeIfPresent(userId, (uid, count) -> count > 1 ? count - 1 : null);
+            wentOffline[0] = remaining == null;
+            return users.isEmpty() ? null : users;
+        });
+        if (!wentOffline[0]) {
+            return;
+        }
+
+        // Before announcing offline, make sure none of the user's other live sessions is still in
+        // the room; if one is, the count drifted, so restore it instead
+        int liveSubscriptions = countLiveSubscriptions(roomId, userId);
+        if (liveSubscriptions > 0) {
+            roomUsers.compute(roomId, (id, users) -> {
+                Map<Long, Integer> result = users != null ? users : new ConcurrentHashMap<>();
+                result.merge(userId, liveSubscriptions, Integer::sum);
+                return result;
+            });
+            return;
+        }
+        queuePresenceChange(roomId, userId, false);
+    }
+
+    private int countLiveSubscriptions(Long roomId, Long userId) {
+        Set<String> sessionIds = userSessions.get(userId);
+        if (sessionIds == null) {
+            return 0;
+        }
+
+        int count = 0;
+        for (String sessionId : sessionIds) {
+            PresenceSession session = sessions.get(sessionId);
+            if (session != null) {
+                for (Long subscribedRoomId : session.subscriptions.values()) {
+                    if (subscribedRoomId.equals(roomId)) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private void queuePresenceChange(Long roomId, Long userId, boolean online) {
+        pendingChanges.compute(roomId, (id, changes) -> {
+            Map<Long, Boolean> result = changes != null ? changes : new HashMap<>();
+            result.put(userId, online);
+            return result;
+        });
+    }
+
+    private Long getUserId(Principal principal) {
+        if (principal == null) {
+            return null;
+        }
+
+        try {
+            return Long.valueOf(principal.getName());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Only the main room topic counts, so /typing or /presence subscriptions are not double counted
+    private Long getRoomIdFromDestination(String destination) {
+        if (destination == null || !destination.startsWith(ChatBroadcastService.ROOM_TOPIC_PREFIX)) {
+            return null;
+        }
+
+        try {
+            return Long.valueOf(destination.substring(ChatBroadcastService.ROOM_TOPIC_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static final class PresenceSession {
+        private final Long userId;
+        private final Map<String, Long> subscriptions = new ConcurrentHashMap<>();
+        private volatile long lastSeen;
+
+        private PresenceSession(Long userId) {
+            this.userId = userId;
+            this.lastSeen = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.gamermajilis.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// In-memory send limits for chat messages, checked at the top of sendMessage before any
+// repository call; a send that then fails validation hands its slot back with release().
+// Each (room, user) pair honours the room's slowModeSeconds and each user
+// has a global token bucket across all rooms. Buckets are single AtomicLongs updated
+// with CAS, so the hot path takes no locks, and idle buckets are swept periodically.
+@Service
+public class ChatRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatRateLimiter.class);
+
+    @Value("${chat.rate-limit.messages-per-minute:30}")
+    private int messagesPerMinute;
+
+    @Value("${chat.rate-limit.burst:5}")
+    private int burst;
+
+    @Value("${chat.rate-limit.idle-timeout-ms:600000}")
+    private long idleTimeoutMs;
+
+    @Value("${chat.rate-limit.max-buckets:100000}")
+    private int maxBuckets;
+
+    // Minimum gap between sweeps triggered by going over max-buckets
+    @Value("${chat.rate-limit.capacity-sweep-interval-ms:5000}")
+    private long capacitySweepIntervalMs;
+
+    // (roomId, userId) -> nanoTime of the last accepted message
+    private final Map<RoomUserKey, SlowModeBucket> slowModeBuckets = new ConcurrentHashMap<>();
+
+    // userId -> theoretical arrival time (nanoTime) of the global token bucket
+    private final Map<Long, AtomicLong> userBuckets = new ConcurrentHashMap<>();
+
+    // roomId -> slowModeSeconds, refreshed whenever sendMessage loads the room, so the
+    // check itself never needs the room row
+    private final Map<Long, Integer> roomSlowModeSeconds = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    // nanoTime before which no further over-capacity sweep is started
+    private final AtomicLong nextCapacitySweepAt = new AtomicLong(System.nanoTime());
+
+    // Rejection total at the last log line, so each line reports only what happened since
+    private final AtomicLong loggedRejections = new AtomicLong();
+
+    private final LongAdder allowedSends = new LongAdder();
+    private final LongAdder slowModeRejections = new LongAdder();
+    private final LongAdder userLimitRejections = new LongAdder();
+    private final LongAdder evictedBuckets = new LongAdder();
+
+    // Returns 0 if the message may be sent, otherwise the number of seconds to wait
+    public long tryAcquire(Long userId, Long roomId) {
+        long now = System.nanoTime();
+
+        // Slow mode first, so a user who is over the global cap does not also lose their room slot
+        Integer slowModeSeconds = roomSlowModeSeconds.get(roomId);
+        long slowModeNanos = slowModeSeconds != null && slowModeSeconds > 0
+                ? TimeUnit.SECONDS.toNanos(slowModeSeconds) : 0;
+
+        SlowModeBucket slowModeBucket = slowModeBuckets.computeIfAbsent(new RoomUserKey(roomId, userId),
+                key -> new SlowModeBucket(now - slowModeNanos));
+        long previousSend = slowModeBucket.tryAcquire(now, slowModeNanos);
+        if (previousSend == SlowModeBucket.REJECTED) {
+            slowModeRejections.increment();
+            return toRetryAfterSeconds(slowModeBucket.lastSent.get() + slowModeNanos - now);
+        }
+
+        long userWaitNanos = tryAcquireUser(userId, now);
+        if (userWaitNanos > 0) {
+            // Give the room slot back unless another send has already replaced it
+            slowModeBucket.lastSent.compareAndSet(now, previousSend);
+            userLimitRejections.increment();
+            return toRetryAfterSeconds(userWaitNanos);
+        }
+
+        allowedSends.increment();
+        evictIfOverCapacity(now);
+        return 0;
+    }
+
+    // Undoes a successful tryAcquire for a send that was then refused, so invalid requests
+    // do not use up the sender's slots. Each bucket is wound back by one interval, which
+    // leaves it no stricter than it was before the acquire.
+    public void release(Long userId, Long roomId) {
+        SlowModeBucket slowModeBucket = slowModeBuckets.get(new RoomUserKey(roomId, userId));
+        if (slowModeBucket != null && slowModeBucket.intervalNanos > 0) {
+            slowModeBucket.lastSent.addAndGet(-slowModeBucket.intervalNanos);
+        }
+
+        AtomicLong userBucket = userBuckets.get(userId);
+        if (userBucket != null) {
+            userBucket.addAndGet(-emissionNanos());
+        }
+        allowedSends.decrement();
+    }
+
+    public void updateSlowMode(Long roomId, Integer slowModeSeconds) {
+        if (slowModeSeconds != null && slowModeSeconds > 0) {
+            roomSlowModeSeconds.put(roomId, slowModeSeconds);
+        } else {
+            roomSlowModeSeconds.remove(roomId);
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("allowedSends", allowedSends.sum());
+        metrics.put("slowModeRejections", slowModeRejections.sum());
+        metrics.put("userLimitRejections", userLimitRejections.sum());
+        metrics.put("evictedBuckets", evictedBuckets.sum());
+        metrics.put("slowModeBuckets", slowModeBuckets.size());
+        metrics.put("userBuckets", userBuckets.size());
+        return metrics;
+    }
+
+    @Scheduled(fixedDelayString = "${chat.rate-limit.sweep-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            long now = System.nanoTime();
+            long idleNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+            int evicted = 0;
+
+            // A bucket is only dropped once it has fully refilled, so eviction never loosens a limit
+            for (Map.Entry<RoomUserKey, SlowModeBucket> entry : slowModeBuckets.entrySet()) {
+                SlowModeBucket bucket = entry.getValue();
+                if (now - bucket.lastSent.get() > Math.max(idleNanos, bucket.intervalNanos)
+                        && slowModeBuckets.remove(entry.getKey(), bucket)) {
+                    evicted++;
+                }
+            }
+            for (Map.Entry<Long, AtomicLong> entry : userBuckets.entrySet()) {
+                AtomicLong bucket = entry.getValue();
+                if (now - bucket.get() > idleNanos && userBuckets.remove(entry.getKey(), bucket)) {
+                    evicted++;
+                }
+            }
+
+            evictedBuckets.add(evicted);
+            long rejected = slowModeRejections.sum() + userLimitRejections.sum();
+            long newRejections = rejected - loggedRejections.getAndSet(rejected);
+            if (evicted > 0 || newRejections > 0) {
+                logger.info("Chat rate limiter: evicted {} idle buckets, {} rejected sends since the last sweep, metrics {}",
+                        evicted, newRejections, getMetrics());
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    // Helper methods
+
+    // GCRA form of a token bucket: one CAS on the theoretical arrival time per send.
+    // Returns 0 if a token was taken, otherwise the nanos until one is available.
+    private long tryAcquireUser(Long userId, long now) {
+        long emissionNanos = emissionNanos();
+        long toleranceNanos = emissionNanos * (Math.max(1, burst) - 1);
+
+        AtomicLong bucket = userBuckets.computeIfAbsent(userId, key -> new AtomicLong(now));
+        while (true) {
+            long tat = bucket.get();
+            long allowAt = tat - toleranceNanos;
+            if (now - allowAt < 0) {
+                return allowAt - now;
+            }
+            long newTat = Math.max(tat, now) + emissionNanos;
+            if (bucket.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    // Over capacity, one sender per interval starts a sweep in the background; the send
+    // itself never pays for the scan
+    private void evictIfOverCapacity(long now) {
+        if (slowModeBuckets.size() + userBuckets.size() <= maxBuckets) {
+            return;
+        }
+        long next = nextCapacitySweepAt.get();
+        if (now - next >= 0 && nextCapacitySweepAt.compareAndSet(next,
+                now + TimeUnit.MILLISECONDS.toNanos(capacitySweepIntervalMs))) {
+            CompletableFuture.runAsync(this::evictIdleBuckets);
+        }
+    }
+
+    private long emissionNanos() {
+        return TimeUnit.MINUTES.toNanos(1) / Math.max(1, messagesPerMinute);
+    }
+
+    private long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private record RoomUserKey(Long roomId, Long userId) {}
+
+    private static final class SlowModeBucket {
+
+        private static final long REJECTED = Long.MIN_VALUE;
+
+        private final AtomicLong lastSent;
+
+        // Slow mode interval seen on the last send, so eviction waits at least that long
+        private volatile long intervalNanos;
+
+        private SlowModeBucket(long lastSent) {
+            this.lastSent = new AtomicLong(lastSent);
+        }
+
+        // Returns the previous send time if accepted, or REJECTED
+        private long tryAcquire(long now, long slowModeNanos) {
+            intervalNanos = slowModeNanos;
+            while (true) {
+                long previous = lastSent.get();
+                if (slowModeNanos > 0 && now - previous < slowModeNanos) {
+                    return REJECTED;
+                }
+                if (lastSent.compareAndSet(previous, now)) {
+                    return previous;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.gamermajilis.service;
+
+import com.gamermajilis.model.ChatMessage;
+import com.gamermajilis.repository.ChatRoomRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Write-behind for ChatRoom statistics. Sending a message only bumps an in-memory
+// accumulator; totalMessages, lastActivity and the last message snapshot are written
+// to chat_rooms at most once per room per flush interval.
+@Service
+public class ChatRoomActivityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatRoomActivityService.class);
+
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // roomId -> activity not yet written. All writes go through compute() so a flush
+    // that removes an entry can never race with an increment into the detached copy.
+    private final Map<Long, RoomActivity> pendingActivity = new ConcurrentHashMap<>();
+
+    // Records a sent message once the surrounding transaction commits
+    public void recordMessage(ChatMessage message) {
+        Long roomId = message.getChatRoom().getId();
+        LastMessage lastMessage = new LastMessage(message.getId(), message.getContent(), message.getSender().getId(),
+                message.getSender().getDisplayName(), message.getCreatedAt());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addActivity(roomId, 1, LocalDateTime.now(), lastMessage);
+                }
+            });
+        } else {
+            addActivity(roomId, 1, LocalDateTime.now(), lastMessage);
+        }
+    }
+
+    // Drops a pending snapshot for a message that is being deleted. Returns true if
+    // the message was the room's newest known message, so the caller must recompute it.
+    public boolean discardLastMessage(Long roomId, Long messageId) {
+        boolean[] discarded = new boolean[1];
+        pendingActivity.computeIfPresent(roomId, (id, activity) -> {
+            if (activity.lastMessage != null && activity.lastMessage.id.equals(messageId)) {
+                activity.lastMessage = null;
+                discarded[0] = true;
+            }
+            return activity;
+        });
+        return discarded[0];
+    }
+
+    @Scheduled(fixedDelayString = "${chat.activity.flush-interval-ms:1000}")
+    public void flushActivity() {
+        if (pendingActivity.isEmpty()) {
+            return;
+        }
+
+        Map<Long, RoomActivity> batch = new HashMap<>();
+        for (Long roomId : new ArrayList<>(pendingActivity.keySet())) {
+            RoomActivity activity = pendingActivity.remove(roomId);
+            if (activity != null) {
+                batch.put(roomId, activity);
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> batch.forEach((roomId, activity) -> {
+                if (activity.messageCount > 0) {
+                    chatRoomRepository.addMessageActivity(roomId, activity.messageCount, activity.lastActivity);
+                }
+                LastMessage last = activity.lastMessage;
+                if (last != null) {
+                    chatRoomRepository.updateLastMessageIfNewer(roomId, last.id, last.content, last.senderId,
+                            last.senderName, last.createdAt);
+                }
+            }));
+        } catch (Exception e) {
+            // Put the batch back so the next flush retries it instead of losing counts
+            logger.error("Error flushing chat room activity for {} rooms", batch.size(), e);
+            batch.forEach((roomId, activity) ->
+                    addActivity(roomId, activity.messageCount, activity.lastActivity, activity.lastMessage));
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushActivity();
+        if (!pendingActivity.isEmpty()) {
+            logger.warn("Chat room activity for {} rooms could not be flushed on shutdown", pendingActivity.size());
+        }
+    }
+
+    // Helper methods
+    private void addActivity(Long roomId, long messageCount, LocalDateTime lastActivity, LastMessage lastMessage) {
+        pendingActivity.compute(roomId, (id, activity) -> {
+            RoomActivity result = activity != null ? activity : new RoomActivity();
+            result.messageCount += messageCount;
+            if (lastActivity != null && (result.lastActivity == null || lastActivity.isAfter(result.lastActivity))) {
+                result.lastActivity = lastActivity;
+            }
+            if (lastMessage != null && (result.lastMessage == null || lastMessage.id > result.lastMessage.id)) {
+                result.lastMessage = lastMessage;
+            }
+            return result;
+        });
+    }
+
+    private static final class RoomActivity {
+        private long messageCount;
+        private LocalDateTime lastActivity;
+        private LastMessage lastMessage;
+    }
+
+    private static final class LastMessage {
+        private final Long id;
+        private final String content;
+        private final Long senderId;
+        private final String senderName;
+        private final LocalDateTime createdAt;
+
+        private LastMessage(Long id, String content, Long senderId, String senderName, LocalDateTime createdAt) {
+            this.id = id;
+            this.content = content;
+            this.senderId = senderId;
+            this.senderName = senderName;
+            this.createdAt = createdAt;
+        }
+    }
+}
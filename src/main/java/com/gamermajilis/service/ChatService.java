@@ -6,6 +6,8 @@ public interface ChatService {
     
     Map<String, Object> createChatRoom(Long userId, Map<String, Object> roomData);
     
+    Map<String, Object> setBatchedIngestion(Long userId, Long roomId, boolean batchedIngestion);
+    
     Map<String, Object> getUserChatRooms(Long userId, int page, int size);
     
     Map<String, Object> getChatRoomDetails(Long userId, Long roomId);
@@ -14,12 +16,22 @@ public interface ChatService {
     
     Map<String, Object> leaveChatRoom(Long userId, Long roomId);
     
+    Map<String, Object> markChatRoomRead(Long userId, Long roomId, Long messageId);
+    
     Map<String, Object> sendMessage(Long userId, Long roomId, Map<String, Object> messageData);
     
     Map<String, Object> getChatMessages(Long userId, Long roomId, int page, int size, Map<String, Object> filters);
     
+    Map<String, Object> getChatMessageHistory(Long userId, Long roomId, String cursor, Long afterMessageId, int size);
+    
+    Map<String, Object> getArchivedMessages(Long userId, Long roomId, String fromDate, String toDate);
+    
+    Map<String, Object> searchChatMessages(Long userId, Long roomId, String query, String cursor, int size);
+    
     Map<String, Object> deleteMessage(Long userId, Long messageId);
     
+    Map<String, Object> toggleMessageReaction(Long userId, Long messageId, String emoji);
+    
     Map<String, Object> addChatRoomMember(Long userId, Long roomId, Long memberId, String role);
     
     Map<String, Object> removeChatRoomMember(Long userId, Long roomId, Long memberId);
@@ -28,7 +40,7 @@ public interface ChatService {
     
     Map<String, Object> startDirectMessage(Long userId, Long recipientId);
     
-    Map<String, Object> getOnlineUsers(Long userId);
+    Map<String, Object> getOnlineUsers(Long userId, Long roomId);
     
     Map<String, Object> sendTypingIndicator(Long userId, Long roomId, boolean isTyping);
 }
@@ -2,16 +2,26 @@ package com.gamermajilis.service;
 
 import com.gamermajilis.model.*;
 import com.gamermajilis.repository.*;
+import com.gamermajilis.util.CursorUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -21,6 +31,22 @@ public class ChatServiceImpl implements ChatService {
     
     private static final Logger logger = LoggerFactory.getLogger(ChatServiceImpl.class);
     
+    private static final int MAX_ONLINE_USERS = 100;
+    
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    
+    private static final String HISTORY_BEFORE = "before";
+    
+    private static final String HISTORY_AFTER = "after";
+    
+    private static final int MAX_EMOJI_LENGTH = 32;
+    
+    private static final int MAX_ARCHIVE_RANGE_DAYS = 31;
+    
+    private static final int MAX_SEARCH_PAGE_SIZE = 50;
+    
+    private static final int MAX_SEARCH_QUERY_LENGTH = 200;
+    
     @Autowired
     private ChatRoomRepository chatRoomRepository;
     
@@ -33,6 +59,45 @@ public class ChatServiceImpl implements ChatService {
     @Autowired
     private ChatRoomMemberRepository chatRoomMemberRepository;
     
+    @Autowired
+    private ChatBroadcastService chatBroadcastService;
+    
+    @Autowired
+    private ChatPresenceService chatPresenceService;
+    
+    @Autowired
+    private ChatTypingService chatTypingService;
+    
+    @Autowired
+    private ChatRoomActivityService chatRoomActivityService;
+    
+    @Autowired
+    private ChatRateLimiter chatRateLimiter;
+    
+    @Autowired
+    private ChatMessageReactionRepository chatMessageReactionRepository;
+    
+    @Autowired
+    private ChatMessageReactionCountRepository chatMessageReactionCountRepository;
+    
+    @Autowired
+    private ChatMembershipCache chatMembershipCache;
+    
+    @Autowired
+    private ChatArchiveService chatArchiveService;
+    
+    @Autowired
+    private ChatUnreadService chatUnreadService;
+    
+    @Autowired
+    private ChatDirectRoomCache chatDirectRoomCache;
+    
+    @Autowired
+    private ChatMessageIngestService chatMessageIngestService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
     @Override
     public Map<String, Object> createChatRoom(Long userId, Map<String, Object> roomData) {
         Map<String, Object> response = new HashMap<>();
@@ -95,6 +160,10 @@ public class ChatServiceImpl implements ChatService {
                 chatRoom.setEventId(((Number) roomData.get("eventId")).longValue());
             }
             
+            if (roomData.get("batchedIngestion") != null) {
+                chatRoom.setBatchedIngestion((Boolean) roomData.get("batchedIngestion"));
+            }
+            
             // Save chat room
             ChatRoom savedChatRoom = chatRoomRepository.save(chatRoom);
             
@@ -111,6 +180,44 @@ public class ChatServiceImpl implements ChatService {
         return response;
     }
     
+    @Override
+    public Map<String, Object> setBatchedIngestion(Long userId, Long roomId, boolean batchedIngestion) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            Optional<ChatRoom> chatRoomOpt = chatRoomRepository.findById(roomId);
+            
+            if (chatRoomOpt.isEmpty() || chatRoomOpt.get().isDeleted()) {
+                response.put("success", false);
+                response.put("message", "Chat room not found");
+                return response;
+            }
+            
+            ChatRoom chatRoom = chatRoomOpt.get();
+            
+            if (!chatRoom.getCreator().getId().equals(userId)) {
+                response.put("success", false);
+                response.put("message", "Access denied");
+                return response;
+            }
+            
+            // Messages already queued are still flushed by ChatMessageIngestService when the flag is turned off
+            chatRoom.setBatchedIngestion(batchedIngestion);
+            ChatRoom savedChatRoom = chatRoomRepository.save(chatRoom);
+            
+            response.put("success", true);
+            response.put("message", batchedIngestion ? "Batched ingestion enabled" : "Batched ingestion disabled");
+            response.put("chatRoom", formatChatRoomForResponse(savedChatRoom));
+            
+        } catch (Exception e) {
+            logger.error("Error updating chat room ingestion mode", e);
+            response.put("success", false);
+            response.put("message", "Failed to update chat room");
+        }
+        
+        return response;
+    }
+    
     @Override
     public Map<String, Object> getUserChatRooms(Long userId, int page, int size) {
         Map<String, Object> response = new HashMap<>();
@@ -127,8 +234,19 @@ public class ChatServiceImpl implements ChatService {
             Pageable pageable = PageRequest.of(page, size);
             Page<ChatRoomMember> membershipsPage = chatRoomMemberRepository.findByUserAndIsBannedFalseOrderByChatRoomLastActivityDesc(user, pageable);
             
+            // Unread counts come from the in-memory counters, with one grouped query for any misses
+            List<Long> roomIds = membershipsPage.getContent().stream()
+                    .map(membership -> membership.getChatRoom().getId())
+                    .collect(Collectors.toList());
+            Map<Long, Integer> unreadCounts = chatUnreadService.getUnreadCounts(userId, roomIds);
+            
             List<Map<String, Object>> chatRooms = membershipsPage.getContent().stream()
-                    .map(membership -> formatChatRoomForResponse(membership.getChatRoom()))
+                    .map(membership -> {
+                        Map<String, Object> roomMap = formatChatRoomForResponse(membership.getChatRoom());
+                        roomMap.put("unreadCount", unreadCounts.getOrDefault(membership.getChatRoom().getId(), 0));
+                        roomMap.put("lastReadMessageId", membership.getLastReadMessageId());
+                        return roomMap;
+                    })
                     .collect(Collectors.toList());
             
             response.put("success", true);
@@ -154,7 +272,6 @@ public class ChatServiceImpl implements ChatService {
         
         try {
             Optional<ChatRoom> chatRoomOpt = chatRoomRepository.findById(roomId);
-            Optional<User> userOpt = userRepository.findById(userId);
             
             if (chatRoomOpt.isEmpty() || chatRoomOpt.get().isDeleted()) {
                 response.put("success", false);
@@ -162,23 +279,13 @@ public class ChatServiceImpl implements ChatService {
                 return response;
             }
             
-            if (userOpt.isEmpty()) {
-                response.put("success", false);
-                response.put("message", "User not found");
-                return response;
-            }
-            
             ChatRoom chatRoom = chatRoomOpt.get();
-            User user = userOpt.get();
             
             // Check if user is a member (unless it's a public room)
-            if (chatRoom.getIsPrivate()) {
-                Optional<ChatRoomMember> membership = chatRoomMemberRepository.findByChatRoomAndUser(chatRoom, user);
-                if (membership.isEmpty() || membership.get().getIsBanned()) {
-                    response.put("success", false);
-                    response.put("message", "Chat room not found or access denied");
-                    return response;
-                }
+            if (!chatMembershipCache.canAccess(chatRoom, userId)) {
+                response.put("success", false);
+                response.put("message", "Chat room not found or access denied");
+                return response;
             }
             
             response.put("success", true);
@@ -239,8 +346,12 @@ public class ChatServiceImpl implements ChatService {
             }
             
             // Create new membership
+            // New members start with the existing history already read
             ChatRoomMember newMember = new ChatRoomMember(chatRoom, user, ChatMemberRole.MEMBER);
+            newMember.setLastReadMessageId(chatMessageRepository.findMaxMessageIdInRoom(roomId));
             chatRoomMemberRepository.save(newMember);
+            chatMembershipCache.invalidate(roomId, userId);
+            chatUnreadService.invalidate(userId, roomId);
             
             // Update member count
             chatRoom.incrementMemberCount();
@@ -284,7 +395,18 @@ public class ChatServiceImpl implements ChatService {
             
             ChatRoom chatRoom = chatRoomOpt.get();
             
-            // Basic implementation
+            // Banned members keep their row so that leaving does not lift the ban
+            Optional<ChatRoomMember> membership = chatRoomMemberRepository.findByChatRoomIdAndUserId(roomId, userId);
+            if (membership.isEmpty() || membership.get().getIsBanned()) {
+                response.put("success", false);
+                response.put("message", "You are not a member of this chat room");
+                return response;
+            }
+            
+            chatRoomMemberRepository.delete(membership.get());
+            chatMembershipCache.invalidate(roomId, userId);
+            chatUnreadService.invalidate(userId, roomId);
+            
             chatRoom.decrementMemberCount();
             chatRoomRepository.save(chatRoom);
             
@@ -300,31 +422,77 @@ public class ChatServiceImpl implements ChatService {
         return response;
     }
     
+    @Override
+    public Map<String, Object> markChatRoomRead(Long userId, Long roomId, Long messageId) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            if (!chatMembershipCache.isActiveMember(roomId, userId)) {
+                response.put("success", false);
+                response.put("message", "Chat room not found or access denied");
+                return response;
+            }
+            
+            // Without an explicit message, everything currently in the room is read. A given id is
+            // clamped to the room's newest message, so it cannot mark later messages as read.
+            Long maxMessageId = chatMessageRepository.findMaxMessageIdInRoom(roomId);
+            Long readUpTo = messageId != null && maxMessageId != null ? Math.min(messageId, maxMessageId) : maxMessageId;
+            if (readUpTo != null) {
+                chatRoomMemberRepository.advanceReadCursor(roomId, userId, readUpTo);
+                chatUnreadService.invalidate(userId, roomId);
+            }
+            
+            response.put("success", true);
+            response.put("message", "Chat room marked as read");
+            response.put("roomId", roomId);
+            response.put("lastReadMessageId", readUpTo);
+            
+        } catch (Exception e) {
+            logger.error("Error marking chat room as read", e);
+            response.put("success", false);
+            response.put("message", "Failed to mark chat room as read");
+        }
+        
+        return response;
+    }
+    
     @Override
     public Map<String, Object> sendMessage(Long userId, Long roomId, Map<String, Object> messageData) {
         Map<String, Object> response = new HashMap<>();
         
         try {
+            // Slow mode and the per-user cap are enforced before any repository call, so a
+            // burst from one sender costs no queries; invalid sends hand their slot back below
+            long retryAfterSeconds = chatRateLimiter.tryAcquire(userId, roomId);
+            if (retryAfterSeconds > 0) {
+                response.put("success", false);
+                response.put("message", "You are sending messages too quickly");
+                response.put("rateLimited", true);
+                response.put("retryAfterSeconds", retryAfterSeconds);
+                return response;
+            }
+            
             Optional<ChatRoom> chatRoomOpt = chatRoomRepository.findById(roomId);
             Optional<User> userOpt = userRepository.findById(userId);
             
             if (chatRoomOpt.isEmpty() || chatRoomOpt.get().isDeleted()) {
-                response.put("success", false);
-                response.put("message", "Chat room not found");
-                return response;
+                return rejectSend(response, userId, roomId, "Chat room not found");
+            }
+            
+            // Keep the limiter's view of the room's slow mode current
+            chatRateLimiter.updateSlowMode(roomId, chatRoomOpt.get().getSlowModeSeconds());
+            
+            if (!chatMembershipCache.canAccess(chatRoomOpt.get(), userId) || chatMembershipCache.isBanned(roomId, userId)) {
+                return rejectSend(response, userId, roomId, "Chat room not found or access denied");
             }
             
             if (userOpt.isEmpty()) {
-                response.put("success", false);
-                response.put("message", "User not found");
-                return response;
+                return rejectSend(response, userId, roomId, "User not found");
             }
             
             String content = (String) messageData.get("content");
             if (content == null || content.trim().isEmpty()) {
-                response.put("success", false);
-                response.put("message", "Message content cannot be empty");
-                return response;
+                return rejectSend(response, userId, roomId, "Message content cannot be empty");
             }
             
             ChatRoom chatRoom = chatRoomOpt.get();
@@ -355,16 +523,45 @@ public class ChatServiceImpl implements ChatService {
                 }
             }
             
+            // Flagged high-volume rooms acknowledge now, broadcast once the send commits, and
+            // persist in batches
+            if (Boolean.TRUE.equals(chatRoom.getBatchedIngestion())) {
+                if (!chatMessageIngestService.enqueue(message,
+                        () -> chatBroadcastService.publishMessageCreatedNow(roomId, formatMessageForResponse(message)))) {
+                    chatRateLimiter.release(userId, roomId);
+                    response.put("success", false);
+                    response.put("message", "Chat room is busy, please try again");
+                    response.put("rateLimited", true);
+                    response.put("retryAfterSeconds", 1L);
+                    return response;
+                }
+                
+                Map<String, Object> chatMessage = formatMessageForResponse(message);
+                chatTypingService.updateTyping(roomId, userId, false);
+                
+                response.put("success", true);
+                response.put("message", "Message accepted");
+                response.put("chatMessage", chatMessage);
+                response.put("queued", true);
+                return response;
+            }
+            
             // Save message
             ChatMessage savedMessage = chatMessageRepository.save(message);
             
-            // Update chat room activity
-            chatRoom.addMessage();
-            chatRoomRepository.save(chatRoom);
+            // Update chat room activity (buffered, so the chat_rooms row is not rewritten per message)
+            chatRoomActivityService.recordMessage(savedMessage);
+            chatUnreadService.recordMessage(roomId, userId);
+            
+            Map<String, Object> chatMessage = formatMessageForResponse(savedMessage);
+            
+            // Push to room subscribers once the message is committed
+            chatBroadcastService.publishMessageCreated(roomId, chatMessage);
+            chatTypingService.updateTyping(roomId, userId, false);
             
             response.put("success", true);
             response.put("message", "Message sent successfully");
-            response.put("chatMessage", formatMessageForResponse(savedMessage));
+            response.put("chatMessage", chatMessage);
             
         } catch (Exception e) {
             logger.error("Error sending message", e);
@@ -382,7 +579,6 @@ public class ChatServiceImpl implements ChatService {
         try {
             // Check if user has access to the chat room
             Optional<ChatRoom> chatRoomOpt = chatRoomRepository.findById(roomId);
-            Optional<User> userOpt = userRepository.findById(userId);
             
             if (chatRoomOpt.isEmpty() || chatRoomOpt.get().isDeleted()) {
                 response.put("success", false);
@@ -390,23 +586,13 @@ public class ChatServiceImpl implements ChatService {
                 return response;
             }
             
-            if (userOpt.isEmpty()) {
-                response.put("success", false);
-                response.put("message", "User not found");
-                return response;
-            }
-            
             ChatRoom chatRoom = chatRoomOpt.get();
-            User user = userOpt.get();
             
             // Check if user is a member (unless it's a public room)
-            if (chatRoom.getIsPrivate()) {
-                Optional<ChatRoomMember> membership = chatRoomMemberRepository.findByChatRoomAndUser(chatRoom, user);
-                if (membership.isEmpty() || membership.get().getIsBanned()) {
-                    response.put("success", false);
-                    response.put("message", "Chat room not found or access denied");
-                    return response;
-                }
+            if (!chatMembershipCache.canAccess(chatRoom, userId)) {
+                response.put("success", false);
+                response.put("message", "Chat room not found or access denied");
+                return response;
             }
             
             Pageable pageable = PageRequest.of(page, size);
@@ -429,6 +615,7 @@ public class ChatServiceImpl implements ChatService {
             List<Map<String, Object>> messages = messagesPage.getContent().stream()
                     .map(this::formatMessageForResponse)
                     .collect(Collectors.toList());
+            attachReactionSummaries(messages, userId);
             
             response.put("success", true);
             response.put("message", "Messages retrieved successfully");
@@ -447,6 +634,230 @@ public class ChatServiceImpl implements ChatService {
         return response;
     }
     
+    @Override
+    public Map<String, Object> getChatMessageHistory(Long userId, Long roomId, String cursor, Long afterMessageId, int size) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            Optional<ChatRoom> chatRoomOpt = chatRoomRepository.findById(roomId);
+            
+            if (chatRoomOpt.isEmpty() || chatRoomOpt.get().isDeleted()) {
+                response.put("success", false);
+                response.put("message", "Chat room not found");
+                return response;
+            }
+            
+            ChatRoom chatRoom = chatRoomOpt.get();
+            
+            // Check if user is a member (unless it's a public room)
+            if (!chatMembershipCache.canAccess(chatRoom, userId)) {
+                response.put("success", false);
+                response.put("message", "Chat room not found or access denied");
+                return response;
+            }
+            
+            // Cursor format: roomId:direction:messageId, direction is "before" (older) or "after" (newer)
+            String direction = HISTORY_BEFORE;
+            Long anchorId = null;
+            if (cursor != null && !cursor.isBlank()) {
+                String[] parts;
+                try {
+                    parts = CursorUtil.decode(cursor, 3);
+                    if (!roomId.equals(Long.valueOf(parts[0])) ||
+                            !(HISTORY_BEFORE.equals(parts[1]) || HISTORY_AFTER.equals(parts[1]))) {
+                        throw new IllegalArgumentException("Cursor does not belong to this chat room");
+                    }
+                    direction = parts[1];
+                    anchorId = Long.valueOf(parts[2]);
+                } catch (IllegalArgumentException e) {
+                    response.put("success", false);
+                    response.put("message", "Invalid cursor");
+                    return response;
+                }
+            } else if (afterMessageId != null) {
+                direction = HISTORY_AFTER;
+                anchorId = afterMessageId;
+            }
+            
+            int pageSize = Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+            Pageable pageable = PageRequest.of(0, pageSize);
+            Slice<ChatMessage> messagesSlice;
+            
+            if (anchorId == null) {
+                messagesSlice = chatMessageRepository.findLatestHistory(roomId, pageable);
+            } else if (HISTORY_AFTER.equals(direction)) {
+                messagesSlice = chatMessageRepository.findHistoryAfter(roomId, anchorId, pageable);
+            } else {
+                messagesSlice = chatMessageRepository.findHistoryBefore(roomId, anchorId, pageable);
+            }
+            
+            List<ChatMessage> content = messagesSlice.getContent();
+            String nextCursor = null;
+            if (messagesSlice.hasNext() && !content.isEmpty()) {
+                Long lastId = content.get(content.size() - 1).getId();
+                nextCursor = CursorUtil.encode(roomId, direction, lastId);
+            }
+            
+            List<Map<String, Object>> messages = content.stream()
+                    .map(this::formatMessageForResponse)
+                    .collect(Collectors.toList());
+            attachReactionSummaries(messages, userId);
+            
+            response.put("success", true);
+            response.put("message", "Messages retrieved successfully");
+            response.put("messages", messages);
+            response.put("nextCursor", nextCursor);
+            response.put("hasMore", nextCursor != null);
+            response.put("pageSize", pageSize);
+            
+        } catch (Exception e) {
+            logger.error("Error getting chat message history", e);
+            response.put("success", false);
+            response.put("message", "Failed to get messages");
+        }
+        
+        return response;
+    }
+    
+    @Override
+    public Map<String, Object> getArchivedMessages(Long userId, Long roomId, String fromDate, String toDate) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            Optional<ChatRoom> chatRoomOpt = chatRoomRepository.findById(roomId);
+            
+            if (chatRoomOpt.isEmpty() || chatRoomOpt.get().isDeleted()) {
+                response.put("success", false);
+                response.put("message", "Chat room not found");
+                return response;
+            }
+            
+            if (!chatMembershipCache.canAccess(chatRoomOpt.get(), userId)) {
+                response.put("success", false);
+                response.put("message", "Chat room not found or access denied");
+                return response;
+            }
+            
+            LocalDate from;
+            LocalDate to;
+            try {
+                from = LocalDate.parse(fromDate);
+                to = toDate != null ? LocalDate.parse(toDate) : from;
+            } catch (DateTimeParseException e) {
+                response.put("success", false);
+                response.put("message", "Dates must be in yyyy-MM-dd format");
+                return response;
+            }
+            
+            if (to.isBefore(from) || from.plusDays(MAX_ARCHIVE_RANGE_DAYS).isBefore(to)) {
+                response.put("success", false);
+                response.put("message", "Date range must be between 1 and " + MAX_ARCHIVE_RANGE_DAYS + " days");
+                return response;
+            }
+            
+            Map<String, Object> archive = chatArchiveService.readArchive(roomId, from, to);
+            
+            response.put("success", true);
+            response.put("message", "Archived messages retrieved successfully");
+            response.put("messages", archive.get("messages"));
+            response.put("truncated", archive.get("truncated"));
+            response.put("fromDate", from.toString());
+            response.put("toDate", to.toString());
+            
+        } catch (Exception e) {
+            logger.error("Error getting archived chat messages", e);
+            response.put("success", false);
+            response.put("message", "Failed to get archived messages");
+        }
+        
+        return response;
+    }
+    
+    @Override
+    public Map<String, Object> searchChatMessages(Long userId, Long roomId, String query, String cursor, int size) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            if (query == null || query.trim().isEmpty() || query.length() > MAX_SEARCH_QUERY_LENGTH) {
+                response.put("success", false);
+                response.put("message", "Search query must be between 1 and " + MAX_SEARCH_QUERY_LENGTH + " characters");
+                return response;
+            }
+            
+            Optional<ChatRoom> chatRoomOpt = chatRoomRepository.findById(roomId);
+            
+            if (chatRoomOpt.isEmpty() || chatRoomOpt.get().isDeleted()) {
+                response.put("success", false);
+                response.put("message", "Chat room not found");
+                return response;
+            }
+            
+            if (!chatMembershipCache.canAccess(chatRoomOpt.get(), userId)) {
+                response.put("success", false);
+                response.put("message", "Chat room not found or access denied");
+                return response;
+            }
+            
+            String searchQuery = query.trim();
+            int pageSize = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+            List<Object[]> rows;
+            
+            // Cursor format: roomId:rank:messageId of the last hit on the previous page
+            if (cursor != null && !cursor.isBlank()) {
+                String[] parts;
+                float afterRank;
+                Long afterId;
+                try {
+                    parts = CursorUtil.decode(cursor, 3);
+                    afterRank = Float.parseFloat(parts[1]);
+                    afterId = Long.valueOf(parts[2]);
+                } catch (IllegalArgumentException e) {
+                    response.put("success", false);
+                    response.put("message", "Invalid cursor");
+                    return response;
+                }
+                
+                if (!roomId.toString().equals(parts[0])) {
+                    response.put("success", false);
+                    response.put("message", "Invalid cursor");
+                    return response;
+                }
+                
+                rows = chatMessageRepository.searchMessagesInRoomAfter(roomId, searchQuery, afterRank, afterId, pageSize + 1);
+            } else {
+                rows = chatMessageRepository.searchMessagesInRoom(roomId, searchQuery, pageSize + 1);
+            }
+            
+            // One extra row tells us whether another page exists without a count query
+            boolean hasMore = rows.size() > pageSize;
+            List<Object[]> hits = hasMore ? rows.subList(0, pageSize) : rows;
+            
+            List<Map<String, Object>> results = hits.stream()
+                    .map(this::formatSearchHitForResponse)
+                    .collect(Collectors.toList());
+            
+            String nextCursor = null;
+            if (hasMore) {
+                Object[] last = hits.get(hits.size() - 1);
+                nextCursor = CursorUtil.encode(roomId, ((Number) last[4]).floatValue(), ((Number) last[0]).longValue());
+            }
+            
+            response.put("success", true);
+            response.put("message", "Search completed successfully");
+            response.put("results", results);
+            response.put("nextCursor", nextCursor);
+            response.put("hasMore", hasMore);
+            response.put("pageSize", pageSize);
+            
+        } catch (Exception e) {
+            logger.error("Error searching chat messages", e);
+            response.put("success", false);
+            response.put("message", "Failed to search messages");
+        }
+        
+        return response;
+    }
+    
     @Override
     public Map<String, Object> deleteMessage(Long userId, Long messageId) {
         Map<String, Object> response = new HashMap<>();
@@ -464,6 +875,25 @@ public class ChatServiceImpl implements ChatService {
             message.delete(); // Sets deleted flag and updates content
             chatMessageRepository.save(message);
             
+            // Roll the room's last message snapshot back if this was the latest message,
+            // whether or not its snapshot has been flushed yet
+            ChatRoom chatRoom = message.getChatRoom();
+            boolean wasPendingLastMessage = chatRoomActivityService.discardLastMessage(chatRoom.getId(), messageId);
+            if (wasPendingLastMessage || messageId.equals(chatRoom.getLastMessageId())) {
+                Optional<ChatMessage> latestMessage = chatMessageRepository.findLatestMessageInRoom(chatRoom.getId());
+                if (latestMessage.isPresent()) {
+                    chatRoom.updateLastMessage(latestMessage.get());
+                } else {
+                    chatRoom.clearLastMessage();
+                }
+                chatRoomRepository.save(chatRoom);
+            }
+            
+            // Deleted messages no longer count as unread
+            chatUnreadService.invalidateRoom(chatRoom.getId());
+            
+            chatBroadcastService.publishMessageDeleted(chatRoom.getId(), message.getId());
+            
             response.put("success", true);
             response.put("message", "Message deleted successfully");
             
@@ -476,6 +906,77 @@ public class ChatServiceImpl implements ChatService {
         return response;
     }
     
+    @Override
+    public Map<String, Object> toggleMessageReaction(Long userId, Long messageId, String emoji) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            if (emoji == null || emoji.trim().isEmpty() || emoji.trim().length() > MAX_EMOJI_LENGTH) {
+                response.put("success", false);
+                response.put("message", "Invalid emoji");
+                return response;
+            }
+            String reactionEmoji = emoji.trim();
+            
+            Optional<ChatMessage> messageOpt = chatMessageRepository.findById(messageId);
+            if (messageOpt.isEmpty() || messageOpt.get().getDeletedAt() != null || messageOpt.get().getChatRoom().isDeleted()) {
+                response.put("success", false);
+                response.put("message", "Message not found");
+                return response;
+            }
+            
+            ChatRoom chatRoom = messageOpt.get().getChatRoom();
+            if (!chatMembershipCache.canAccess(chatRoom, userId)) {
+                response.put("success", false);
+                response.put("message", "Message not found or access denied");
+                return response;
+            }
+            
+            // Each step is a single-row atomic statement, so concurrent toggles never
+            // rewrite each other's reactions; the unique key arbitrates duplicates
+            boolean reacted;
+            if (chatMessageReactionRepository.deleteReaction(messageId, userId, reactionEmoji) > 0) {
+                chatMessageReactionCountRepository.decrementCount(messageId, reactionEmoji);
+                chatMessageRepository.adjustReactionCount(messageId, -1);
+                reacted = false;
+            } else {
+                if (chatMessageReactionRepository.insertReaction(messageId, userId, reactionEmoji) > 0) {
+                    chatMessageReactionCountRepository.incrementCount(messageId, reactionEmoji);
+                    chatMessageRepository.adjustReactionCount(messageId, 1);
+                }
+                reacted = true;
+            }
+            
+            List<Map<String, Object>> reactions = getReactionSummaries(List.of(messageId), userId)
+                    .getOrDefault(messageId, new ArrayList<>());
+            int emojiCount = reactions.stream()
+                    .filter(reaction -> reactionEmoji.equals(reaction.get("emoji")))
+                    .map(reaction -> (Integer) reaction.get("count"))
+                    .findFirst()
+                    .orElse(0);
+            
+            Map<String, Object> reactionEvent = new HashMap<>();
+            reactionEvent.put("messageId", messageId);
+            reactionEvent.put("userId", userId);
+            reactionEvent.put("emoji", reactionEmoji);
+            reactionEvent.put("reacted", reacted);
+            reactionEvent.put("count", emojiCount);
+            chatBroadcastService.publishReactionUpdated(chatRoom.getId(), reactionEvent);
+            
+            response.put("success", true);
+            response.put("message", reacted ? "Reaction added" : "Reaction removed");
+            response.put("reacted", reacted);
+            response.put("reactions", reactions);
+            
+        } catch (Exception e) {
+            logger.error("Error toggling message reaction", e);
+            response.put("success", false);
+            response.put("message", "Failed to update reaction");
+        }
+        
+        return response;
+    }
+    
     @Override
     public Map<String, Object> addChatRoomMember(Long userId, Long roomId, Long memberId, String role) {
         Map<String, Object> response = new HashMap<>();
@@ -513,7 +1014,29 @@ public class ChatServiceImpl implements ChatService {
                 return response;
             }
             
-            // Basic implementation
+            Optional<ChatRoomMember> existingMember = chatRoomMemberRepository.findByChatRoomIdAndUserId(roomId, memberId);
+            if (existingMember.isPresent()) {
+                response.put("success", false);
+                response.put("message", existingMember.get().getIsBanned()
+                        ? "User is banned from this chat room" : "User is already a member of this chat room");
+                return response;
+            }
+            
+            ChatMemberRole memberRole = ChatMemberRole.MEMBER;
+            if (role != null) {
+                try {
+                    memberRole = ChatMemberRole.valueOf(role.toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    memberRole = ChatMemberRole.MEMBER;
+                }
+            }
+            
+            ChatRoomMember newMember = new ChatRoomMember(chatRoom, member, memberRole);
+            newMember.setLastReadMessageId(chatMessageRepository.findMaxMessageIdInRoom(roomId));
+            chatRoomMemberRepository.save(newMember);
+            chatMembershipCache.invalidate(roomId, memberId);
+            chatUnreadService.invalidate(memberId, roomId);
+            
             chatRoom.incrementMemberCount();
             chatRoomRepository.save(chatRoom);
             
@@ -521,13 +1044,13 @@ public class ChatServiceImpl implements ChatService {
             response.put("message", "Member added successfully");
             
             Map<String, Object> membership = new HashMap<>();
-            membership.put("id", 1); // Mock ID
+            membership.put("id", newMember.getId());
             Map<String, Object> memberMap = new HashMap<>();
             memberMap.put("id", memberId);
             memberMap.put("displayName", member.getDisplayName());
             membership.put("user", memberMap);
-            membership.put("role", role != null ? role : "MEMBER");
-            membership.put("joinedAt", LocalDateTime.now().toString());
+            membership.put("role", newMember.getRole().toString());
+            membership.put("joinedAt", newMember.getJoinedAt().toString());
             
             response.put("membership", membership);
             
@@ -562,7 +1085,25 @@ public class ChatServiceImpl implements ChatService {
                 return response;
             }
             
-            // Basic implementation
+            Optional<ChatRoomMember> membership = chatRoomMemberRepository.findByChatRoomIdAndUserId(roomId, memberId);
+            if (membership.isEmpty()) {
+                response.put("success", false);
+                response.put("message", "Member not found");
+                return response;
+            }
+            
+            // The banned row is what keeps the user out, so it is never deleted here;
+            // otherwise a banned user could remove themselves and join again
+            if (membership.get().getIsBanned()) {
+                response.put("success", false);
+                response.put("message", "Banned members cannot be removed");
+                return response;
+            }
+            
+            chatRoomMemberRepository.delete(membership.get());
+            chatMembershipCache.invalidate(roomId, memberId);
+            chatUnreadService.invalidate(memberId, roomId);
+            
             chatRoom.decrementMemberCount();
             chatRoomRepository.save(chatRoom);
             
@@ -615,34 +1156,56 @@ public class ChatServiceImpl implements ChatService {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            Optional<User> userOpt = userRepository.findById(userId);
-            Optional<User> recipientOpt = userRepository.findById(recipientId);
-            
-            if (userOpt.isEmpty() || recipientOpt.isEmpty()) {
+            if (userId.equals(recipientId)) {
                 response.put("success", false);
-                response.put("message", "User not found");
+                response.put("message", "Cannot start a direct message with yourself");
                 return response;
             }
             
+            Long lowUserId = Math.min(userId, recipientId);
+            Long highUserId = Math.max(userId, recipientId);
+            
             // Check if direct message room already exists
-            Optional<ChatRoom> existingRoom = chatRoomRepository.findDirectMessageRoom(userId, recipientId);
+            Optional<ChatRoom> existingRoom = findDirectMessageRoom(lowUserId, highUserId);
             
             if (existingRoom.isPresent()) {
+                ChatRoom directRoom = existingRoom.get();
+                
+                // A participant who left earlier rejoins the same conversation
+                Optional<ChatMembershipCache.Membership> membership = chatMembershipCache.getMembership(directRoom.getId(), userId);
+                if (membership.isPresent() && membership.get().banned()) {
+                    response.put("success", false);
+                    response.put("message", "Chat room not found or access denied");
+                    return response;
+                }
+                if (membership.isEmpty()) {
+                    addDirectMessageMember(directRoom, userId);
+                }
+                
                 response.put("success", true);
                 response.put("message", "Direct message conversation retrieved");
-                response.put("chatRoom", formatChatRoomForResponse(existingRoom.get()));
+                response.put("chatRoom", formatChatRoomForResponse(directRoom));
                 return response;
             }
             
-            // Create new direct message room
-            ChatRoom directRoom = new ChatRoom();
-            directRoom.setName("Direct Message");
-            directRoom.setType(ChatRoomType.DIRECT_MESSAGE);
-            directRoom.setIsPrivate(true);
-            directRoom.setCreator(userOpt.get());
-            directRoom.setCurrentMembers(2);
+            Optional<User> userOpt = userRepository.findById(userId);
+            if (userOpt.isEmpty() || !userRepository.existsById(recipientId)) {
+                response.put("success", false);
+                response.put("message", "User not found");
+                return response;
+            }
             
-            ChatRoom savedRoom = chatRoomRepository.save(directRoom);
+            // Create new direct message room in its own transaction, so a concurrent start
+            // that wins the unique pair constraint leaves this transaction usable
+            ChatRoom savedRoom;
+            try {
+                Long roomId = requiresNewTransaction().execute(status ->
+                        createDirectMessageRoom(userOpt.get(), recipientId, lowUserId, highUserId));
+                savedRoom = chatRoomRepository.findById(roomId).orElseThrow();
+            } catch (DataIntegrityViolationException e) {
+                savedRoom = chatRoomRepository.findDirectMessageRoom(lowUserId, highUserId).orElseThrow();
+            }
+            chatDirectRoomCache.put(lowUserId, highUserId, savedRoom.getId());
             
             response.put("success", true);
             response.put("message", "Direct message conversation started");
@@ -658,14 +1221,47 @@ public class ChatServiceImpl implements ChatService {
     }
     
     @Override
-    public Map<String, Object> getOnlineUsers(Long userId) {
+    public Map<String, Object> getOnlineUsers(Long userId, Long roomId) {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            // Basic implementation - would need user session tracking for real online status
+            Set<Long> onlineUserIds;
+            
+            if (roomId != null) {
+                Optional<ChatRoom> chatRoomOpt = chatRoomRepository.findById(roomId);
+                if (chatRoomOpt.isEmpty() || chatRoomOpt.get().isDeleted()) {
+                    response.put("success", false);
+                    response.put("message", "Chat room not found");
+                    return response;
+                }
+                
+                // Authorized from presence alone: a private room's list is only shown to users with a
+                // live subscription to it, which passed the membership check when it was made
+                if (Boolean.TRUE.equals(chatRoomOpt.get().getIsPrivate())
+                        && !chatPresenceService.isOnlineInRoom(userId, roomId)) {
+                    response.put("success", false);
+                    response.put("message", "Chat room not found or access denied");
+                    return response;
+                }
+                
+                onlineUserIds = chatPresenceService.getOnlineUserIdsInRoom(roomId);
+            } else {
+                onlineUserIds = chatPresenceService.getOnlineUserIds();
+            }
+            
+            List<Long> userIds = onlineUserIds.stream()
+                    .filter(id -> !id.equals(userId))
+                    .sorted()
+                    .limit(MAX_ONLINE_USERS)
+                    .collect(Collectors.toList());
+            
+            List<Map<String, Object>> onlineUsers = userRepository.findAllById(userIds).stream()
+                    .map(this::formatOnlineUserForResponse)
+                    .collect(Collectors.toList());
+            
             response.put("success", true);
             response.put("message", "Online users retrieved");
-            response.put("onlineUsers", new ArrayList<>());
+            response.put("onlineUsers", onlineUsers);
             
         } catch (Exception e) {
             logger.error("Error getting online users", e);
@@ -681,7 +1277,25 @@ public class ChatServiceImpl implements ChatService {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            // Basic implementation - would need WebSocket or real-time messaging for actual typing indicators
+            // Subscribed sessions were authorized when they subscribed, so only fall back
+            // to the database for callers that are not connected to the room
+            if (!chatPresenceService.isOnlineInRoom(userId, roomId)) {
+                Optional<ChatRoom> chatRoomOpt = chatRoomRepository.findById(roomId);
+                if (chatRoomOpt.isEmpty() || chatRoomOpt.get().isDeleted()) {
+                    response.put("success", false);
+                    response.put("message", "Chat room not found");
+                    return response;
+                }
+                
+                if (!chatMembershipCache.canAccess(chatRoomOpt.get(), userId)) {
+                    response.put("success", false);
+                    response.put("message", "Chat room not found or access denied");
+                    return response;
+                }
+            }
+            
+            chatTypingService.updateTyping(roomId, userId, isTyping);
+            
             response.put("success", true);
             response.put("message", "Typing indicator sent");
             response.put("roomId", roomId);
@@ -696,7 +1310,94 @@ public class ChatServiceImpl implements ChatService {
         return response;
     }
     
+    // Fill snapshots for rooms whose messages predate the last message columns
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillLastMessageSnapshots() {
+        try {
+            int updated = chatRoomRepository.backfillLastMessageSnapshots();
+            if (updated > 0) {
+                logger.info("Backfilled last message snapshot for {} chat rooms", updated);
+            }
+        } catch (Exception e) {
+            logger.error("Error backfilling chat room last message snapshots", e);
+        }
+    }
+    
+    // Give memberships that predate read cursors a starting point, so old history is not unread
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillReadCursors() {
+        try {
+            int updated = chatRoomMemberRepository.backfillReadCursors();
+            if (updated > 0) {
+                logger.info("Backfilled read cursors for {} chat room members", updated);
+            }
+        } catch (Exception e) {
+            logger.error("Error backfilling chat room read cursors", e);
+        }
+    }
+    
     // Helper methods
+    
+    // Refuses a send that already took a rate limiter slot, handing the slot back
+    private Map<String, Object> rejectSend(Map<String, Object> response, Long userId, Long roomId, String message) {
+        chatRateLimiter.release(userId, roomId);
+        response.put("success", false);
+        response.put("message", message);
+        return response;
+    }
+    
+    // Cached pair -> room id first; the unique pair lookup only runs on a miss
+    private Optional<ChatRoom> findDirectMessageRoom(Long lowUserId, Long highUserId) {
+        Long cachedRoomId = chatDirectRoomCache.get(lowUserId, highUserId);
+        if (cachedRoomId != null) {
+            Optional<ChatRoom> cachedRoom = chatRoomRepository.findById(cachedRoomId)
+                    .filter(room -> !room.isDeleted());
+            if (cachedRoom.isPresent()) {
+                return cachedRoom;
+            }
+            chatDirectRoomCache.evict(lowUserId, highUserId);
+        }
+        
+        Optional<ChatRoom> directRoom = chatRoomRepository.findDirectMessageRoom(lowUserId, highUserId);
+        directRoom.ifPresent(room -> chatDirectRoomCache.put(lowUserId, highUserId, room.getId()));
+        return directRoom;
+    }
+    
+    private Long createDirectMessageRoom(User user, Long recipientId, Long lowUserId, Long highUserId) {
+        ChatRoom directRoom = new ChatRoom();
+        directRoom.setName("Direct Message");
+        directRoom.setType(ChatRoomType.DIRECT_MESSAGE);
+        directRoom.setIsPrivate(true);
+        directRoom.setCreator(user);
+        directRoom.setCurrentMembers(2);
+        directRoom.setDirectUserLowId(lowUserId);
+        directRoom.setDirectUserHighId(highUserId);
+        
+        ChatRoom savedRoom = chatRoomRepository.saveAndFlush(directRoom);
+        chatRoomMemberRepository.save(new ChatRoomMember(savedRoom, user, ChatMemberRole.MEMBER));
+        chatRoomMemberRepository.save(new ChatRoomMember(savedRoom, userRepository.getReferenceById(recipientId), ChatMemberRole.MEMBER));
+        chatMembershipCache.invalidate(savedRoom.getId(), user.getId());
+        chatMembershipCache.invalidate(savedRoom.getId(), recipientId);
+        return savedRoom.getId();
+    }
+    
+    private void addDirectMessageMember(ChatRoom directRoom, Long userId) {
+        ChatRoomMember member = new ChatRoomMember(directRoom, userRepository.getReferenceById(userId), ChatMemberRole.MEMBER);
+        member.setLastReadMessageId(chatMessageRepository.findMaxMessageIdInRoom(directRoom.getId()));
+        chatRoomMemberRepository.save(member);
+        chatMembershipCache.invalidate(directRoom.getId(), userId);
+        chatUnreadService.invalidate(userId, directRoom.getId());
+        
+        directRoom.incrementMemberCount();
+        chatRoomRepository.save(directRoom);
+    }
+    
+    private TransactionTemplate requiresNewTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+    
     private Map<String, Object> formatChatRoomForResponse(ChatRoom chatRoom) {
         Map<String, Object> roomMap = new HashMap<>();
         roomMap.put("id", chatRoom.getId());
@@ -707,20 +1408,18 @@ public class ChatServiceImpl implements ChatService {
         roomMap.put("gameTitle", chatRoom.getGameTitle());
         roomMap.put("lastActivity", chatRoom.getLastActivity() != null ? chatRoom.getLastActivity().toString() : null);
         
-        // Get last message if available
-        List<ChatMessage> recentMessages = chatMessageRepository.findTop50ByChatRoomIdAndDeletedAtIsNullOrderByCreatedAtDesc(chatRoom.getId());
-        if (!recentMessages.isEmpty()) {
-            ChatMessage lastMessage = recentMessages.get(0);
+        // Last message comes from the denormalized snapshot, so no message query per room
+        if (chatRoom.hasLastMessage()) {
             Map<String, Object> lastMessageMap = new HashMap<>();
-            lastMessageMap.put("id", lastMessage.getId());
-            lastMessageMap.put("content", lastMessage.getContent());
+            lastMessageMap.put("id", chatRoom.getLastMessageId());
+            lastMessageMap.put("content", chatRoom.getLastMessageContent());
             
             Map<String, Object> senderMap = new HashMap<>();
-            senderMap.put("id", lastMessage.getSender().getId());
-            senderMap.put("displayName", lastMessage.getSender().getDisplayName());
+            senderMap.put("id", chatRoom.getLastMessageSenderId());
+            senderMap.put("displayName", chatRoom.getLastMessageSenderName());
             lastMessageMap.put("sender", senderMap);
             
-            lastMessageMap.put("createdAt", lastMessage.getCreatedAt().toString());
+            lastMessageMap.put("createdAt", chatRoom.getLastMessageAt() != null ? chatRoom.getLastMessageAt().toString() : null);
             roomMap.put("lastMessage", lastMessageMap);
         }
         
@@ -744,12 +1443,70 @@ public class ChatServiceImpl implements ChatService {
         roomMap.put("allowFileSharing", chatRoom.getAllowFileSharing());
         roomMap.put("allowEmojis", chatRoom.getAllowEmojis());
         roomMap.put("slowModeSeconds", chatRoom.getSlowModeSeconds());
+        roomMap.put("batchedIngestion", chatRoom.getBatchedIngestion());
         roomMap.put("totalMessages", chatRoom.getTotalMessages());
         roomMap.put("createdAt", chatRoom.getCreatedAt().toString());
         
         return roomMap;
     }
     
+    private Map<String, Object> formatOnlineUserForResponse(User user) {
+        Map<String, Object> userMap = new HashMap<>();
+        userMap.put("id", user.getId());
+        userMap.put("displayName", user.getDisplayName());
+        userMap.put("profilePictureUrl", user.getProfilePictureUrl());
+        userMap.put("status", "ONLINE");
+        return userMap;
+    }
+    
+    // Adds a "reactions" summary to each formatted message using one batched query
+    private void attachReactionSummaries(List<Map<String, Object>> messages, Long userId) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        
+        List<Long> messageIds = messages.stream()
+                .map(messageMap -> (Long) messageMap.get("id"))
+                .collect(Collectors.toList());
+        Map<Long, List<Map<String, Object>>> summaries = getReactionSummaries(messageIds, userId);
+        
+        for (Map<String, Object> messageMap : messages) {
+            messageMap.put("reactions", summaries.getOrDefault(messageMap.get("id"), new ArrayList<>()));
+        }
+    }
+    
+    private Map<Long, List<Map<String, Object>>> getReactionSummaries(List<Long> messageIds, Long userId) {
+        Map<Long, List<Map<String, Object>>> summaries = new HashMap<>();
+        
+        for (Object[] row : chatMessageReactionCountRepository.findReactionSummaries(messageIds, userId)) {
+            Map<String, Object> reaction = new HashMap<>();
+            reaction.put("emoji", row[1]);
+            reaction.put("count", row[2]);
+            reaction.put("reactedByMe", row[3]);
+            summaries.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(reaction);
+        }
+        
+        return summaries;
+    }
+    
+    // Row layout from ChatMessageRepository.searchMessagesInRoom
+    private Map<String, Object> formatSearchHitForResponse(Object[] row) {
+        Map<String, Object> hitMap = new HashMap<>();
+        hitMap.put("id", ((Number) row[0]).longValue());
+        
+        Map<String, Object> senderMap = new HashMap<>();
+        senderMap.put("id", ((Number) row[1]).longValue());
+        senderMap.put("displayName", row[2]);
+        hitMap.put("sender", senderMap);
+        
+        Object createdAt = row[3] instanceof java.sql.Timestamp ? ((java.sql.Timestamp) row[3]).toLocalDateTime() : row[3];
+        hitMap.put("createdAt", String.valueOf(createdAt));
+        hitMap.put("rank", ((Number) row[4]).floatValue());
+        hitMap.put("snippet", row[5]);
+        
+        return hitMap;
+    }
+    
     private Map<String, Object> formatMessageForResponse(ChatMessage message) {
         Map<String, Object> messageMap = new HashMap<>();
         messageMap.put("id", message.getId());
@@ -772,6 +1529,7 @@ public class ChatServiceImpl implements ChatService {
         messageMap.put("fileUrl", message.getFileUrl());
         messageMap.put("fileName", message.getFileName());
         messageMap.put("fileSize", message.getFileSize());
+        messageMap.put("reactionCount", message.getReactionCount());
         messageMap.put("createdAt", message.getCreatedAt().toString());
         messageMap.put("updatedAt", message.getUpdatedAt().toString());
         
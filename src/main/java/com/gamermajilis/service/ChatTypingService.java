@@ -0,0 +1,87 @@
+package com.gamermajilis.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// In-memory typing state. Keystrokes only refresh a TTL; a room is re-published
+// at most once per window, and only when its set of typing users changed.
+@Service
+public class ChatTypingService {
+
+    @Autowired
+    private ChatBroadcastService chatBroadcastService;
+
+    @Value("${chat.typing.ttl-ms:5000}")
+    private long typingTtlMs;
+
+    // roomId -> (userId -> typing expires at, epoch millis)
+    private final Map<Long, Map<Long, Long>> typingUsers = new ConcurrentHashMap<>();
+
+    // Rooms whose typing set changed since the last flush
+    private final Set<Long> dirtyRooms = ConcurrentHashMap.newKeySet();
+
+    public void updateTyping(Long roomId, Long userId, boolean isTyping) {
+        if (isTyping) {
+            long expiresAt = System.currentTimeMillis() + typingTtlMs;
+            boolean[] started = new boolean[1];
+            typingUsers.compute(roomId, (id, users) -> {
+                Map<Long, Long> result = users != null ? users : new ConcurrentHashMap<>();
+                started[0] = result.put(userId, expiresAt) == null;
+                return result;
+            });
+            if (started[0]) {
+                dirtyRooms.add(roomId);
+            }
+        } else {
+            boolean[] stopped = new boolean[1];
+            typingUsers.computeIfPresent(roomId, (id, users) -> {
+                stopped[0] = users.remove(userId) != null;
+                return users.isEmpty() ? null : users;
+            });
+            if (stopped[0]) {
+                dirtyRooms.add(roomId);
+            }
+        }
+    }
+
+    public List<Long> getTypingUserIds(Long roomId) {
+        Map<Long, Long> users = typingUsers.get(roomId);
+        if (users == null) {
+            return new ArrayList<>();
+        }
+        return users.keySet().stream().sorted().collect(Collectors.toList());
+    }
+
+    @Scheduled(fixedRateString = "${chat.typing.window-ms:250}")
+    public void flushTypingIndicators() {
+        long now = System.currentTimeMillis();
+
+        // Users who stopped sending keystrokes drop out once their TTL lapses
+        for (Long roomId : new ArrayList<>(typingUsers.keySet())) {
+            boolean[] expired = new boolean[1];
+            typingUsers.computeIfPresent(roomId, (id, users) -> {
+                expired[0] = users.values().removeIf(expiresAt -> expiresAt <= now);
+                return users.isEmpty() ? null : users;
+            });
+            if (expired[0]) {
+                dirtyRooms.add(roomId);
+            }
+        }
+
+        for (Long roomId : new ArrayList<>(dirtyRooms)) {
+            dirtyRooms.remove(roomId);
+
+            Map<String, Object> event = new HashMap<>();
+            event.put("type", "TYPING");
+            event.put("roomId", roomId);
+            event.put("userIds", getTypingUserIds(roomId));
+            chatBroadcastService.send(ChatBroadcastService.roomTopic(roomId, "typing"), event);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.gamermajilis.service;
+
+import com.gamermajilis.repository.ChatRoomMemberRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Unread message counters per (user, room). Counts are loaded for all requested rooms
+// with one grouped query, then kept hot in memory: every sent message bumps the
+// counters of users who have them cached, so the room list never re-counts.
+// Idle users are dropped after chat.unread.idle-timeout-ms.
+@Service
+public class ChatUnreadService {
+
+    @Autowired
+    private ChatRoomMemberRepository chatRoomMemberRepository;
+
+    @Value("${chat.unread.idle-timeout-ms:600000}")
+    private long idleTimeoutMs;
+
+    // userId -> cached counters
+    private final Map<Long, UserCounters> userCounters = new ConcurrentHashMap<>();
+
+    // roomId -> users holding a cached counter for it, so a send only touches those
+    private final Map<Long, Set<Long>> roomReaders = new ConcurrentHashMap<>();
+
+    // roomId -> bumps so far; a load that overlapped a bump is not cached
+    private final Map<Long, AtomicLong> roomSequences = new ConcurrentHashMap<>();
+
+    public Map<Long, Integer> getUnreadCounts(Long userId, Collection<Long> roomIds) {
+        Map<Long, Integer> unreadCounts = new HashMap<>();
+        if (roomIds.isEmpty()) {
+            return unreadCounts;
+        }
+
+        UserCounters counters = userCounters.computeIfAbsent(userId, id -> new UserCounters());
+        counters.lastAccess = System.currentTimeMillis();
+
+        List<Long> missing = new ArrayList<>();
+        for (Long roomId : roomIds) {
+            Integer cached = counters.counts.get(roomId);
+            if (cached != null) {
+                unreadCounts.put(roomId, cached);
+            } else {
+                missing.add(roomId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<Long, Long> sequences = new HashMap<>();
+            for (Long roomId : missing) {
+                sequences.put(roomId, sequence(roomId).get());
+            }
+
+            Map<Long, Integer> loaded = new HashMap<>();
+            for (Object[] row : chatRoomMemberRepository.countUnreadMessages(userId, missing)) {
+                loaded.put((Long) row[0], ((Number) row[1]).intValue());
+            }
+
+            for (Long roomId : missing) {
+                int count = loaded.getOrDefault(roomId, 0);
+                unreadCounts.put(roomId, count);
+
+                // Register and cache first, then back out if a message landed since the count
+                // was taken; a bump after the check increments the cached value instead
+                roomReaders.computeIfAbsent(roomId, id -> ConcurrentHashMap.newKeySet()).add(userId);
+                counters.counts.putIfAbsent(roomId, count);
+                if (sequence(roomId).get() != sequences.get(roomId)) {
+                    counters.counts.remove(roomId);
+                    removeReader(roomId, userId);
+                }
+            }
+        }
+
+        return unreadCounts;
+    }
+
+    // Bumps cached counters of everyone but the sender once the message is committed
+    public void recordMessage(Long roomId, Long senderId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(roomId, senderId);
+                }
+            });
+        } else {
+            bump(roomId, senderId);
+        }
+    }
+
+    // Drops a cached counter after the read cursor or membership changed;
+    // the next lookup recounts that room from the database
+    public void invalidate(Long userId, Long roomId) {
+        evict(userId, roomId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(userId, roomId);
+                }
+            });
+        }
+    }
+
+    // Drops every cached counter of a room after messages in it were deleted or archived
+    public void invalidateRoom(Long roomId) {
+        evictRoom(roomId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictRoom(roomId);
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chat.unread.sweep-interval-ms:60000}")
+    public void evictIdleUsers() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMs;
+        for (Map.Entry<Long, UserCounters> entry : userCounters.entrySet()) {
+            if (entry.getValue().lastAccess < cutoff && userCounters.remove(entry.getKey(), entry.getValue())) {
+                for (Long roomId : entry.getValue().counts.keySet()) {
+                    removeReader(roomId, entry.getKey());
+                }
+            }
+        }
+    }
+
+    // Helper methods
+    private void bump(Long roomId, Long senderId) {
+        sequence(roomId).incrementAndGet();
+
+        Set<Long> readers = roomReaders.get(roomId);
+        if (readers == null) {
+            return;
+        }
+        for (Long readerId : readers) {
+            UserCounters counters = userCounters.get(readerId);
+            if (counters != null && !readerId.equals(senderId)) {
+                counters.counts.computeIfPresent(roomId, (id, count) -> count + 1);
+            }
+        }
+    }
+
+    private void evict(Long userId, Long roomId) {
+        sequence(roomId).incrementAndGet();
+        UserCounters counters = userCounters.get(userId);
+        if (counters != null) {
+            counters.counts.remove(roomId);
+        }
+        removeReader(roomId, userId);
+    }
+
+    private void evictRoom(Long roomId) {
+        sequence(roomId).incrementAndGet();
+        Set<Long> readers = roomReaders.remove(roomId);
+        if (readers == null) {
+            return;
+        }
+        for (Long readerId : readers) {
+            UserCounters counters = userCounters.get(readerId);
+            if (counters != null) {
+                counters.counts.remove(roomId);
+            }
+        }
+    }
+
+    private void removeReader(Long roomId, Long userId) {
+        roomReaders.computeIfPresent(roomId, (id, readers) -> {
+            readers.remove(userId);
+            return readers.isEmpty() ? null : readers;
+        });
+    }
+
+    private AtomicLong sequence(Long roomId) {
+        return roomSequences.computeIfAbsent(roomId, id -> new AtomicLong());
+    }
+
+    private static final class UserCounters {
+        private final Map<Long, Integer> counts = new ConcurrentHashMap<>();
+        private volatile long lastAccess = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,78 @@
+package com.gamermajilis.service;
+
+import com.gamermajilis.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Repairs drift between posts.comment_count, which comments and deletes adjust with
+// atomic increments, and the live rows in post_comments. Walks posts in keyset batches;
+// finding drift is a plain read, and only drifted posts are locked and recounted, so
+// counters of busy posts are never held up for long.
+@Service
+public class CommentCountReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommentCountReconciler.class);
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${comments.count-reconcile.batch-size:1000}")
+    private int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(fixedDelayString = "${comments.count-reconcile.interval-ms:3600000}")
+    public void reconcileCommentCounts() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            int repaired = 0;
+            long afterId = 0;
+            while (true) {
+                List<Long> postIds = postRepository.findIdsAfter(afterId, PageRequest.of(0, batchSize));
+                if (postIds.isEmpty()) {
+                    break;
+                }
+                afterId = postIds.get(postIds.size() - 1);
+
+                List<Long> drifted = postRepository.findCommentCountDrift(postIds.get(0), afterId);
+                if (!drifted.isEmpty()) {
+                    repaired += repair(drifted);
+                }
+            }
+
+            if (repaired > 0) {
+                logger.info("Repaired comment counts on {} posts", repaired);
+            }
+        } catch (Exception e) {
+            logger.error("Error reconciling post comment counts", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Helper methods
+    // With the rows locked, any comment still being added or deleted is either committed
+    // before the recount or adjusts the counter after it, so no increment is lost
+    private int repair(List<Long> postIds) {
+        Integer repaired = transactionTemplate.execute(status -> {
+            postRepository.lockForCounterRepair(postIds);
+            return postRepository.repairCommentCounts(postIds);
+        });
+        return repaired != null ? repaired : 0;
+    }
+}
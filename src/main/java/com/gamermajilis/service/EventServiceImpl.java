@@ -2,6 +2,7 @@ package com.gamermajilis.service;
 
 import com.gamermajilis.model.*;
 import com.gamermajilis.repository.*;
+import com.gamermajilis.service.ViewCountService.ViewTarget;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,6 +31,9 @@ public class EventServiceImpl implements EventService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private ViewCountService viewCountService;
+    
     // EventAttendance repository would need to be created
     // @Autowired
     // private EventAttendanceRepository eventAttendanceRepository;
@@ -210,13 +214,15 @@ public class EventServiceImpl implements EventService {
             
             Event event = eventOpt.get();
             
-            // Increment view count
-            event.incrementViewCount();
-            eventRepository.save(event);
+            // Count the view in memory; ViewCountService writes it in the next batch
+            viewCountService.recordView(ViewTarget.EVENT, eventId);
+            
+            Map<String, Object> eventMap = formatEventDetailsForResponse(event);
+            eventMap.put("viewCount", viewCountService.getViewCount(ViewTarget.EVENT, eventId, event.getViewCount()));
             
             response.put("success", true);
             response.put("message", "Event retrieved successfully");
-            response.put("event", formatEventDetailsForResponse(event));
+            response.put("event", eventMap);
             
         } catch (Exception e) {
             logger.error("Error getting event details", e);
@@ -0,0 +1,154 @@
+package com.gamermajilis.service;
+
+import com.gamermajilis.model.Post;
+import com.gamermajilis.model.PostVisibility;
+import com.gamermajilis.model.User;
+import com.gamermajilis.repository.FeedEntryRepository;
+import com.gamermajilis.repository.PostRepository;
+import com.gamermajilis.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Materialized home timelines. When a post is published its id is appended to the
+// feed_entries timeline of every follower of the author, so reading a feed is one index
+// range scan. Authors with more than feed.fanout.max-followers followers are not fanned
+// out (one post would write that many rows); their posts, the reader's own posts and
+// followed game categories are pulled at read time and merged with the timeline by id.
+@Service
+public class FeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedService.class);
+
+    @Autowired
+    private FeedEntryRepository feedEntryRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${feed.fanout.max-followers:10000}")
+    private long maxFanOutFollowers;
+
+    @Value("${feed.follow-backfill-posts:20}")
+    private int followBackfillPosts;
+
+    @Value("${feed.timeline.max-entries:1000}")
+    private int maxTimelineEntries;
+
+    @Value("${feed.timeline.trim-batch-size:500}")
+    private int trimBatchSize;
+
+    private final AtomicBoolean trimming = new AtomicBoolean();
+
+    // Runs in the transaction that publishes the post, so timelines never point at a rolled back post
+    @Transactional
+    public void fanOut(Post post) {
+        if (!isFeedVisible(post) || isPulled(post.getAuthor())) {
+            return;
+        }
+
+        int entries = feedEntryRepository.fanOutToFollowers(post.getId(), post.getAuthor().getId());
+        logger.debug("Fanned out post {} to {} timelines", post.getId(), entries);
+    }
+
+    // followed is the author as loaded before the follow was counted
+    @Transactional
+    public void onFollow(Long followerId, User followed) {
+        if (!isPulled(followed)) {
+            feedEntryRepository.backfillFromAuthor(followerId, followed.getId(), followBackfillPosts);
+        }
+    }
+
+    @Transactional
+    public void onUnfollow(Long followerId, Long followedId) {
+        feedEntryRepository.deleteByUserIdAndAuthorId(followerId, followedId);
+    }
+
+    // Up to limit + 1 posts older than beforePostId (null for the first page), newest first;
+    // the extra post tells the caller whether there is another page
+    @Transactional(readOnly = true)
+    public List<Post> getHomeFeedPage(Long userId, Long beforePostId, int limit) {
+        Long before = beforePostId != null ? beforePostId : Long.MAX_VALUE;
+        PageRequest pageable = PageRequest.of(0, limit + 1);
+
+        // Both sources are already newest first; a post can be in both if its author
+        // crossed the fan-out threshold, so merge by id and drop duplicates
+        TreeMap<Long, Post> merged = new TreeMap<>(Comparator.reverseOrder());
+        for (Post post : feedEntryRepository.findTimelinePosts(userId, before, pageable)) {
+            merged.put(post.getId(), post);
+        }
+        for (Post post : postRepository.findPulledFeedPosts(userId, maxFanOutFollowers, before, limit + 1)) {
+            merged.putIfAbsent(post.getId(), post);
+        }
+
+        List<Post> page = new ArrayList<>(limit + 1);
+        for (Post post : merged.values()) {
+            if (page.size() > limit) {
+                break;
+            }
+            page.add(post);
+        }
+        return page;
+    }
+
+    // Walks users in keyset batches, one short transaction per batch, so no statement
+    // ever ranks or locks the whole feed_entries table
+    @Scheduled(fixedDelayString = "${feed.timeline.trim-interval-ms:3600000}")
+    public void trimTimelines() {
+        if (!trimming.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            int trimmed = 0;
+            long afterId = 0;
+            while (true) {
+                List<Long> userIds = userRepository.findIdsAfter(afterId, PageRequest.of(0, trimBatchSize));
+                if (userIds.isEmpty()) {
+                    break;
+                }
+                Long fromUserId = userIds.get(0);
+                Long toUserId = userIds.get(userIds.size() - 1);
+                afterId = toUserId;
+
+                Integer deleted = transactionTemplate.execute(status ->
+                        feedEntryRepository.trimTimelines(fromUserId, toUserId, maxTimelineEntries));
+                trimmed += deleted != null ? deleted : 0;
+            }
+
+            if (trimmed > 0) {
+                logger.info("Trimmed {} feed entries beyond {} per timeline", trimmed, maxTimelineEntries);
+            }
+        } catch (Exception e) {
+            logger.error("Error trimming feed timelines", e);
+        } finally {
+            trimming.set(false);
+        }
+    }
+
+    // Helper methods
+    private boolean isPulled(User author) {
+        Long followers = author.getFollowerCount();
+        return followers != null && followers > maxFanOutFollowers;
+    }
+
+    private boolean isFeedVisible(Post post) {
+        return "APPROVED".equals(post.getModerationStatus()) && post.getDeletedAt() == null
+                && (post.getVisibility() == PostVisibility.PUBLIC || post.getVisibility() == PostVisibility.FOLLOWERS_ONLY);
+    }
+}
@@ -3,6 +3,7 @@ package com.gamermajilis.service;
 import com.gamermajilis.model.*;
 import com.gamermajilis.repository.MediaRepository;
 import com.gamermajilis.repository.UserRepository;
+import com.gamermajilis.service.ViewCountService.ViewTarget;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -32,6 +33,9 @@ public class MediaServiceImpl implements MediaService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private ViewCountService viewCountService;
+    
     private final String uploadDirectory = "/tmp/uploads/media/";
     private final String thumbnailDirectory = "/tmp/uploads/media/thumbnails/";
     
@@ -328,12 +332,11 @@ public class MediaServiceImpl implements MediaService {
             }
             
             Media media = mediaOpt.get();
-            media.incrementViewCount();
-            mediaRepository.save(media);
+            viewCountService.recordView(ViewTarget.MEDIA, mediaId);
             
             response.put("success", true);
             response.put("message", "View count updated");
-            response.put("newViewCount", media.getViewCount());
+            response.put("newViewCount", viewCountService.getViewCount(ViewTarget.MEDIA, mediaId, media.getViewCount()));
             
         } catch (Exception e) {
             logger.error("Error incrementing view count", e);
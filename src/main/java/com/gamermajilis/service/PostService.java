@@ -10,6 +10,8 @@ public interface PostService {
     
     Map<String, Object> getPostsFeed(int page, int size, Map<String, Object> filters);
     
+    Map<String, Object> getHomeFeed(Long userId, String cursor, int size);
+    
     Map<String, Object> updatePost(Long userId, Long postId, Map<String, Object> updateData);
     
     Map<String, Object> deletePost(Long userId, Long postId);
@@ -18,7 +20,11 @@ public interface PostService {
     
     Map<String, Object> addComment(Long userId, Long postId, String content);
     
-    Map<String, Object> getPostComments(Long postId, int page, int size);
+    Map<String, Object> replyToComment(Long userId, Long commentId, String content);
+    
+    Map<String, Object> getPostComments(Long postId, String cursor, int size);
+    
+    Map<String, Object> getCommentReplies(Long commentId, String cursor, int size);
     
     Map<String, Object> deleteComment(Long userId, Long commentId);
     
@@ -26,5 +32,11 @@ public interface PostService {
     
     Map<String, Object> getTrendingPosts(int limit, int days);
     
-    Map<String, Object> searchPosts(String query, int page, int size, String gameCategory);
+    Map<String, Object> searchPosts(String query, String cursor, int size, String gameCategory);
+    
+    Map<String, Object> getPostsByHashtag(String hashtag, String cursor, int size);
+    
+    Map<String, Object> getMentions(Long userId, String cursor, int size);
+    
+    Map<String, Object> getTrendingHashtags(int limit);
 }
@@ -2,9 +2,13 @@ package com.gamermajilis.service;
 
 import com.gamermajilis.model.*;
 import com.gamermajilis.repository.*;
+import com.gamermajilis.service.ViewCountService.ViewTarget;
+import com.gamermajilis.util.CursorUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -12,6 +16,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -21,6 +27,25 @@ public class PostServiceImpl implements PostService {
     
     private static final Logger logger = LoggerFactory.getLogger(PostServiceImpl.class);
     
+    private static final int MAX_HOME_FEED_PAGE_SIZE = 50;
+    
+    private static final int MAX_SEARCH_PAGE_SIZE = 50;
+    
+    private static final int MAX_SEARCH_QUERY_LENGTH = 200;
+    
+    private static final String SEARCH_MODE_TEXT = "text";
+    
+    private static final String SEARCH_MODE_FUZZY = "fuzzy";
+    
+    private static final int MAX_COMMENT_PAGE_SIZE = 50;
+    
+    // Replies returned inline with each top-level comment; the rest load through getCommentReplies
+    private static final int COMMENT_REPLY_PREVIEW_SIZE = 3;
+    
+    private static final String DELETED_COMMENT_CONTENT = "[Comment deleted]";
+    
+    private static final int MAX_TAGGED_POSTS_PAGE_SIZE = 50;
+    
     @Autowired
     private PostRepository postRepository;
     
@@ -30,12 +55,30 @@ public class PostServiceImpl implements PostService {
     @Autowired
     private PostReactionRepository postReactionRepository;
     
+    @Autowired
+    private PostHashtagRepository postHashtagRepository;
+    
+    @Autowired
+    private PostMentionRepository postMentionRepository;
+    
     @Autowired
     private UserRepository userRepository;
     
     @Autowired
     private MediaRepository mediaRepository;
     
+    @Autowired
+    private ViewCountService viewCountService;
+    
+    @Autowired
+    private FeedService feedService;
+    
+    @Autowired
+    private PostTagIndexService postTagIndexService;
+    
+    @Autowired
+    private TrendingHashtagService trendingHashtagService;
+    
     @Override
     public Map<String, Object> createPost(Long userId, Map<String, Object> postData) {
         Map<String, Object> response = new HashMap<>();
@@ -51,6 +94,20 @@ public class PostServiceImpl implements PostService {
             
             User author = userOpt.get();
             
+            // Optional publish time; ScheduledPostPublisher publishes the post when it is due
+            LocalDateTime scheduledAt = null;
+            String scheduledAtStr = (String) postData.get("scheduledAt");
+            if (scheduledAtStr != null && !scheduledAtStr.trim().isEmpty()) {
+                try {
+                    scheduledAt = LocalDateTime.parse(scheduledAtStr, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+                } catch (DateTimeParseException e) {
+                    response.put("success", false);
+                    response.put("message", "Invalid scheduled time format. Use ISO format: 2024-12-25T18:00:00");
+                    return response;
+                }
+            }
+            boolean scheduled = scheduledAt != null && scheduledAt.isAfter(LocalDateTime.now());
+            
             // Create post
             Post post = new Post();
             post.setTitle((String) postData.get("title"));
@@ -117,15 +174,30 @@ public class PostServiceImpl implements PostService {
                 post.setAttachedMedia(attachedMedia);
             }
             
-            // Set moderation status (auto-approve for now)
-            post.setModerationStatus("APPROVED");
-            post.setPublishedAt(LocalDateTime.now());
+            if (scheduled) {
+                // Stays pending, and so out of every feed, until it is published
+                post.setScheduledAt(scheduledAt);
+            } else {
+                // Set moderation status (auto-approve for now)
+                post.setModerationStatus("APPROVED");
+                post.setPublishedAt(LocalDateTime.now());
+            }
+            post.refreshTrendingScore();
             
             // Save post
             Post savedPost = postRepository.save(post);
+            Set<String> indexedHashtags = postTagIndexService.indexPost(savedPost);
+            
+            // Append to followers' home timelines
+            if (!scheduled) {
+                feedService.fanOut(savedPost);
+                if (savedPost.getVisibility() == PostVisibility.PUBLIC) {
+                    trendingHashtagService.recordAfterCommit(indexedHashtags, savedPost.getPublishedAt());
+                }
+            }
             
             response.put("success", true);
-            response.put("message", "Post created successfully");
+            response.put("message", scheduled ? "Post scheduled successfully" : "Post created successfully");
             response.put("post", formatPostForResponse(savedPost));
             
         } catch (Exception e) {
@@ -153,13 +225,15 @@ public class PostServiceImpl implements PostService {
             
             Post post = postOpt.get();
             
-            // Increment view count
-            post.setViewCount(post.getViewCount() + 1);
-            postRepository.save(post);
+            // Count the view in memory; ViewCountService writes it in the next batch
+            viewCountService.recordView(ViewTarget.POST, postId);
+            
+            Map<String, Object> postMap = formatPostDetailsForResponse(post);
+            postMap.put("viewCount", viewCountService.getViewCount(ViewTarget.POST, postId, post.getViewCount()));
             
             response.put("success", true);
             response.put("message", "Post retrieved successfully");
-            response.put("post", formatPostDetailsForResponse(post));
+            response.put("post", postMap);
             
         } catch (Exception e) {
             logger.error("Error getting post details", e);
@@ -208,9 +282,7 @@ public class PostServiceImpl implements PostService {
                 }
             }
             
-            List<Map<String, Object>> postsList = postsPage.getContent().stream()
-                .map(this::formatPostForResponse)
-                .collect(Collectors.toList());
+            List<Map<String, Object>> postsList = formatPostsForResponse(postsPage.getContent());
             
             response.put("success", true);
             response.put("message", "Posts feed retrieved");
@@ -229,6 +301,51 @@ public class PostServiceImpl implements PostService {
         return response;
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> getHomeFeed(Long userId, String cursor, int size) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            // Cursor format: id of the last post on the previous page
+            Long beforePostId = null;
+            if (cursor != null && !cursor.isBlank()) {
+                try {
+                    beforePostId = Long.valueOf(CursorUtil.decode(cursor, 1)[0]);
+                } catch (IllegalArgumentException e) {
+                    response.put("success", false);
+                    response.put("message", "Invalid cursor");
+                    return response;
+                }
+            }
+            
+            int pageSize = Math.max(1, Math.min(size, MAX_HOME_FEED_PAGE_SIZE));
+            List<Post> posts = feedService.getHomeFeedPage(userId, beforePostId, pageSize);
+            
+            String nextCursor = null;
+            if (posts.size() > pageSize) {
+                posts = posts.subList(0, pageSize);
+                nextCursor = CursorUtil.encode(posts.get(pageSize - 1).getId());
+            }
+            
+            List<Map<String, Object>> postsList = formatPostsForResponse(posts);
+            
+            response.put("success", true);
+            response.put("message", "Home feed retrieved");
+            response.put("posts", postsList);
+            response.put("nextCursor", nextCursor);
+            response.put("hasMore", nextCursor != null);
+            response.put("pageSize", pageSize);
+            
+        } catch (Exception e) {
+            logger.error("Error getting home feed", e);
+            response.put("success", false);
+            response.put("message", "Failed to get home feed");
+        }
+        
+        return response;
+    }
+    
     @Override
     public Map<String, Object> updatePost(Long userId, Long postId, Map<String, Object> updateData) {
         Map<String, Object> response = new HashMap<>();
@@ -277,6 +394,9 @@ public class PostServiceImpl implements PostService {
             }
             
             Post updatedPost = postRepository.save(post);
+            if (updateData.containsKey("title") || updateData.containsKey("content") || updateData.containsKey("hashtags")) {
+                postTagIndexService.indexPost(updatedPost);
+            }
             
             response.put("success", true);
             response.put("message", "Post updated successfully");
@@ -308,6 +428,7 @@ public class PostServiceImpl implements PostService {
             
             // Soft delete
             post.setDeletedAt(LocalDateTime.now());
+            post.setScheduledAt(null);
             postRepository.save(post);
             
             response.put("success", true);
@@ -337,41 +458,33 @@ public class PostServiceImpl implements PostService {
                 return response;
             }
             
-            Post post = postOpt.get();
-            
-            // Get user
-            Optional<User> userOpt = userRepository.findById(userId);
-            if (userOpt.isEmpty()) {
+            if (!userRepository.existsById(userId)) {
                 response.put("success", false);
                 response.put("message", "User not found");
                 return response;
             }
             
-            User user = userOpt.get();
-            
-            // Check if user already liked the post
-            Optional<PostReaction> existingReaction = postReactionRepository.findByPostIdAndUserId(postId, userId);
-            
+            // Unlike if the like exists, otherwise like. Each step is a single statement and the
+            // counter moves by an atomic increment, so concurrent toggles never read-modify-write
+            // the post row and cannot lose updates.
             boolean liked;
-            if (existingReaction.isPresent()) {
-                // Remove like
-                postReactionRepository.delete(existingReaction.get());
-                post.setLikeCount(post.getLikeCount() - 1);
+            if (postReactionRepository.deleteReaction(postId, userId, ReactionType.LIKE) > 0) {
+                postRepository.adjustLikeCount(postId, -1);
                 liked = false;
-            } else {
-                // Add like
-                PostReaction reaction = new PostReaction(post, user, ReactionType.LIKE);
-                postReactionRepository.save(reaction);
-                post.setLikeCount(post.getLikeCount() + 1);
+            } else if (postReactionRepository.insertReaction(postId, userId, ReactionType.LIKE.name()) > 0) {
+                postRepository.adjustLikeCount(postId, 1);
                 liked = true;
+            } else {
+                // A reaction appeared in between (e.g. a concurrent toggle by the same user)
+                liked = postReactionRepository.findReactionTypeByPostIdAndUserId(postId, userId)
+                    .map(ReactionType.LIKE::equals)
+                    .orElse(false);
             }
             
-            postRepository.save(post);
-            
             response.put("success", true);
             response.put("message", liked ? "Post liked successfully" : "Post unliked successfully");
             response.put("liked", liked);
-            response.put("newLikeCount", post.getLikeCount());
+            response.put("newLikeCount", postRepository.findLikeCount(postId));
             
         } catch (Exception e) {
             logger.error("Error toggling like on post", e);
@@ -407,19 +520,7 @@ public class PostServiceImpl implements PostService {
                 return response;
             }
             
-            User user = userOpt.get();
-            
-            // Create comment
-            PostComment comment = new PostComment();
-            comment.setPost(post);
-            comment.setAuthor(user);
-            comment.setContent(content);
-            
-            PostComment savedComment = postCommentRepository.save(comment);
-            
-            // Update comment count on post
-            post.setCommentCount(post.getCommentCount() + 1);
-            postRepository.save(post);
+            PostComment savedComment = saveComment(post, userOpt.get(), content, null);
             
             response.put("success", true);
             response.put("message", "Comment added successfully");
@@ -435,7 +536,63 @@ public class PostServiceImpl implements PostService {
     }
     
     @Override
-    public Map<String, Object> getPostComments(Long postId, int page, int size) {
+    public Map<String, Object> replyToComment(Long userId, Long commentId, String content) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            Optional<PostComment> parentOpt = postCommentRepository.findByIdAndDeletedAtIsNull(commentId);
+            if (parentOpt.isEmpty() || parentOpt.get().getPath() == null) {
+                response.put("success", false);
+                response.put("message", "Comment not found");
+                return response;
+            }
+            
+            PostComment parent = parentOpt.get();
+            if (parent.getDepth() >= PostComment.MAX_DEPTH) {
+                response.put("success", false);
+                response.put("message", "This thread cannot be nested any deeper");
+                return response;
+            }
+            
+            // Check if post exists and is public
+            Optional<Post> postOpt = postRepository.findByIdAndVisibilityAndModerationStatusAndDeletedAtIsNull(
+                parent.getPost().getId(), PostVisibility.PUBLIC, "APPROVED");
+            
+            if (postOpt.isEmpty()) {
+                response.put("success", false);
+                response.put("message", "Post not found");
+                return response;
+            }
+            
+            Optional<User> userOpt = userRepository.findById(userId);
+            if (userOpt.isEmpty()) {
+                response.put("success", false);
+                response.put("message", "User not found");
+                return response;
+            }
+            
+            PostComment savedComment = saveComment(postOpt.get(), userOpt.get(), content, parent);
+            if (savedComment == null) {
+                response.put("success", false);
+                response.put("message", "Comment not found");
+                return response;
+            }
+            
+            response.put("success", true);
+            response.put("message", "Reply added successfully");
+            response.put("comment", formatCommentForResponse(savedComment));
+            
+        } catch (Exception e) {
+            logger.error("Error replying to comment", e);
+            response.put("success", false);
+            response.put("message", "Failed to add reply");
+        }
+        
+        return response;
+    }
+    
+    @Override
+    public Map<String, Object> getPostComments(Long postId, String cursor, int size) {
         Map<String, Object> response = new HashMap<>();
         
         try {
@@ -449,21 +606,61 @@ public class PostServiceImpl implements PostService {
                 return response;
             }
             
-            Pageable pageable = PageRequest.of(page, size);
-            Page<PostComment> commentsPage = postCommentRepository.findByPostIdAndDeletedAtIsNullOrderByCreatedAtDesc(
-                postId, pageable);
+            // Cursor format: postId:id of the last top-level comment on the previous page
+            Long beforeId = Long.MAX_VALUE;
+            if (cursor != null && !cursor.isBlank()) {
+                try {
+                    String[] parts = CursorUtil.decode(cursor, 2);
+                    if (!postId.equals(Long.valueOf(parts[0]))) {
+                        throw new IllegalArgumentException("Cursor belongs to another post");
+                    }
+                    beforeId = Long.valueOf(parts[1]);
+                } catch (IllegalArgumentException e) {
+                    response.put("success", false);
+                    response.put("message", "Invalid cursor");
+                    return response;
+                }
+            }
             
-            List<Map<String, Object>> commentsList = commentsPage.getContent().stream()
-                .map(this::formatCommentForResponse)
-                .collect(Collectors.toList());
+            int pageSize = Math.max(1, Math.min(size, MAX_COMMENT_PAGE_SIZE));
+            List<PostComment> comments = postCommentRepository.findTopLevelComments(
+                postId, beforeId, PageRequest.of(0, pageSize + 1));
+            
+            String nextCursor = null;
+            if (comments.size() > pageSize) {
+                comments = comments.subList(0, pageSize);
+                nextCursor = CursorUtil.encode(postId, comments.get(pageSize - 1).getId());
+            }
+            
+            // The first replies of every comment on the page come back in one query
+            List<PostComment> replies = comments.isEmpty()
+                ? List.of()
+                : postCommentRepository.findFirstReplies(
+                    comments.stream().map(PostComment::getId).collect(Collectors.toList()), COMMENT_REPLY_PREVIEW_SIZE);
+            
+            List<PostComment> pageComments = new ArrayList<>(comments);
+            pageComments.addAll(replies);
+            fetchCommentAuthors(pageComments);
+            
+            Map<Long, List<Map<String, Object>>> repliesByParent = new HashMap<>();
+            for (PostComment reply : replies) {
+                repliesByParent.computeIfAbsent(reply.getParentComment().getId(), id -> new ArrayList<>())
+                    .add(formatCommentForResponse(reply));
+            }
+            
+            List<Map<String, Object>> commentsList = new ArrayList<>();
+            for (PostComment comment : comments) {
+                Map<String, Object> commentMap = formatCommentForResponse(comment);
+                commentMap.put("replies", repliesByParent.getOrDefault(comment.getId(), List.of()));
+                commentsList.add(commentMap);
+            }
             
             response.put("success", true);
             response.put("message", "Comments retrieved successfully");
             response.put("comments", commentsList);
-            response.put("totalElements", commentsPage.getTotalElements());
-            response.put("totalPages", commentsPage.getTotalPages());
-            response.put("currentPage", page);
-            response.put("pageSize", size);
+            response.put("nextCursor", nextCursor);
+            response.put("hasMore", nextCursor != null);
+            response.put("pageSize", pageSize);
             
         } catch (Exception e) {
             logger.error("Error getting post comments", e);
@@ -474,6 +671,81 @@ public class PostServiceImpl implements PostService {
         return response;
     }
     
+    @Override
+    public Map<String, Object> getCommentReplies(Long commentId, String cursor, int size) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            // A deleted root is still readable while it has replies, as the placeholder of its thread
+            Optional<PostComment> rootOpt = postCommentRepository.findById(commentId);
+            if (rootOpt.isEmpty() || rootOpt.get().getPath() == null
+                    || (rootOpt.get().getDeletedAt() != null && rootOpt.get().getReplyCount() <= 0)) {
+                response.put("success", false);
+                response.put("message", "Comment not found");
+                return response;
+            }
+            
+            PostComment root = rootOpt.get();
+            
+            // Check if post exists and is public
+            Optional<Post> postOpt = postRepository.findByIdAndVisibilityAndModerationStatusAndDeletedAtIsNull(
+                root.getPost().getId(), PostVisibility.PUBLIC, "APPROVED");
+            
+            if (postOpt.isEmpty()) {
+                response.put("success", false);
+                response.put("message", "Post not found");
+                return response;
+            }
+            
+            // Cursor format: commentId:path of the last reply on the previous page
+            String afterPath = root.getPath();
+            if (cursor != null && !cursor.isBlank()) {
+                try {
+                    String[] parts = CursorUtil.decode(cursor, 2);
+                    if (!commentId.equals(Long.valueOf(parts[0])) || !parts[1].startsWith(root.getPath())) {
+                        throw new IllegalArgumentException("Cursor belongs to another thread");
+                    }
+                    afterPath = parts[1];
+                } catch (IllegalArgumentException e) {
+                    response.put("success", false);
+                    response.put("message", "Invalid cursor");
+                    return response;
+                }
+            }
+            
+            // The whole subtree in depth-first order; each reply carries its depth and parent
+            int pageSize = Math.max(1, Math.min(size, MAX_COMMENT_PAGE_SIZE));
+            List<PostComment> replies = postCommentRepository.findSubtreePage(
+                afterPath, root.getSubtreeEndPath(), PageRequest.of(0, pageSize + 1));
+            
+            String nextCursor = null;
+            if (replies.size() > pageSize) {
+                replies = replies.subList(0, pageSize);
+                nextCursor = CursorUtil.encode(commentId, replies.get(pageSize - 1).getPath());
+            }
+            
+            fetchCommentAuthors(replies);
+            List<Map<String, Object>> repliesList = replies.stream()
+                .map(this::formatCommentForResponse)
+                .collect(Collectors.toList());
+            
+            response.put("success", true);
+            response.put("message", "Replies retrieved successfully");
+            response.put("commentId", commentId);
+            response.put("replies", repliesList);
+            response.put("nextCursor", nextCursor);
+            response.put("hasMore", nextCursor != null);
+            response.put("pageSize", pageSize);
+            
+        } catch (Exception e) {
+            logger.error("Error getting comment replies", e);
+            response.put("success", false);
+            response.put("message", "Failed to get replies");
+        }
+        
+        return response;
+    }
+    
     @Override
     public Map<String, Object> deleteComment(Long userId, Long commentId) {
         Map<String, Object> response = new HashMap<>();
@@ -489,16 +761,24 @@ public class PostServiceImpl implements PostService {
             }
             
             PostComment comment = commentOpt.get();
-            Post post = comment.getPost();
             
-            // Soft delete comment
-            comment.setDeletedAt(LocalDateTime.now());
-            postCommentRepository.save(comment);
+            // Soft delete comment; a concurrent delete of the same comment already did the rest
+            if (postCommentRepository.softDelete(commentId, LocalDateTime.now()) == 0) {
+                response.put("success", false);
+                response.put("message", "Comment not found or access denied");
+                return response;
+            }
+            
+            postRepository.adjustCommentCount(comment.getPost().getId(), -1);
             
-            // Update comment count on post
-            if (post.getCommentCount() > 0) {
-                post.setCommentCount(post.getCommentCount() - 1);
-                postRepository.save(post);
+            // A deleted comment with replies stays in its thread as a placeholder, so it only comes
+            // off its parent's reply count once it has no replies. A deleted parent left without
+            // replies then drops out as well, and so on up the thread.
+            PostComment current = comment;
+            while (current.getParentComment() != null
+                    && postCommentRepository.isDeletedWithoutReplies(current.getId())) {
+                postCommentRepository.adjustReplyCount(current.getParentComment().getId(), -1);
+                current = current.getParentComment();
             }
             
             response.put("success", true);
@@ -528,15 +808,12 @@ public class PostServiceImpl implements PostService {
                 return response;
             }
             
-            Post post = postOpt.get();
-            
             // Increment share count
-            post.setShareCount(post.getShareCount() + 1);
-            postRepository.save(post);
+            postRepository.adjustShareCount(postId, 1);
             
             response.put("success", true);
             response.put("message", "Post shared successfully");
-            response.put("newShareCount", post.getShareCount());
+            response.put("newShareCount", postRepository.findShareCount(postId));
             
         } catch (Exception e) {
             logger.error("Error sharing post", e);
@@ -557,9 +834,7 @@ public class PostServiceImpl implements PostService {
             
             List<Post> trendingPosts = postRepository.findTrendingPosts(since, pageable);
             
-            List<Map<String, Object>> postsList = trendingPosts.stream()
-                .map(this::formatPostForResponse)
-                .collect(Collectors.toList());
+            List<Map<String, Object>> postsList = formatPostsForResponse(trendingPosts);
             
             response.put("success", true);
             response.put("message", "Trending posts retrieved");
@@ -575,32 +850,82 @@ public class PostServiceImpl implements PostService {
     }
     
     @Override
-    public Map<String, Object> searchPosts(String query, int page, int size, String gameCategory) {
+    public Map<String, Object> searchPosts(String query, String cursor, int size, String gameCategory) {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<Post> postsPage;
+            if (query == null || query.trim().isEmpty() || query.length() > MAX_SEARCH_QUERY_LENGTH) {
+                response.put("success", false);
+                response.put("message", "Search query must be between 1 and " + MAX_SEARCH_QUERY_LENGTH + " characters");
+                return response;
+            }
             
-            if (gameCategory != null && !gameCategory.trim().isEmpty()) {
-                postsPage = postRepository.searchPostsByGameCategory(
-                    query, gameCategory, PostVisibility.PUBLIC, pageable);
+            String searchQuery = query.trim();
+            String category = gameCategory != null && !gameCategory.trim().isEmpty() ? gameCategory.trim() : null;
+            int pageSize = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+            List<Object[]> rows;
+            
+            // Cursor format: mode:score:postId of the last hit on the previous page, where mode
+            // records whether the search fell back to fuzzy title matching
+            String mode = SEARCH_MODE_TEXT;
+            if (cursor != null && !cursor.isBlank()) {
+                double afterScore;
+                long afterId;
+                try {
+                    String[] parts = CursorUtil.decode(cursor, 3);
+                    if (!SEARCH_MODE_TEXT.equals(parts[0]) && !SEARCH_MODE_FUZZY.equals(parts[0])) {
+                        throw new IllegalArgumentException("Unknown search mode");
+                    }
+                    mode = parts[0];
+                    afterScore = Double.parseDouble(parts[1]);
+                    afterId = Long.parseLong(parts[2]);
+                } catch (IllegalArgumentException e) {
+                    response.put("success", false);
+                    response.put("message", "Invalid cursor");
+                    return response;
+                }
+                
+                rows = SEARCH_MODE_FUZZY.equals(mode)
+                    ? postRepository.fuzzySearchPostIds(searchQuery, category, afterScore, afterId, pageSize + 1)
+                    : postRepository.searchPostIds(searchQuery, category, afterScore, afterId, pageSize + 1);
             } else {
-                postsPage = postRepository.searchPosts(
-                    query, PostVisibility.PUBLIC, pageable);
+                rows = postRepository.searchPostIds(searchQuery, category, Double.MAX_VALUE, Long.MAX_VALUE, pageSize + 1);
+                
+                // Nothing matched the words as typed; try similar titles to catch typos
+                if (rows.isEmpty() && postRepository.isTrigramSearchAvailable()) {
+                    mode = SEARCH_MODE_FUZZY;
+                    rows = postRepository.fuzzySearchPostIds(searchQuery, category, Double.MAX_VALUE, Long.MAX_VALUE, pageSize + 1);
+                }
             }
             
-            List<Map<String, Object>> postsList = postsPage.getContent().stream()
-                .map(this::formatPostForResponse)
+            // One extra row tells us whether another page exists without a count query
+            boolean hasMore = rows.size() > pageSize;
+            List<Object[]> hits = hasMore ? rows.subList(0, pageSize) : rows;
+            
+            // Load the hits and keep the ranked order
+            List<Long> postIds = hits.stream()
+                .map(row -> ((Number) row[0]).longValue())
+                .collect(Collectors.toList());
+            Map<Long, Post> postsById = postRepository.findAllById(postIds).stream()
+                .collect(Collectors.toMap(Post::getId, post -> post));
+            List<Post> posts = postIds.stream()
+                .map(postsById::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
             
+            String nextCursor = null;
+            if (hasMore) {
+                Object[] last = hits.get(hits.size() - 1);
+                nextCursor = CursorUtil.encode(mode, ((Number) last[1]).doubleValue(), ((Number) last[0]).longValue());
+            }
+            
             response.put("success", true);
             response.put("message", "Posts search completed");
-            response.put("posts", postsList);
-            response.put("totalElements", postsPage.getTotalElements());
-            response.put("totalPages", postsPage.getTotalPages());
-            response.put("currentPage", page);
-            response.put("pageSize", size);
+            response.put("posts", formatPostsForResponse(posts));
+            response.put("fuzzyMatch", SEARCH_MODE_FUZZY.equals(mode));
+            response.put("nextCursor", nextCursor);
+            response.put("hasMore", hasMore);
+            response.put("pageSize", pageSize);
             
         } catch (Exception e) {
             logger.error("Error searching posts", e);
@@ -611,7 +936,185 @@ public class PostServiceImpl implements PostService {
         return response;
     }
     
+    @Override
+    public Map<String, Object> getPostsByHashtag(String hashtag, String cursor, int size) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            String normalized = PostTagIndexService.normalizeHashtag(hashtag);
+            if (normalized == null) {
+                response.put("success", false);
+                response.put("message", "Invalid hashtag");
+                return response;
+            }
+            
+            // Cursor format: id of the last post on the previous page
+            Long beforePostId = Long.MAX_VALUE;
+            if (cursor != null && !cursor.isBlank()) {
+                try {
+                    beforePostId = Long.valueOf(CursorUtil.decode(cursor, 1)[0]);
+                } catch (IllegalArgumentException e) {
+                    response.put("success", false);
+                    response.put("message", "Invalid cursor");
+                    return response;
+                }
+            }
+            
+            int pageSize = Math.max(1, Math.min(size, MAX_TAGGED_POSTS_PAGE_SIZE));
+            List<Post> posts = postHashtagRepository.findPostsByHashtag(
+                normalized, beforePostId, PageRequest.of(0, pageSize + 1));
+            
+            String nextCursor = null;
+            if (posts.size() > pageSize) {
+                posts = posts.subList(0, pageSize);
+                nextCursor = CursorUtil.encode(posts.get(pageSize - 1).getId());
+            }
+            
+            response.put("success", true);
+            response.put("message", "Hashtag posts retrieved");
+            response.put("hashtag", normalized);
+            response.put("posts", formatPostsForResponse(posts));
+            response.put("nextCursor", nextCursor);
+            response.put("hasMore", nextCursor != null);
+            response.put("pageSize", pageSize);
+            
+        } catch (Exception e) {
+            logger.error("Error getting posts by hashtag", e);
+            response.put("success", false);
+            response.put("message", "Failed to get hashtag posts");
+        }
+        
+        return response;
+    }
+    
+    @Override
+    public Map<String, Object> getMentions(Long userId, String cursor, int size) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            // Cursor format: id of the last post on the previous page
+            Long beforePostId = Long.MAX_VALUE;
+            if (cursor != null && !cursor.isBlank()) {
+                try {
+                    beforePostId = Long.valueOf(CursorUtil.decode(cursor, 1)[0]);
+                } catch (IllegalArgumentException e) {
+                    response.put("success", false);
+                    response.put("message", "Invalid cursor");
+                    return response;
+                }
+            }
+            
+            int pageSize = Math.max(1, Math.min(size, MAX_TAGGED_POSTS_PAGE_SIZE));
+            List<Post> posts = postMentionRepository.findPostsMentioningUser(
+                userId, beforePostId, PageRequest.of(0, pageSize + 1));
+            
+            String nextCursor = null;
+            if (posts.size() > pageSize) {
+                posts = posts.subList(0, pageSize);
+                nextCursor = CursorUtil.encode(posts.get(pageSize - 1).getId());
+            }
+            
+            response.put("success", true);
+            response.put("message", "Mentions retrieved");
+            response.put("posts", formatPostsForResponse(posts));
+            response.put("nextCursor", nextCursor);
+            response.put("hasMore", nextCursor != null);
+            response.put("pageSize", pageSize);
+            
+        } catch (Exception e) {
+            logger.error("Error getting mentions", e);
+            response.put("success", false);
+            response.put("message", "Failed to get mentions");
+        }
+        
+        return response;
+    }
+    
+    @Override
+    public Map<String, Object> getTrendingHashtags(int limit) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            int size = Math.max(1, Math.min(limit, TrendingHashtagService.MAX_TRENDING_LIMIT));
+            
+            response.put("success", true);
+            response.put("message", "Trending hashtags retrieved");
+            response.put("hashtags", trendingHashtagService.getTrending(size));
+            response.put("windowMinutes", trendingHashtagService.getWindowMinutes());
+            
+        } catch (Exception e) {
+            logger.error("Error getting trending hashtags", e);
+            response.put("success", false);
+            response.put("message", "Failed to get trending hashtags");
+        }
+        
+        return response;
+    }
+    
+    // Give posts that predate trending scores a score, so they can appear in trending
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillTrendingScores() {
+        try {
+            int updated = postRepository.backfillTrendingScores();
+            if (updated > 0) {
+                logger.info("Backfilled trending scores for {} posts", updated);
+            }
+        } catch (Exception e) {
+            logger.error("Error backfilling post trending scores", e);
+        }
+    }
+    
+    // Give comments that predate threading a path, so replies can be attached to them
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillCommentPaths() {
+        try {
+            int updated = postCommentRepository.backfillTopLevelPaths();
+            if (updated > 0) {
+                logger.info("Backfilled thread paths for {} comments", updated);
+            }
+        } catch (Exception e) {
+            logger.error("Error backfilling comment thread paths", e);
+        }
+    }
+    
     // Helper methods
+    // Inserts a comment or reply, then places it in its thread now that its id is known.
+    // Returns null, having written nothing, if the parent was deleted in the meantime.
+    private PostComment saveComment(Post post, User author, String content, PostComment parent) {
+        if (parent != null && postCommentRepository.incrementReplyCountIfLive(parent.getId()) == 0) {
+            return null;
+        }
+        
+        PostComment comment = new PostComment();
+        comment.setPost(post);
+        comment.setAuthor(author);
+        comment.setContent(content);
+        comment.setParentComment(parent);
+        
+        PostComment savedComment = postCommentRepository.save(comment);
+        savedComment.assignPath();
+        
+        postRepository.adjustCommentCount(post.getId(), 1);
+        return savedComment;
+    }
+    
+    private void fetchCommentAuthors(List<PostComment> comments) {
+        if (!comments.isEmpty()) {
+            postCommentRepository.fetchAuthors(comments.stream().map(PostComment::getId).collect(Collectors.toSet()));
+        }
+    }
+    
+    // Formats a page of posts. Loads every author and attachment list on the page with one
+    // query first, so formatting does not lazy-load two associations per post.
+    private List<Map<String, Object>> formatPostsForResponse(List<Post> posts) {
+        if (!posts.isEmpty()) {
+            postRepository.fetchAuthorsAndMedia(posts.stream().map(Post::getId).collect(Collectors.toSet()));
+        }
+        return posts.stream()
+            .map(this::formatPostForResponse)
+            .collect(Collectors.toList());
+    }
+    
     private Map<String, Object> formatPostForResponse(Post post) {
         Map<String, Object> response = new HashMap<>();
         response.put("id", post.getId());
@@ -624,6 +1127,7 @@ public class PostServiceImpl implements PostService {
         response.put("tags", post.getTags());
         response.put("hashtags", post.getHashtags());
         response.put("visibility", post.getVisibility());
+        response.put("scheduledAt", post.getScheduledAt());
         response.put("viewCount", post.getViewCount());
         response.put("likeCount", post.getLikeCount());
         response.put("commentCount", post.getCommentCount());
@@ -671,8 +1175,20 @@ public class PostServiceImpl implements PostService {
     private Map<String, Object> formatCommentForResponse(PostComment comment) {
         Map<String, Object> response = new HashMap<>();
         response.put("id", comment.getId());
-        response.put("content", comment.getContent());
         response.put("createdAt", comment.getCreatedAt());
+        response.put("parentCommentId", comment.getParentComment() != null ? comment.getParentComment().getId() : null);
+        response.put("depth", comment.getDepth());
+        response.put("replyCount", comment.getReplyCount());
+        
+        // Deleted comments that still have replies are shown as placeholders without content or author
+        if (comment.getDeletedAt() != null) {
+            response.put("content", DELETED_COMMENT_CONTENT);
+            response.put("isDeleted", true);
+            return response;
+        }
+        
+        response.put("content", comment.getContent());
+        response.put("isDeleted", false);
         
         // Include author info
         if (comment.getAuthor() != null) {
@@ -0,0 +1,128 @@
+package com.gamermajilis.service;
+
+import com.gamermajilis.model.Post;
+import com.gamermajilis.model.PostHashtag;
+import com.gamermajilis.model.PostMention;
+import com.gamermajilis.repository.PostHashtagRepository;
+import com.gamermajilis.repository.PostMentionRepository;
+import com.gamermajilis.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// Parses a post's hashtags and @mentions into the post_hashtags and post_mentions join
+// tables whenever the post is written, so reads by hashtag or mention are index range
+// scans instead of LIKE scans over free text.
+@Service
+public class PostTagIndexService {
+
+    private static final Pattern HASHTAG_PATTERN = Pattern.compile("(?<![\\p{L}\\p{N}_])#([\\p{L}\\p{N}_]+)");
+
+    // The hashtags field may hold "#a #b", "a, b" or a JSON array, so any separator will do
+    private static final Pattern HASHTAG_FIELD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}_]+");
+
+    // Display names are 3 to 30 characters
+    private static final Pattern MENTION_PATTERN = Pattern.compile("(?<![\\p{L}\\p{N}_])@([\\p{L}\\p{N}_.-]{3,30})");
+
+    private static final Pattern TRAILING_PUNCTUATION = Pattern.compile("[.-]+$");
+
+    private static final int MAX_HASHTAGS_PER_POST = 30;
+
+    private static final int MAX_MENTIONS_PER_POST = 30;
+
+    @Autowired
+    private PostHashtagRepository postHashtagRepository;
+
+    @Autowired
+    private PostMentionRepository postMentionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Replaces the post's indexed hashtags and mentions; returns the hashtags
+    @Transactional
+    public Set<String> indexPost(Post post) {
+        Set<String> hashtags = extractHashtags(post);
+        postHashtagRepository.deleteByPostId(post.getId());
+        postHashtagRepository.saveAll(hashtags.stream()
+            .map(hashtag -> new PostHashtag(post.getId(), hashtag))
+            .collect(Collectors.toList()));
+
+        Set<String> mentionedNames = extractMentions(post);
+        postMentionRepository.deleteByPostId(post.getId());
+        if (!mentionedNames.isEmpty()) {
+            postMentionRepository.saveAll(userRepository.findIdsByDisplayNameIn(mentionedNames).stream()
+                .distinct()
+                .map(userId -> new PostMention(post.getId(), userId))
+                .collect(Collectors.toList()));
+        }
+
+        return hashtags;
+    }
+
+    // Lower case without the leading '#', or null if it cannot be a hashtag
+    public static String normalizeHashtag(String hashtag) {
+        if (hashtag == null) {
+            return null;
+        }
+        String normalized = hashtag.trim();
+        if (normalized.startsWith("#")) {
+            normalized = normalized.substring(1);
+        }
+        normalized = normalized.toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty() || normalized.length() > PostHashtag.MAX_LENGTH
+                || HASHTAG_FIELD_SEPARATOR.matcher(normalized).find()) {
+            return null;
+        }
+        return normalized;
+    }
+
+    // Helper methods
+    private Set<String> extractHashtags(Post post) {
+        List<String> candidates = new ArrayList<>();
+        if (post.getHashtags() != null) {
+            candidates.addAll(Arrays.asList(HASHTAG_FIELD_SEPARATOR.split(post.getHashtags())));
+        }
+        addMatches(HASHTAG_PATTERN, post.getTitle(), candidates);
+        addMatches(HASHTAG_PATTERN, post.getContent(), candidates);
+
+        Set<String> hashtags = new LinkedHashSet<>();
+        for (String candidate : candidates) {
+            String hashtag = normalizeHashtag(candidate);
+            if (hashtag != null) {
+                hashtags.add(hashtag);
+                if (hashtags.size() == MAX_HASHTAGS_PER_POST) {
+                    break;
+                }
+            }
+        }
+        return hashtags;
+    }
+
+    private Set<String> extractMentions(Post post) {
+        List<String> names = new ArrayList<>();
+        addMatches(MENTION_PATTERN, post.getTitle(), names);
+        addMatches(MENTION_PATTERN, post.getContent(), names);
+        // "@name." at the end of a sentence mentions "name"
+        return names.stream()
+            .map(name -> TRAILING_PUNCTUATION.matcher(name).replaceFirst(""))
+            .filter(name -> name.length() >= 3)
+            .limit(MAX_MENTIONS_PER_POST)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private void addMatches(Pattern pattern, String text, List<String> matches) {
+        if (text == null) {
+            return;
+        }
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            matches.add(matcher.group(1));
+        }
+    }
+}
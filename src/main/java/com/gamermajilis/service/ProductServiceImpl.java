@@ -2,6 +2,7 @@ package com.gamermajilis.service;
 
 import com.gamermajilis.model.*;
 import com.gamermajilis.repository.*;
+import com.gamermajilis.service.ViewCountService.ViewTarget;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,6 +36,9 @@ public class ProductServiceImpl implements ProductService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private ViewCountService viewCountService;
+    
     // ProductReview repository would need to be created
     // @Autowired
     // private ProductReviewRepository productReviewRepository;
@@ -323,13 +327,15 @@ public class ProductServiceImpl implements ProductService {
             
             Product product = productOpt.get();
             
-            // Increment view count
-            product.incrementViewCount();
-            productRepository.save(product);
+            // Count the view in memory; ViewCountService writes it in the next batch
+            viewCountService.recordView(ViewTarget.PRODUCT, productId);
+            
+            Map<String, Object> productMap = formatProductDetailsForResponse(product);
+            productMap.put("viewCount", viewCountService.getViewCount(ViewTarget.PRODUCT, productId, product.getViewCount()));
             
             response.put("success", true);
             response.put("message", "Product retrieved successfully");
-            response.put("product", formatProductDetailsForResponse(product));
+            response.put("product", productMap);
             
         } catch (Exception e) {
             logger.error("Error getting product details", e);
@@ -663,12 +669,11 @@ public class ProductServiceImpl implements ProductService {
             }
             
             Product product = productOpt.get();
-            product.incrementViewCount();
-            productRepository.save(product);
+            viewCountService.recordView(ViewTarget.PRODUCT, productId);
             
             response.put("success", true);
             response.put("message", "View recorded successfully");
-            response.put("newViewCount", product.getViewCount());
+            response.put("newViewCount", viewCountService.getViewCount(ViewTarget.PRODUCT, productId, product.getViewCount()));
             
         } catch (Exception e) {
             logger.error("Error recording product view", e);
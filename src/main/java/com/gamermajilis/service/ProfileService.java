@@ -20,4 +20,12 @@ public interface ProfileService {
     Map<String, Object> searchProfiles(String query, int page, int size);
     
     Map<String, Object> getProfileSuggestions(Long userId, int limit);
+    
+    Map<String, Object> followUser(Long followerId, Long userId);
+    
+    Map<String, Object> unfollowUser(Long followerId, Long userId);
+    
+    Map<String, Object> followGameCategory(Long userId, String gameCategory);
+    
+    Map<String, Object> unfollowGameCategory(Long userId, String gameCategory);
 }
@@ -1,6 +1,8 @@
 package com.gamermajilis.service;
 
 import com.gamermajilis.model.User;
+import com.gamermajilis.repository.GameCategoryFollowRepository;
+import com.gamermajilis.repository.UserFollowRepository;
 import com.gamermajilis.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,6 +11,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -30,6 +33,15 @@ public class ProfileServiceImpl implements ProfileService {
     @Autowired
     private MediaService mediaService;
 
+    @Autowired
+    private UserFollowRepository userFollowRepository;
+
+    @Autowired
+    private GameCategoryFollowRepository gameCategoryFollowRepository;
+
+    @Autowired
+    private FeedService feedService;
+
     private final String profilePictureUploadDir = "/tmp/uploads/profile-pictures/";
 
     @Override
@@ -249,6 +261,77 @@ public class ProfileServiceImpl implements ProfileService {
         }
     }
 
+    @Override
+    @Transactional
+    public Map<String, Object> followUser(Long followerId, Long userId) {
+        if (followerId.equals(userId)) {
+            return createErrorResponse("You cannot follow yourself");
+        }
+
+        Optional<User> userOpt = userRepository.findById(userId);
+        if (!userOpt.isPresent() || !userOpt.get().getActive() || userOpt.get().getBanned()) {
+            return createErrorResponse("User not found");
+        }
+
+        User followed = userOpt.get();
+        if (userFollowRepository.insertIfAbsent(followerId, userId) == 0) {
+            return createErrorResponse("You are already following this user");
+        }
+
+        // Seed the timeline before counting this follow, against the count the author had until now
+        feedService.onFollow(followerId, followed);
+        userRepository.adjustFollowerCount(userId, 1);
+
+        logger.info("User {} followed user {}", followerId, userId);
+
+        Map<String, Object> response = createSuccessResponse("User followed successfully");
+        response.put("followerCount", followed.getFollowerCount() + 1);
+        return response;
+    }
+
+    @Override
+    @Transactional
+    public Map<String, Object> unfollowUser(Long followerId, Long userId) {
+        if (userFollowRepository.deleteFollow(followerId, userId) == 0) {
+            return createErrorResponse("You are not following this user");
+        }
+
+        userRepository.adjustFollowerCount(userId, -1);
+        feedService.onUnfollow(followerId, userId);
+
+        logger.info("User {} unfollowed user {}", followerId, userId);
+        return createSuccessResponse("User unfollowed successfully");
+    }
+
+    @Override
+    @Transactional
+    public Map<String, Object> followGameCategory(Long userId, String gameCategory) {
+        if (gameCategory == null || gameCategory.trim().isEmpty()) {
+            return createErrorResponse("Game category is required");
+        }
+
+        // Posts in followed categories are read at request time, so there is no timeline to seed
+        if (gameCategoryFollowRepository.insertIfAbsent(userId, gameCategory.trim()) == 0) {
+            return createErrorResponse("You are already following this game category");
+        }
+
+        Map<String, Object> response = createSuccessResponse("Game category followed successfully");
+        response.put("followedGameCategories", gameCategoryFollowRepository.findGameCategoriesByUserId(userId));
+        return response;
+    }
+
+    @Override
+    @Transactional
+    public Map<String, Object> unfollowGameCategory(Long userId, String gameCategory) {
+        if (gameCategory == null || gameCategoryFollowRepository.deleteFollow(userId, gameCategory.trim()) == 0) {
+            return createErrorResponse("You are not following this game category");
+        }
+
+        Map<String, Object> response = createSuccessResponse("Game category unfollowed successfully");
+        response.put("followedGameCategories", gameCategoryFollowRepository.findGameCategoriesByUserId(userId));
+        return response;
+    }
+
     // Helper methods
     private Map<String, Object> buildFullUserProfile(User user) {
         Map<String, Object> profile = new HashMap<>();
@@ -260,6 +343,7 @@ public class ProfileServiceImpl implements ProfileService {
         profile.put("gamingPreferences", user.getGamingPreferences());
         profile.put("socialLinks", user.getSocialLinks());
         profile.put("gamingStatistics", user.getGamingStatistics());
+        profile.put("followerCount", user.getFollowerCount());
         profile.put("roles", user.getRoles());
         profile.put("discordUsername", user.getDiscordUsername());
         profile.put("lastLogin", user.getLastLogin());
@@ -278,6 +362,7 @@ public class ProfileServiceImpl implements ProfileService {
         profile.put("gamingPreferences", user.getGamingPreferences());
         profile.put("socialLinks", user.getSocialLinks());
         profile.put("gamingStatistics", user.getGamingStatistics());
+        profile.put("followerCount", user.getFollowerCount());
         profile.put("roles", user.getRoles());
         profile.put("discordUsername", user.getDiscordUsername());
         profile.put("createdAt", user.getCreatedAt());
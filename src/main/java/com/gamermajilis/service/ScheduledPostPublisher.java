@@ -0,0 +1,87 @@
+package com.gamermajilis.service;
+
+import com.gamermajilis.model.Post;
+import com.gamermajilis.repository.PostHashtagRepository;
+import com.gamermajilis.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Publishes posts once their scheduledAt has passed. The schedule lives only in the posts
+// table, so a restart loses nothing: the first poll publishes whatever fell due while the
+// app was down. Each batch claims due rows with FOR UPDATE SKIP LOCKED, then publishes and
+// fans them out in the same transaction, so instances polling at the same time split the
+// work between them and never publish a post twice.
+@Service
+public class ScheduledPostPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledPostPublisher.class);
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostHashtagRepository postHashtagRepository;
+
+    @Autowired
+    private FeedService feedService;
+
+    @Autowired
+    private TrendingHashtagService trendingHashtagService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${posts.scheduler.batch-size:100}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${posts.scheduler.poll-interval-ms:5000}")
+    public void publishDuePosts() {
+        try {
+            int published = 0;
+            int batch;
+            do {
+                batch = publishBatch();
+                published += batch;
+            } while (batch == batchSize);
+
+            if (published > 0) {
+                logger.info("Published {} scheduled posts", published);
+            }
+        } catch (Exception e) {
+            logger.error("Error publishing scheduled posts", e);
+        }
+    }
+
+    // Helper methods
+    private int publishBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> published = transactionTemplate.execute(status -> {
+            List<Long> postIds = postRepository.claimDueScheduledPosts(now, batchSize);
+            if (postIds.isEmpty()) {
+                return postIds;
+            }
+
+            postRepository.publishScheduledPosts(postIds, now);
+            postRepository.refreshTrendingScores(postIds);
+            for (Post post : postRepository.fetchAuthorsAndMedia(postIds)) {
+                feedService.fanOut(post);
+            }
+            return postIds;
+        });
+
+        if (published == null || published.isEmpty()) {
+            return 0;
+        }
+        // Counted once committed, so a rolled back batch never reaches the leaderboard
+        trendingHashtagService.record(postHashtagRepository.findPublicHashtagsByPostIds(published), now);
+        return published.size();
+    }
+}
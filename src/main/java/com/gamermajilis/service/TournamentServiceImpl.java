@@ -3,6 +3,7 @@ package com.gamermajilis.service;
 import com.gamermajilis.model.Tournament;
 import com.gamermajilis.model.TournamentStatus;
 import com.gamermajilis.repositories.TournamentRepository;
+import com.gamermajilis.service.ViewCountService.ViewTarget;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -12,9 +13,11 @@ import java.util.Optional;
 public class TournamentServiceImpl implements TournamentService {
 
     private final TournamentRepository tournamentRepository;
+    private final ViewCountService viewCountService;
 
-    public TournamentServiceImpl(TournamentRepository tournamentRepository) {
+    public TournamentServiceImpl(TournamentRepository tournamentRepository, ViewCountService viewCountService) {
         this.tournamentRepository = tournamentRepository;
+        this.viewCountService = viewCountService;
     }
 
     @Override
@@ -83,9 +86,9 @@ public class TournamentServiceImpl implements TournamentService {
 
     @Override
     public void incrementViewCount(Long tournamentId) {
-        Tournament tournament = tournamentRepository.findById(tournamentId)
-                .orElseThrow(() -> new RuntimeException("Tournament not found"));
-        tournament.incrementViewCount();
-        tournamentRepository.save(tournament);
+        if (!tournamentRepository.existsById(tournamentId)) {
+            throw new RuntimeException("Tournament not found");
+        }
+        viewCountService.recordView(ViewTarget.TOURNAMENT, tournamentId);
     }
 }
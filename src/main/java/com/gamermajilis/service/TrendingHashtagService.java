@@ -0,0 +1,181 @@
+package com.gamermajilis.service;
+
+import com.gamermajilis.repository.PostHashtagRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+// Sliding-window leaderboard of hashtags on recently published posts, kept in memory.
+// The window is split into time buckets of per-hashtag counters in a ring; a slot is reset
+// when the clock comes back around to it, so old counts expire without a sweep. Each
+// instance counts the posts it publishes and warms up from post_hashtags on startup, so
+// the leaderboard survives restarts but is approximate when several instances run.
+@Service
+public class TrendingHashtagService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingHashtagService.class);
+
+    public static final int MAX_TRENDING_LIMIT = 50;
+
+    @Autowired
+    private PostHashtagRepository postHashtagRepository;
+
+    @Value("${hashtags.trending.window-minutes:60}")
+    private int windowMinutes;
+
+    @Value("${hashtags.trending.bucket-minutes:5}")
+    private int bucketMinutes;
+
+    // Caps memory per bucket; hashtags first seen after the cap are not counted in that bucket
+    @Value("${hashtags.trending.max-hashtags-per-bucket:10000}")
+    private int maxHashtagsPerBucket;
+
+    @Value("${hashtags.trending.refresh-interval-ms:10000}")
+    private long refreshIntervalMs;
+
+    private Bucket[] buckets;
+
+    private long bucketMillis;
+
+    // Top MAX_TRENDING_LIMIT hashtags, rebuilt at most once per refresh interval
+    private volatile List<Map<String, Object>> leaderboard = List.of();
+
+    private volatile long leaderboardBuiltAt;
+
+    @PostConstruct
+    public void init() {
+        bucketMillis = bucketMinutes * 60_000L;
+        buckets = new Bucket[Math.max(1, windowMinutes / bucketMinutes)];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            LocalDateTime since = LocalDateTime.now().minusMinutes((long) buckets.length * bucketMinutes);
+            List<Object[]> rows = postHashtagRepository.findPublishedSince(since);
+            for (Object[] row : rows) {
+                record(List.of((String) row[0]), (LocalDateTime) row[1]);
+            }
+            logger.info("Loaded {} recent hashtag uses into the trending leaderboard", rows.size());
+        } catch (Exception e) {
+            logger.error("Error loading recent hashtags for trending", e);
+        }
+    }
+
+    // Counts the hashtags once the surrounding transaction (if any) has committed, so a
+    // post that is rolled back never reaches the leaderboard
+    public void recordAfterCommit(Collection<String> hashtags, LocalDateTime publishedAt) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(hashtags, publishedAt);
+                }
+            });
+        } else {
+            record(hashtags, publishedAt);
+        }
+    }
+
+    // Counts one use of each hashtag at the given publish time
+    public void record(Collection<String> hashtags, LocalDateTime publishedAt) {
+        if (hashtags.isEmpty()) {
+            return;
+        }
+
+        long currentBucket = System.currentTimeMillis() / bucketMillis;
+        long bucketNumber = Math.min(currentBucket,
+                publishedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() / bucketMillis);
+        if (bucketNumber <= currentBucket - buckets.length) {
+            return;
+        }
+
+        Bucket bucket = buckets[(int) (bucketNumber % buckets.length)];
+        synchronized (bucket) {
+            if (bucket.number != bucketNumber) {
+                if (bucket.number > bucketNumber) {
+                    return;
+                }
+                bucket.number = bucketNumber;
+                bucket.counts.clear();
+            }
+            for (String hashtag : hashtags) {
+                if (bucket.counts.size() < maxHashtagsPerBucket || bucket.counts.containsKey(hashtag)) {
+                    bucket.counts.merge(hashtag, 1L, Long::sum);
+                }
+            }
+        }
+    }
+
+    public List<Map<String, Object>> getTrending(int limit) {
+        if (System.currentTimeMillis() - leaderboardBuiltAt >= refreshIntervalMs) {
+            rebuildLeaderboard();
+        }
+        List<Map<String, Object>> current = leaderboard;
+        return current.subList(0, Math.min(Math.max(1, limit), current.size()));
+    }
+
+    public int getWindowMinutes() {
+        return buckets.length * bucketMinutes;
+    }
+
+    // Helper methods
+    private void rebuildLeaderboard() {
+        long now = System.currentTimeMillis();
+        long oldestBucket = now / bucketMillis - buckets.length + 1;
+
+        Map<String, Long> totals = new HashMap<>();
+        for (Bucket bucket : buckets) {
+            synchronized (bucket) {
+                if (bucket.number >= oldestBucket) {
+                    bucket.counts.forEach((hashtag, count) -> totals.merge(hashtag, count, Long::sum));
+                }
+            }
+        }
+
+        // Min-heap of the best entries seen so far; ties go to the alphabetically first hashtag
+        Comparator<Map.Entry<String, Long>> ranking = Map.Entry.<String, Long>comparingByValue()
+                .thenComparing(Map.Entry.<String, Long>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<String, Long>> top = new PriorityQueue<>(ranking);
+        for (Map.Entry<String, Long> entry : totals.entrySet()) {
+            top.offer(entry);
+            if (top.size() > MAX_TRENDING_LIMIT) {
+                top.poll();
+            }
+        }
+
+        List<Map<String, Object>> ranked = new ArrayList<>();
+        while (!top.isEmpty()) {
+            Map.Entry<String, Long> entry = top.poll();
+            Map<String, Object> item = new HashMap<>();
+            item.put("hashtag", entry.getKey());
+            item.put("count", entry.getValue());
+            ranked.add(item);
+        }
+        Collections.reverse(ranked);
+
+        leaderboard = ranked;
+        leaderboardBuiltAt = now;
+    }
+
+    private static final class Bucket {
+        // Bucket number since the epoch that the counts belong to
+        private long number = Long.MIN_VALUE;
+
+        private final Map<String, Long> counts = new HashMap<>();
+    }
+}
@@ -0,0 +1,112 @@
+package com.gamermajilis.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Aggregates view counts in memory and writes them as batched increments, so viewing
+// a post, media item, product, event or tournament never updates its row. Each entity
+// gets a LongAdder, which stripes concurrent increments on hot items across cells.
+// The entities map view_count as non-updatable, so saves never overwrite flushed counts.
+@Service
+public class ViewCountService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ViewCountService.class);
+
+    public enum ViewTarget {
+        POST("posts"),
+        MEDIA("media"),
+        PRODUCT("products"),
+        EVENT("events"),
+        TOURNAMENT("tournaments");
+
+        private final String incrementSql;
+
+        ViewTarget(String table) {
+            this.incrementSql = "UPDATE " + table + " SET view_count = view_count + ? WHERE id = ?";
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // target -> (entity id -> views not yet written)
+    private final Map<ViewTarget, Map<Long, LongAdder>> pendingViews = new EnumMap<>(ViewTarget.class);
+
+    public ViewCountService() {
+        for (ViewTarget target : ViewTarget.values()) {
+            pendingViews.put(target, new ConcurrentHashMap<>());
+        }
+    }
+
+    public void recordView(ViewTarget target, Long id) {
+        pendingViews.get(target).computeIfAbsent(id, key -> new LongAdder()).increment();
+    }
+
+    // Persisted count plus views still waiting for the next flush
+    public long getViewCount(ViewTarget target, Long id, Long persistedCount) {
+        LongAdder pending = pendingViews.get(target).get(id);
+        long base = persistedCount != null ? persistedCount : 0L;
+        return pending != null ? base + pending.sum() : base;
+    }
+
+    @Scheduled(fixedDelayString = "${views.flush-interval-ms:5000}")
+    public void flushViews() {
+        for (ViewTarget target : ViewTarget.values()) {
+            flushTarget(target);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushViews();
+    }
+
+    // Helper methods
+    private void flushTarget(ViewTarget target) {
+        Map<Long, LongAdder> counters = pendingViews.get(target);
+        if (counters.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> increments = new ArrayList<>();
+        for (Map.Entry<Long, LongAdder> entry : counters.entrySet()) {
+            long views = entry.getValue().sumThenReset();
+            if (views > 0) {
+                increments.add(new Object[] {views, entry.getKey()});
+            } else if (counters.remove(entry.getKey(), entry.getValue())) {
+                // Idle since the last flush; keep any view that raced with the removal
+                long straggler = entry.getValue().sumThenReset();
+                if (straggler > 0) {
+                    addViews(counters, entry.getKey(), straggler);
+                }
+            }
+        }
+
+        if (increments.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(target.incrementSql, increments);
+        } catch (Exception e) {
+            // Put the views back so the next flush retries them
+            logger.error("Error flushing {} view counts for {} items", target, increments.size(), e);
+            for (Object[] increment : increments) {
+                addViews(counters, (Long) increment[1], (Long) increment[0]);
+            }
+        }
+    }
+
+    private void addViews(Map<Long, LongAdder> counters, Long id, long views) {
+        counters.computeIfAbsent(id, key -> new LongAdder()).add(views);
+    }
+}
@@ -0,0 +1,40 @@
+package com.gamermajilis.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque keyset pagination cursors. A cursor is a URL-safe Base64 encoding of
+// its parts joined by ':', so clients can pass it back but should not build it.
+public final class CursorUtil {
+
+    private static final String SEPARATOR = ":";
+
+    private CursorUtil() {}
+
+    public static String encode(Object... parts) {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                raw.append(SEPARATOR);
+            }
+            raw.append(parts[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns the cursor parts, or throws IllegalArgumentException if the cursor
+    // is malformed or does not have the expected number of parts
+    public static String[] decode(String cursor, int expectedParts) {
+        if (cursor == null || cursor.isBlank()) {
+            throw new IllegalArgumentException("Cursor is empty");
+        }
+
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String[] parts = raw.split(SEPARATOR, -1);
+        if (parts.length != expectedParts) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,151 @@
+package com.gamermajilis;
+
+import com.gamermajilis.model.AuthProvider;
+import com.gamermajilis.model.ChatMessage;
+import com.gamermajilis.model.ChatRoom;
+import com.gamermajilis.model.ChatRoomType;
+import com.gamermajilis.model.User;
+import com.gamermajilis.service.ChatBroadcastService;
+import com.gamermajilis.service.ChatMessageIngestService;
+import com.gamermajilis.service.ChatRoomActivityService;
+import com.gamermajilis.service.ChatUnreadService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+// Runs the write-behind queue against a mocked JdbcTemplate that records every batch it
+// is asked to insert
+public class ChatMessageIngestServiceTest {
+
+    private final AtomicLong nextSequenceValue = new AtomicLong(1);
+
+    private final List<Long> insertedIds = new CopyOnWriteArrayList<>();
+
+    private JdbcTemplate jdbcTemplate;
+
+    private ChatMessageIngestService ingestService;
+
+    private ChatRoom room;
+
+    private User sender;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        Mockito.when(jdbcTemplate.queryForList(anyString(), eq(Long.class), anyInt())).thenAnswer(invocation -> {
+            int count = invocation.getArgument(2);
+            long first = nextSequenceValue.getAndAdd(count);
+            return LongStream.range(first, first + count).boxed().toList();
+        });
+        Mockito.when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any())).thenAnswer(invocation -> {
+            for (Object message : (Collection<Object>) invocation.getArgument(1)) {
+                insertedIds.add(((ChatMessage) message).getId());
+            }
+            return new int[0][];
+        });
+
+        TransactionTemplate transactionTemplate = Mockito.mock(TransactionTemplate.class);
+        Mockito.doAnswer(invocation -> {
+            ((Consumer<Object>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        ingestService = new ChatMessageIngestService(1000);
+        ReflectionTestUtils.setField(ingestService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(ingestService, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(ingestService, "chatRoomActivityService", Mockito.mock(ChatRoomActivityService.class));
+        ReflectionTestUtils.setField(ingestService, "chatUnreadService", Mockito.mock(ChatUnreadService.class));
+        ReflectionTestUtils.setField(ingestService, "chatBroadcastService", Mockito.mock(ChatBroadcastService.class));
+        ReflectionTestUtils.setField(ingestService, "batchSize", 50);
+        ReflectionTestUtils.setField(ingestService, "idBlockSize", 50);
+        ReflectionTestUtils.setField(ingestService, "flushIntervalMs", 20L);
+        ReflectionTestUtils.setField(ingestService, "shutdownTimeoutMs", 5000L);
+
+        sender = new User("sender@example.com", "sender", AuthProvider.EMAIL);
+        sender.setId(1L);
+        room = new ChatRoom("Finals", ChatRoomType.GROUP, sender);
+        room.setId(10L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testMessageIsQueuedAndDeliveredOnlyAfterCommit() {
+        AtomicInteger delivered = new AtomicInteger();
+        TransactionSynchronizationManager.initSynchronization();
+
+        ChatMessage committed = message();
+        ChatMessage rolledBack = message();
+        assertTrue(ingestService.enqueue(committed, delivered::incrementAndGet));
+        List<TransactionSynchronization> committedSend = List.copyOf(TransactionSynchronizationManager.getSynchronizations());
+        TransactionSynchronizationManager.clearSynchronization();
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertTrue(ingestService.enqueue(rolledBack, delivered::incrementAndGet));
+        List<TransactionSynchronization> rolledBackSend = List.copyOf(TransactionSynchronizationManager.getSynchronizations());
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertEquals(0, delivered.get());
+        committedSend.forEach(TransactionSynchronization::afterCommit);
+        rolledBackSend.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        ingestService.flushOnShutdown();
+
+        assertEquals(1, delivered.get());
+        assertEquals(List.of(committed.getId()), insertedIds);
+    }
+
+    @Test
+    void testShutdownPersistsEveryQueuedMessageOnce() {
+        ingestService.start();
+        List<Long> queuedIds = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            ChatMessage message = message();
+            assertTrue(ingestService.enqueue(message, () -> {}));
+            queuedIds.add(message.getId());
+        }
+
+        ingestService.flushOnShutdown();
+
+        // The flusher has stopped, so nothing it held is lost and nothing is written twice
+        List<Long> sortedInserted = new ArrayList<>(insertedIds);
+        sortedInserted.sort(null);
+        assertEquals(queuedIds, sortedInserted);
+    }
+
+    private ChatMessage message() {
+        ChatMessage message = new ChatMessage();
+        message.setChatRoom(room);
+        message.setSender(sender);
+        message.setContent("gg");
+        return message;
+    }
+}
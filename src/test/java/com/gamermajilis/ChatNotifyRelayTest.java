@@ -0,0 +1,262 @@
+package com.gamermajilis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gamermajilis.service.ChatNotifyRelay;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+// Drives the relay's publisher and listener threads against a mocked JdbcTemplate and
+// a mocked LISTEN connection; notifications are fed in through a queue
+public class ChatNotifyRelayTest {
+
+    private static final long TIMEOUT_MS = 5000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final BlockingQueue<Object> notifications = new LinkedBlockingQueue<>();
+
+    private final AtomicInteger connectionsOpened = new AtomicInteger();
+
+    private JdbcTemplate jdbcTemplate;
+
+    private MessageChannel brokerChannel;
+
+    private ChatNotifyRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        brokerChannel = Mockito.mock(MessageChannel.class);
+        relay = startRelay(jdbcTemplate, brokerChannel, notifications);
+    }
+
+    @AfterEach
+    void tearDown() {
+        relay.stop();
+    }
+
+    @Test
+    void testLocalBroadcastIsPublished() throws Exception {
+        relay.preSend(topicMessage("/topic/chat/rooms/1", "{\"id\":1}"), brokerChannel);
+
+        String[] batch = awaitPublishedBatch();
+        assertEquals(1, batch.length);
+        Map<?, ?> notification = objectMapper.readValue(batch[0], Map.class);
+        assertEquals("/topic/chat/rooms/1", notification.get("destination"));
+        assertEquals("{\"id\":1}", notification.get("payload"));
+    }
+
+    @Test
+    void testOwnNotificationsAreNotReplayed() throws Exception {
+        relay.preSend(topicMessage("/topic/chat/rooms/1", "{\"id\":1}"), brokerChannel);
+        String ownNotification = awaitPublishedBatch()[0];
+
+        // The same notification coming back from PostgreSQL is dropped; one from another node is replayed
+        notifications.add(ownNotification);
+        notifications.add(notificationFrom("other-node", "/topic/chat/rooms/2", "{\"id\":2}"));
+
+        ArgumentCaptor<Message<?>> replayed = ArgumentCaptor.forClass(Message.class);
+        Mockito.verify(brokerChannel, Mockito.timeout(TIMEOUT_MS)).send(replayed.capture());
+        Thread.sleep(100);
+        Mockito.verify(brokerChannel, Mockito.times(1)).send(any());
+        assertEquals("/topic/chat/rooms/2", SimpMessageHeaderAccessor.getDestination(replayed.getValue().getHeaders()));
+    }
+
+    @Test
+    void testReplayedMessagesAreNotPublishedAgain() throws Exception {
+        notifications.add(notificationFrom("other-node", "/topic/chat/rooms/2", "{\"id\":2}"));
+
+        ArgumentCaptor<Message<?>> replayed = ArgumentCaptor.forClass(Message.class);
+        Mockito.verify(brokerChannel, Mockito.timeout(TIMEOUT_MS)).send(replayed.capture());
+        assertEquals("other-node", replayed.getValue().getHeaders().get(ChatNotifyRelay.ORIGIN_HEADER));
+
+        // The broker channel hands the replayed message to the interceptor like any other
+        relay.preSend(replayed.getValue(), brokerChannel);
+        relay.preSend(topicMessage("/topic/chat/rooms/3", "{\"id\":3}"), brokerChannel);
+
+        String[] batch = awaitPublishedBatch();
+        assertEquals(1, batch.length);
+        assertEquals("/topic/chat/rooms/3", objectMapper.readValue(batch[0], Map.class).get("destination"));
+    }
+
+    @Test
+    void testOversizePayloadIsDeliveredLocallyOnly() throws Exception {
+        Message<?> oversize = topicMessage("/topic/chat/rooms/1", "x".repeat(8000));
+
+        // Still passed on to the local broker unchanged
+        assertTrue(oversize == relay.preSend(oversize, brokerChannel));
+        relay.preSend(topicMessage("/topic/chat/rooms/1", "{\"id\":1}"), brokerChannel);
+
+        String[] batch = awaitPublishedBatch();
+        assertEquals(1, batch.length);
+        assertEquals("{\"id\":1}", objectMapper.readValue(batch[0], Map.class).get("payload"));
+    }
+
+    @Test
+    void testListenerReplaysAfterReconnect() throws Exception {
+        notifications.add(new SQLException("connection reset"));
+        notifications.add(notificationFrom("other-node", "/topic/chat/rooms/2", "{\"id\":2}"));
+
+        ArgumentCaptor<Message<?>> replayed = ArgumentCaptor.forClass(Message.class);
+        Mockito.verify(brokerChannel, Mockito.timeout(TIMEOUT_MS)).send(replayed.capture());
+        assertTrue(connectionsOpened.get() >= 2);
+        assertArrayEquals("{\"id\":2}".getBytes(StandardCharsets.UTF_8), (byte[]) replayed.getValue().getPayload());
+    }
+
+    @Test
+    void testMessageOnOneNodeReachesSubscribersOnAnother() throws Exception {
+        // Both nodes share one NOTIFY channel: each pg_notify reaches every listener, the sender's included
+        List<BlockingQueue<Object>> listeners = new CopyOnWriteArrayList<>();
+        Node nodeA = new Node(listeners);
+        Node nodeB = new Node(listeners);
+        try {
+            nodeA.relay.preSend(topicMessage("/topic/chat/rooms/1", "{\"id\":1}"), nodeA.brokerChannel);
+
+            ArgumentCaptor<Message<?>> delivered = ArgumentCaptor.forClass(Message.class);
+            Mockito.verify(nodeB.brokerChannel, Mockito.timeout(TIMEOUT_MS)).send(delivered.capture());
+            Thread.sleep(200);
+
+            // B hands the frame to its subscribers exactly once and, although the frame passes
+            // through B's relay on the broker channel, never publishes it back to the channel
+            Mockito.verify(nodeB.brokerChannel, Mockito.times(1)).send(any());
+            assertEquals("/topic/chat/rooms/1", SimpMessageHeaderAccessor.getDestination(delivered.getValue().getHeaders()));
+            assertArrayEquals("{\"id\":1}".getBytes(StandardCharsets.UTF_8), (byte[]) delivered.getValue().getPayload());
+            Mockito.verifyNoInteractions(nodeB.jdbcTemplate);
+
+            // A publishes once and ignores its own notification
+            Mockito.verify(nodeA.jdbcTemplate, Mockito.times(1)).queryForList(anyString(), eq("chat_broadcast"), any(String[].class));
+            Mockito.verify(nodeA.brokerChannel, Mockito.never()).send(any());
+        } finally {
+            nodeA.relay.stop();
+            nodeB.relay.stop();
+        }
+    }
+
+    // Helper methods
+
+    private ChatNotifyRelay startRelay(JdbcTemplate jdbcTemplate, MessageChannel brokerChannel, BlockingQueue<Object> listener) {
+        ChatNotifyRelay relay = new ChatNotifyRelay() {
+            @Override
+            protected Connection openListenerConnection() throws SQLException {
+                connectionsOpened.incrementAndGet();
+                return mockListenerConnection(listener);
+            }
+        };
+        ReflectionTestUtils.setField(relay, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(relay, "brokerChannel", brokerChannel);
+        ReflectionTestUtils.setField(relay, "channel", "chat_broadcast");
+        ReflectionTestUtils.setField(relay, "queueCapacity", 100);
+        ReflectionTestUtils.setField(relay, "pollTimeoutMs", 20);
+        ReflectionTestUtils.setField(relay, "reconnectDelayMs", 10L);
+        relay.start();
+        return relay;
+    }
+
+    private String[] awaitPublishedBatch() {
+        ArgumentCaptor<String[]> batch = ArgumentCaptor.forClass(String[].class);
+        Mockito.verify(jdbcTemplate, Mockito.timeout(TIMEOUT_MS))
+                .queryForList(anyString(), eq("chat_broadcast"), batch.capture());
+        return batch.getValue();
+    }
+
+    private Message<byte[]> topicMessage(String destination, String payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(destination);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        return MessageBuilder.createMessage(payload.getBytes(StandardCharsets.UTF_8), accessor.getMessageHeaders());
+    }
+
+    private String notificationFrom(String origin, String destination, String payload) throws Exception {
+        return objectMapper.writeValueAsString(Map.of(
+                "origin", origin,
+                "destination", destination,
+                "contentType", "application/json",
+                "payload", payload));
+    }
+
+    // Each poll takes the next queued item: a JSON string is delivered as a notification,
+    // an SQLException drops the connection
+    private Connection mockListenerConnection(BlockingQueue<Object> notifications) throws SQLException {
+        Connection connection = Mockito.mock(Connection.class);
+        Statement statement = Mockito.mock(Statement.class);
+        PGConnection pgConnection = Mockito.mock(PGConnection.class);
+
+        Mockito.when(connection.createStatement()).thenReturn(statement);
+        Mockito.when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        Mockito.when(pgConnection.getNotifications(anyInt())).thenAnswer(invocation -> {
+            Object next = notifications.poll(invocation.getArgument(0, Integer.class), TimeUnit.MILLISECONDS);
+            if (next instanceof SQLException e) {
+                throw e;
+            }
+            if (next == null) {
+                return null;
+            }
+            PGNotification notification = Mockito.mock(PGNotification.class);
+            Mockito.when(notification.getParameter()).thenReturn((String) next);
+            return new PGNotification[] { notification };
+        });
+        return connection;
+    }
+
+    // One relay whose publishes go to every listener on the shared channel, and whose
+    // broker channel runs sent frames back through the relay the way the real one does
+    private class Node {
+
+        private final JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+
+        private final MessageChannel brokerChannel = Mockito.mock(MessageChannel.class);
+
+        private final ChatNotifyRelay relay;
+
+        Node(List<BlockingQueue<Object>> listeners) {
+            BlockingQueue<Object> listener = new LinkedBlockingQueue<>();
+            listeners.add(listener);
+
+            Mockito.when(jdbcTemplate.queryForList(anyString(), eq("chat_broadcast"), any(String[].class))).thenAnswer(invocation -> {
+                String[] batch = invocation.getArgument(2);
+                for (BlockingQueue<Object> queue : listeners) {
+                    queue.addAll(List.of(batch));
+                }
+                return List.of();
+            });
+            relay = startRelay(jdbcTemplate, brokerChannel, listener);
+            Mockito.when(brokerChannel.send(any())).thenAnswer(invocation -> {
+                relay.preSend(invocation.getArgument(0), brokerChannel);
+                return true;
+            });
+        }
+    }
+}
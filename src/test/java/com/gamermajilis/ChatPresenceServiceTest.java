@@ -0,0 +1,164 @@
+package com.gamermajilis;
+
+import com.gamermajilis.service.ChatBroadcastService;
+import com.gamermajilis.service.ChatPresenceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+// Feeds STOMP session events straight into ChatPresenceService and checks the presence
+// frames it flushes to a mocked ChatBroadcastService
+public class ChatPresenceServiceTest {
+
+    private static final Long ROOM_ID = 10L;
+
+    private final Principal alice = new UsernamePasswordAuthenticationToken("1", null);
+
+    private ChatBroadcastService chatBroadcastService;
+
+    private ChatPresenceService chatPresenceService;
+
+    @BeforeEach
+    void setUp() {
+        chatBroadcastService = Mockito.mock(ChatBroadcastService.class);
+        chatPresenceService = new ChatPresenceService();
+        ReflectionTestUtils.setField(chatPresenceService, "chatBroadcastService", chatBroadcastService);
+        ReflectionTestUtils.setField(chatPresenceService, "sessionTimeoutMs", 60000L);
+    }
+
+    @Test
+    void testUserStaysOnlineUntilLastSessionDisconnects() {
+        connect("s1", alice);
+        connect("s2", alice);
+        subscribe("s1", "sub-1", alice);
+        subscribe("s2", "sub-1", alice);
+        assertEquals(List.of(1L), flushedOnline());
+
+        disconnect("s1", alice);
+
+        assertTrue(chatPresenceService.isOnline(1L));
+        assertTrue(chatPresenceService.isOnlineInRoom(1L, ROOM_ID));
+        chatPresenceService.flushPresenceChanges();
+        Mockito.verify(chatBroadcastService, Mockito.never()).send(anyString(), any());
+
+        disconnect("s2", alice);
+
+        assertFalse(chatPresenceService.isOnline(1L));
+        assertFalse(chatPresenceService.isOnlineInRoom(1L, ROOM_ID));
+        assertEquals(List.of(1L), flushedOffline());
+    }
+
+    @Test
+    void testUnsubscribingOneSessionKeepsUserInRoom() {
+        connect("s1", alice);
+        connect("s2", alice);
+        subscribe("s1", "sub-1", alice);
+        subscribe("s2", "sub-1", alice);
+        flushedOnline();
+
+        unsubscribe("s1", "sub-1", alice);
+
+        assertEquals(Set.of(1L), chatPresenceService.getOnlineUserIdsInRoom(ROOM_ID));
+        chatPresenceService.flushPresenceChanges();
+        Mockito.verify(chatBroadcastService, Mockito.never()).send(anyString(), any());
+    }
+
+    @Test
+    void testDisconnectWithoutSubscriptionsLeavesRoomPresenceAlone() {
+        connect("s1", alice);
+        connect("s2", alice);
+        subscribe("s1", "sub-1", alice);
+        flushedOnline();
+
+        // s2 never joined the room, so dropping it changes nothing there
+        disconnect("s2", alice);
+
+        assertTrue(chatPresenceService.isOnlineInRoom(1L, ROOM_ID));
+        chatPresenceService.flushPresenceChanges();
+        Mockito.verify(chatBroadcastService, Mockito.never()).send(anyString(), any());
+    }
+
+    @Test
+    void testRepeatedDisconnectIsIgnored() {
+        connect("s1", alice);
+        subscribe("s1", "sub-1", alice);
+        flushedOnline();
+
+        disconnect("s1", alice);
+        disconnect("s1", alice);
+
+        assertEquals(List.of(1L), flushedOffline());
+    }
+
+    // Helper methods
+
+    @SuppressWarnings("unchecked")
+    private List<Long> flushedOnline() {
+        return (List<Long>) flush().get("online");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> flushedOffline() {
+        return (List<Long>) flush().get("offline");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> flush() {
+        chatPresenceService.flushPresenceChanges();
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        Mockito.verify(chatBroadcastService).send(eq(ChatBroadcastService.roomTopic(ROOM_ID, "presence")), event.capture());
+        Mockito.clearInvocations(chatBroadcastService);
+        return (Map<String, Object>) event.getValue();
+    }
+
+    private void connect(String sessionId, Principal user) {
+        chatPresenceService.handleSessionConnect(new SessionConnectEvent(this, message(SimpMessageType.CONNECT, sessionId, null, null), user));
+    }
+
+    private void subscribe(String sessionId, String subscriptionId, Principal user) {
+        chatPresenceService.handleSessionSubscribe(new SessionSubscribeEvent(this,
+                message(SimpMessageType.SUBSCRIBE, sessionId, subscriptionId, ChatBroadcastService.roomTopic(ROOM_ID)), user));
+    }
+
+    private void unsubscribe(String sessionId, String subscriptionId, Principal user) {
+        chatPresenceService.handleSessionUnsubscribe(new SessionUnsubscribeEvent(this,
+                message(SimpMessageType.UNSUBSCRIBE, sessionId, subscriptionId, null), user));
+    }
+
+    private void disconnect(String sessionId, Principal user) {
+        chatPresenceService.handleSessionDisconnect(new SessionDisconnectEvent(this,
+                message(SimpMessageType.DISCONNECT, sessionId, null, null), sessionId, CloseStatus.NORMAL, user));
+    }
+
+    private Message<byte[]> message(SimpMessageType type, String sessionId, String subscriptionId, String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(type);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,76 @@
+package com.gamermajilis;
+
+import com.gamermajilis.service.ChatRateLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ChatRateLimiterTest {
+
+    private ChatRateLimiter chatRateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        chatRateLimiter = new ChatRateLimiter();
+        ReflectionTestUtils.setField(chatRateLimiter, "messagesPerMinute", 30);
+        ReflectionTestUtils.setField(chatRateLimiter, "burst", 3);
+        ReflectionTestUtils.setField(chatRateLimiter, "idleTimeoutMs", 600000L);
+        ReflectionTestUtils.setField(chatRateLimiter, "maxBuckets", 100000);
+        ReflectionTestUtils.setField(chatRateLimiter, "capacitySweepIntervalMs", 5000L);
+    }
+
+    @Test
+    void testSlowModeRejectsSecondMessageInRoom() {
+        chatRateLimiter.updateSlowMode(10L, 30);
+
+        assertEquals(0, chatRateLimiter.tryAcquire(1L, 10L));
+        long retryAfter = chatRateLimiter.tryAcquire(1L, 10L);
+
+        assertTrue(retryAfter > 0 && retryAfter <= 30);
+        // Slow mode is per room, so another room is unaffected
+        assertEquals(0, chatRateLimiter.tryAcquire(1L, 11L));
+    }
+
+    @Test
+    void testUserCapRejectsAfterBurstAcrossRooms() {
+        for (long roomId = 1; roomId <= 3; roomId++) {
+            assertEquals(0, chatRateLimiter.tryAcquire(1L, roomId));
+        }
+
+        assertTrue(chatRateLimiter.tryAcquire(1L, 4L) > 0);
+        // Other users have their own bucket
+        assertEquals(0, chatRateLimiter.tryAcquire(2L, 4L));
+        assertEquals(1L, chatRateLimiter.getMetrics().get("userLimitRejections"));
+    }
+
+    @Test
+    void testUserCapRejectionGivesRoomSlotBack() {
+        chatRateLimiter.updateSlowMode(4L, 30);
+        for (long roomId = 1; roomId <= 3; roomId++) {
+            chatRateLimiter.tryAcquire(1L, roomId);
+        }
+
+        assertTrue(chatRateLimiter.tryAcquire(1L, 4L) > 0);
+        assertTrue(chatRateLimiter.tryAcquire(1L, 4L) > 0);
+
+        // Had the first rejection kept the room slot, the retry would have hit slow mode
+        assertEquals(0L, chatRateLimiter.getMetrics().get("slowModeRejections"));
+        assertEquals(2L, chatRateLimiter.getMetrics().get("userLimitRejections"));
+    }
+
+    @Test
+    void testReleaseGivesBothSlotsBack() {
+        chatRateLimiter.updateSlowMode(10L, 30);
+        ReflectionTestUtils.setField(chatRateLimiter, "burst", 1);
+
+        assertEquals(0, chatRateLimiter.tryAcquire(1L, 10L));
+        chatRateLimiter.release(1L, 10L);
+
+        // Neither slow mode nor the single-token bucket holds the refused send against the user
+        assertEquals(0, chatRateLimiter.tryAcquire(1L, 10L));
+        assertTrue(chatRateLimiter.tryAcquire(1L, 10L) > 0);
+    }
+}
@@ -0,0 +1,305 @@
+package com.gamermajilis;
+
+import com.gamermajilis.model.AuthProvider;
+import com.gamermajilis.model.ChatMessage;
+import com.gamermajilis.model.ChatMemberRole;
+import com.gamermajilis.model.ChatRoom;
+import com.gamermajilis.model.ChatRoomMember;
+import com.gamermajilis.model.ChatRoomType;
+import com.gamermajilis.model.User;
+import com.gamermajilis.repository.ChatMessageReactionCountRepository;
+import com.gamermajilis.repository.ChatMessageRepository;
+import com.gamermajilis.repository.ChatRoomMemberRepository;
+import com.gamermajilis.repository.ChatRoomRepository;
+import com.gamermajilis.repository.UserRepository;
+import com.gamermajilis.service.ChatBroadcastService;
+import com.gamermajilis.service.ChatMembershipCache;
+import com.gamermajilis.service.ChatMessageIngestService;
+import com.gamermajilis.service.ChatPresenceService;
+import com.gamermajilis.service.ChatRateLimiter;
+import com.gamermajilis.service.ChatRoomActivityService;
+import com.gamermajilis.service.ChatServiceImpl;
+import com.gamermajilis.service.ChatTypingService;
+import com.gamermajilis.service.ChatUnreadService;
+import com.gamermajilis.util.CursorUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+
+// Exercises ChatServiceImpl itself against mocked repositories and collaborators
+@ExtendWith(MockitoExtension.class)
+public class ChatServiceTest {
+
+    @Mock
+    private ChatRoomRepository chatRoomRepository;
+
+    @Mock
+    private ChatMessageRepository chatMessageRepository;
+
+    @Mock
+    private ChatMessageReactionCountRepository chatMessageReactionCountRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ChatRoomMemberRepository chatRoomMemberRepository;
+
+    @Mock
+    private ChatMembershipCache chatMembershipCache;
+
+    @Mock
+    private ChatUnreadService chatUnreadService;
+
+    @Mock
+    private ChatRateLimiter chatRateLimiter;
+
+    @Mock
+    private ChatMessageIngestService chatMessageIngestService;
+
+    @Mock
+    private ChatBroadcastService chatBroadcastService;
+
+    @Mock
+    private ChatTypingService chatTypingService;
+
+    @Mock
+    private ChatRoomActivityService chatRoomActivityService;
+
+    @Mock
+    private ChatPresenceService chatPresenceService;
+
+    @InjectMocks
+    private ChatServiceImpl chatService;
+
+    @Test
+    void testBannedMemberCannotRemoveThemselves() {
+        User creator = user(1L);
+        User banned = user(2L);
+        ChatRoom room = room(10L, creator);
+        ChatRoomMember membership = new ChatRoomMember(room, banned, ChatMemberRole.MEMBER);
+        membership.setIsBanned(true);
+        Mockito.when(chatRoomRepository.findById(10L)).thenReturn(Optional.of(room));
+        Mockito.when(chatRoomMemberRepository.findByChatRoomIdAndUserId(10L, 2L)).thenReturn(Optional.of(membership));
+
+        Map<String, Object> response = chatService.removeChatRoomMember(2L, 10L, 2L);
+
+        assertEquals(false, response.get("success"));
+        Mockito.verify(chatRoomMemberRepository, Mockito.never()).delete(any());
+        Mockito.verify(chatMembershipCache, Mockito.never()).invalidate(anyLong(), anyLong());
+    }
+
+    @Test
+    void testBatchedRoomQueuesMessageInsteadOfSaving() {
+        User sender = user(1L);
+        ChatRoom room = room(10L, sender);
+        room.setBatchedIngestion(true);
+        Mockito.when(chatRoomRepository.findById(10L)).thenReturn(Optional.of(room));
+        Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(sender));
+        Mockito.when(chatMembershipCache.canAccess(room, 1L)).thenReturn(true);
+        Mockito.when(chatMessageIngestService.enqueue(any(), any())).thenAnswer(invocation -> {
+            ChatMessage message = invocation.getArgument(0);
+            message.setId(100L);
+            message.setCreatedAt(LocalDateTime.now());
+            message.setUpdatedAt(LocalDateTime.now());
+            return true;
+        });
+
+        Map<String, Object> messageData = new HashMap<>();
+        messageData.put("content", "gg");
+        Map<String, Object> response = chatService.sendMessage(1L, 10L, messageData);
+
+        assertEquals(true, response.get("success"));
+        assertEquals(true, response.get("queued"));
+        Mockito.verify(chatMessageRepository, Mockito.never()).save(any());
+
+        // Subscribers only hear about the message once the ingest service has queued it after commit
+        ArgumentCaptor<Runnable> onQueued = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(chatMessageIngestService).enqueue(any(), onQueued.capture());
+        Mockito.verifyNoInteractions(chatBroadcastService);
+        onQueued.getValue().run();
+        Mockito.verify(chatBroadcastService).publishMessageCreatedNow(eq(10L), any());
+    }
+
+    @Test
+    void testRateLimitedSendIsRejectedBeforeAnyQuery() {
+        Mockito.when(chatRateLimiter.tryAcquire(1L, 10L)).thenReturn(3L);
+
+        Map<String, Object> messageData = new HashMap<>();
+        messageData.put("content", "gg");
+        Map<String, Object> response = chatService.sendMessage(1L, 10L, messageData);
+
+        assertEquals(false, response.get("success"));
+        assertEquals(true, response.get("rateLimited"));
+        assertEquals(3L, response.get("retryAfterSeconds"));
+        Mockito.verifyNoInteractions(chatRoomRepository, userRepository, chatMessageRepository, chatMembershipCache,
+                chatMessageIngestService, chatBroadcastService);
+    }
+
+    @Test
+    void testEmptyMessageGivesRateLimitSlotBack() {
+        User sender = user(1L);
+        ChatRoom room = room(10L, sender);
+        Mockito.when(chatRoomRepository.findById(10L)).thenReturn(Optional.of(room));
+        Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(sender));
+        Mockito.when(chatMembershipCache.canAccess(room, 1L)).thenReturn(true);
+
+        Map<String, Object> messageData = new HashMap<>();
+        messageData.put("content", "   ");
+        Map<String, Object> response = chatService.sendMessage(1L, 10L, messageData);
+
+        assertEquals(false, response.get("success"));
+        Mockito.verify(chatRateLimiter).release(1L, 10L);
+        Mockito.verify(chatMessageRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    void testMarkReadClampsToNewestMessageInRoom() {
+        Mockito.when(chatMembershipCache.isActiveMember(10L, 1L)).thenReturn(true);
+        Mockito.when(chatMessageRepository.findMaxMessageIdInRoom(10L)).thenReturn(50L);
+
+        Map<String, Object> response = chatService.markChatRoomRead(1L, 10L, 999L);
+
+        assertEquals(true, response.get("success"));
+        assertEquals(50L, response.get("lastReadMessageId"));
+        Mockito.verify(chatRoomMemberRepository).advanceReadCursor(10L, 1L, 50L);
+        Mockito.verify(chatUnreadService).invalidate(1L, 10L);
+    }
+
+    @Test
+    void testDeleteMessageInvalidatesRoomUnreadCounts() {
+        User sender = user(1L);
+        ChatRoom room = room(10L, sender);
+        ChatMessage message = new ChatMessage();
+        message.setId(100L);
+        message.setChatRoom(room);
+        message.setSender(sender);
+        message.setContent("oops");
+        Mockito.when(chatMessageRepository.findByIdAndSenderIdAndDeletedAtIsNull(100L, 1L)).thenReturn(Optional.of(message));
+
+        Map<String, Object> response = chatService.deleteMessage(1L, 100L);
+
+        assertEquals(true, response.get("success"));
+        Mockito.verify(chatUnreadService).invalidateRoom(10L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testOnlineUsersOfPrivateRoomAuthorizedByPresenceOnly() {
+        User viewer = user(1L);
+        User other = user(2L);
+        ChatRoom room = room(10L, viewer);
+        room.setIsPrivate(true);
+        Mockito.when(chatRoomRepository.findById(10L)).thenReturn(Optional.of(room));
+        Mockito.when(chatPresenceService.isOnlineInRoom(1L, 10L)).thenReturn(true);
+        Mockito.when(chatPresenceService.getOnlineUserIdsInRoom(10L)).thenReturn(Set.of(1L, 2L));
+        Mockito.when(userRepository.findAllById(List.of(2L))).thenReturn(List.of(other));
+
+        Map<String, Object> response = chatService.getOnlineUsers(1L, 10L);
+
+        assertEquals(true, response.get("success"));
+        assertEquals(1, ((List<Map<String, Object>>) response.get("onlineUsers")).size());
+        Mockito.verifyNoInteractions(chatRoomMemberRepository, chatMembershipCache);
+    }
+
+    @Test
+    void testOnlineUsersOfPrivateRoomDeniedWithoutSubscription() {
+        ChatRoom room = room(10L, user(3L));
+        room.setIsPrivate(true);
+        Mockito.when(chatRoomRepository.findById(10L)).thenReturn(Optional.of(room));
+
+        Map<String, Object> response = chatService.getOnlineUsers(1L, 10L);
+
+        assertEquals(false, response.get("success"));
+        Mockito.verifyNoInteractions(chatRoomMemberRepository, chatMembershipCache);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testHistoryCursorResumesFromItsAnchor() {
+        User sender = user(1L);
+        ChatRoom room = room(10L, sender);
+        Mockito.when(chatRoomRepository.findById(10L)).thenReturn(Optional.of(room));
+        Mockito.when(chatMembershipCache.canAccess(room, 1L)).thenReturn(true);
+        Mockito.when(chatMessageRepository.findHistoryBefore(eq(10L), eq(50L), any()))
+                .thenReturn(new SliceImpl<>(List.of(message(49L, room, sender), message(48L, room, sender)), PageRequest.of(0, 2), true));
+
+        Map<String, Object> response = chatService.getChatMessageHistory(1L, 10L, CursorUtil.encode(10L, "before", 50L), null, 2);
+
+        assertEquals(true, response.get("success"));
+        assertEquals(2, ((List<Map<String, Object>>) response.get("messages")).size());
+        assertEquals(true, response.get("hasMore"));
+        // The next page continues in the same direction from the oldest message returned
+        String[] next = CursorUtil.decode((String) response.get("nextCursor"), 3);
+        assertEquals(List.of("10", "before", "48"), List.of(next));
+    }
+
+    @Test
+    void testHistoryRejectsCursorFromAnotherRoom() {
+        ChatRoom room = room(10L, user(1L));
+        Mockito.when(chatRoomRepository.findById(10L)).thenReturn(Optional.of(room));
+        Mockito.when(chatMembershipCache.canAccess(room, 1L)).thenReturn(true);
+
+        Map<String, Object> response = chatService.getChatMessageHistory(1L, 10L, CursorUtil.encode(11L, "before", 50L), null, 20);
+
+        assertEquals(false, response.get("success"));
+        assertEquals("Invalid cursor", response.get("message"));
+        Mockito.verifyNoInteractions(chatMessageRepository);
+    }
+
+    @Test
+    void testHistoryRejectsMalformedCursor() {
+        ChatRoom room = room(10L, user(1L));
+        Mockito.when(chatRoomRepository.findById(10L)).thenReturn(Optional.of(room));
+        Mockito.when(chatMembershipCache.canAccess(room, 1L)).thenReturn(true);
+
+        for (String cursor : List.of("not a cursor!", CursorUtil.encode(10L, "sideways", 50L), CursorUtil.encode(10L, "before"))) {
+            Map<String, Object> response = chatService.getChatMessageHistory(1L, 10L, cursor, null, 20);
+
+            assertEquals(false, response.get("success"));
+            assertEquals("Invalid cursor", response.get("message"));
+        }
+        Mockito.verifyNoInteractions(chatMessageRepository);
+    }
+
+    private static User user(Long id) {
+        User user = new User("user" + id + "@example.com", "user" + id, AuthProvider.EMAIL);
+        user.setId(id);
+        return user;
+    }
+
+    private static ChatMessage message(Long id, ChatRoom room, User sender) {
+        ChatMessage message = new ChatMessage();
+        message.setId(id);
+        message.setChatRoom(room);
+        message.setSender(sender);
+        message.setContent("message " + id);
+        message.setCreatedAt(LocalDateTime.now());
+        message.setUpdatedAt(LocalDateTime.now());
+        return message;
+    }
+
+    private static ChatRoom room(Long id, User creator) {
+        ChatRoom room = new ChatRoom("Room " + id, ChatRoomType.GROUP, creator);
+        room.setId(id);
+        return room;
+    }
+}
@@ -3,6 +3,7 @@ package com.gamermajilis;
 import com.gamermajilis.controller.ChatController;
 import com.gamermajilis.service.ChatService;
 import com.gamermajilis.service.CustomUserDetailsService;
+import com.gamermajilis.util.CursorUtil;
 import com.gamermajilis.util.JwtUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,10 +17,12 @@ import org.springframework.test.web.servlet.MockMvc;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -122,4 +125,145 @@ public class ChatTest {
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.message").value("Left chat room successfully"));
     }
+
+    @Test
+    void testGetOnlineUsersInRoom() throws Exception {
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("success", true);
+        mockResponse.put("message", "Online users retrieved");
+        mockResponse.put("onlineUsers", new ArrayList<>());
+        Mockito.when(chatService.getOnlineUsers(eq(1L), eq(3L))).thenReturn(mockResponse);
+
+        mockMvc.perform(get("/chat/online-users")
+                .header("Authorization", "Bearer mockToken")
+                .param("roomId", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.onlineUsers").isEmpty());
+    }
+
+    @Test
+    void testGetChatMessageHistory() throws Exception {
+        String cursor = CursorUtil.encode(1L, "before", 50L);
+        String nextCursor = CursorUtil.encode(1L, "before", 30L);
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("success", true);
+        mockResponse.put("messages", new ArrayList<>());
+        mockResponse.put("nextCursor", nextCursor);
+        mockResponse.put("hasMore", true);
+        Mockito.when(chatService.getChatMessageHistory(eq(1L), eq(1L), eq(cursor), eq(null), eq(20)))
+                .thenReturn(mockResponse);
+
+        mockMvc.perform(get("/chat/rooms/1/messages/history")
+                .header("Authorization", "Bearer mockToken")
+                .param("cursor", cursor)
+                .param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andExpect(jsonPath("$.nextCursor").value(nextCursor));
+    }
+
+    @Test
+    void testSendMessageRateLimited() throws Exception {
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("success", false);
+        mockResponse.put("message", "You are sending messages too quickly");
+        mockResponse.put("rateLimited", true);
+        mockResponse.put("retryAfterSeconds", 3L);
+        Mockito.when(chatService.sendMessage(eq(1L), eq(1L), any())).thenReturn(mockResponse);
+
+        mockMvc.perform(post("/chat/rooms/1/messages")
+                .header("Authorization", "Bearer mockToken")
+                .param("content", "Hello World"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "3"))
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    void testToggleMessageReaction() throws Exception {
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("success", true);
+        mockResponse.put("message", "Reaction added");
+        mockResponse.put("reacted", true);
+        Mockito.when(chatService.toggleMessageReaction(eq(1L), eq(9L), eq("👍"))).thenReturn(mockResponse);
+
+        mockMvc.perform(post("/chat/messages/9/reactions")
+                .header("Authorization", "Bearer mockToken")
+                .param("emoji", "👍"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.reacted").value(true));
+    }
+
+    @Test
+    void testGetArchivedMessages() throws Exception {
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("success", true);
+        mockResponse.put("message", "Archived messages retrieved successfully");
+        mockResponse.put("messages", new ArrayList<>());
+        mockResponse.put("truncated", false);
+        Mockito.when(chatService.getArchivedMessages(eq(1L), eq(1L), eq("2026-01-01"), eq("2026-01-07")))
+                .thenReturn(mockResponse);
+
+        mockMvc.perform(get("/chat/rooms/1/messages/archive")
+                .header("Authorization", "Bearer mockToken")
+                .param("from", "2026-01-01")
+                .param("to", "2026-01-07"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.truncated").value(false));
+    }
+
+    @Test
+    void testSearchChatMessages() throws Exception {
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("success", true);
+        mockResponse.put("message", "Search completed successfully");
+        mockResponse.put("results", new ArrayList<>());
+        mockResponse.put("hasMore", false);
+        Mockito.when(chatService.searchChatMessages(eq(1L), eq(1L), eq("gg wp"), eq(null), eq(20)))
+                .thenReturn(mockResponse);
+
+        mockMvc.perform(get("/chat/rooms/1/messages/search")
+                .header("Authorization", "Bearer mockToken")
+                .param("q", "gg wp"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void testMarkChatRoomRead() throws Exception {
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("success", true);
+        mockResponse.put("message", "Chat room marked as read");
+        mockResponse.put("lastReadMessageId", 42L);
+        Mockito.when(chatService.markChatRoomRead(eq(1L), eq(1L), eq(42L))).thenReturn(mockResponse);
+
+        mockMvc.perform(post("/chat/rooms/1/read")
+                .header("Authorization", "Bearer mockToken")
+                .param("messageId", "42"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.lastReadMessageId").value(42));
+    }
+
+    @Test
+    void testCreateChatRoomPassesBatchedIngestion() throws Exception {
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("success", true);
+        mockResponse.put("message", "Chat room created successfully");
+        Mockito.when(chatService.createChatRoom(eq(1L), argThat(data -> Boolean.TRUE.equals(data.get("batchedIngestion")))))
+                .thenReturn(mockResponse);
+
+        mockMvc.perform(post("/chat/rooms")
+                .header("Authorization", "Bearer mockToken")
+                .param("name", "Finals Room")
+                .param("type", "TOURNAMENT")
+                .param("batchedIngestion", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+    }
 }
\ No newline at end of file
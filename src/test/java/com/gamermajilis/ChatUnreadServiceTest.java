@@ -0,0 +1,67 @@
+package com.gamermajilis;
+
+import com.gamermajilis.repository.ChatRoomMemberRepository;
+import com.gamermajilis.service.ChatUnreadService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+
+@ExtendWith(MockitoExtension.class)
+public class ChatUnreadServiceTest {
+
+    @Mock
+    private ChatRoomMemberRepository chatRoomMemberRepository;
+
+    @InjectMocks
+    private ChatUnreadService chatUnreadService;
+
+    @Test
+    void testCachedCountsFollowNewMessages() {
+        Mockito.when(chatRoomMemberRepository.countUnreadMessages(eq(1L), anyCollection()))
+                .thenReturn(rows(10L, 2));
+
+        assertEquals(2, chatUnreadService.getUnreadCounts(1L, List.of(10L)).get(10L));
+        chatUnreadService.recordMessage(10L, 2L);
+        // The reader's own messages never count
+        chatUnreadService.recordMessage(10L, 1L);
+
+        assertEquals(3, chatUnreadService.getUnreadCounts(1L, List.of(10L)).get(10L));
+        Mockito.verify(chatRoomMemberRepository, Mockito.times(1)).countUnreadMessages(eq(1L), anyCollection());
+    }
+
+    @Test
+    void testInvalidateRoomRecountsEveryReader() {
+        Mockito.when(chatRoomMemberRepository.countUnreadMessages(eq(1L), anyCollection()))
+                .thenReturn(rows(10L, 3), rows(10L, 2));
+        Mockito.when(chatRoomMemberRepository.countUnreadMessages(eq(2L), anyCollection()))
+                .thenReturn(rows(10L, 5), rows(10L, 4));
+
+        chatUnreadService.getUnreadCounts(1L, List.of(10L));
+        chatUnreadService.getUnreadCounts(2L, List.of(10L));
+
+        // A message was deleted or archived
+        chatUnreadService.invalidateRoom(10L);
+
+        Map<Long, Integer> first = chatUnreadService.getUnreadCounts(1L, List.of(10L));
+        Map<Long, Integer> second = chatUnreadService.getUnreadCounts(2L, List.of(10L));
+        assertEquals(2, first.get(10L));
+        assertEquals(4, second.get(10L));
+    }
+
+    private static List<Object[]> rows(Long roomId, int count) {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[] { roomId, (long) count });
+        return rows;
+    }
+}
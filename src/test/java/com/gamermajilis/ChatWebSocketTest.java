@@ -0,0 +1,88 @@
+package com.gamermajilis;
+
+import com.gamermajilis.controller.ChatWebSocketController;
+import com.gamermajilis.service.ChatService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+
+@ExtendWith(MockitoExtension.class)
+public class ChatWebSocketTest {
+
+    @Mock
+    private ChatService chatService;
+
+    @InjectMocks
+    private ChatWebSocketController chatWebSocketController;
+
+    private final Principal principal = new UsernamePasswordAuthenticationToken("1", null);
+
+    @Test
+    void testSendMessage() {
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("success", true);
+        mockResponse.put("message", "Message sent successfully");
+        Mockito.when(chatService.sendMessage(eq(1L), eq(5L), argThat(data -> "Hello World".equals(data.get("content")))))
+                .thenReturn(mockResponse);
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("roomId", 5);
+        payload.put("content", "Hello World");
+
+        Map<String, Object> response = chatWebSocketController.sendMessage(payload, principal);
+
+        assertEquals(true, response.get("success"));
+        assertEquals("Message sent successfully", response.get("message"));
+    }
+
+    @Test
+    void testSendMessageWithoutRoomId() {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("content", "Hello World");
+
+        Map<String, Object> response = chatWebSocketController.sendMessage(payload, principal);
+
+        assertEquals(false, response.get("success"));
+        Mockito.verify(chatService, Mockito.never()).sendMessage(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void testDeleteMessage() {
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("success", true);
+        mockResponse.put("message", "Message deleted successfully");
+        Mockito.when(chatService.deleteMessage(eq(1L), eq(9L))).thenReturn(mockResponse);
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("messageId", 9);
+
+        Map<String, Object> response = chatWebSocketController.deleteMessage(payload, principal);
+
+        assertEquals(true, response.get("success"));
+    }
+
+    @Test
+    void testSendTypingIndicator() {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("roomId", 5);
+        payload.put("isTyping", true);
+
+        chatWebSocketController.sendTypingIndicator(payload, principal);
+
+        Mockito.verify(chatService).sendTypingIndicator(eq(1L), eq(5L), eq(true));
+    }
+}
\ No newline at end of file
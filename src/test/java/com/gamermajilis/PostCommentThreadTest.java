@@ -0,0 +1,128 @@
+package com.gamermajilis;
+
+import com.gamermajilis.model.AuthProvider;
+import com.gamermajilis.model.Post;
+import com.gamermajilis.model.User;
+import com.gamermajilis.repository.PostCommentRepository;
+import com.gamermajilis.repository.PostRepository;
+import com.gamermajilis.service.FeedService;
+import com.gamermajilis.service.PostService;
+import com.gamermajilis.service.PostServiceImpl;
+import com.gamermajilis.service.PostTagIndexService;
+import com.gamermajilis.service.TrendingHashtagService;
+import com.gamermajilis.service.ViewCountService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostServiceImpl.class, FeedService.class, ViewCountService.class, PostTagIndexService.class,
+         TrendingHashtagService.class})
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:post-comment-threads;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.show-sql=false"
+})
+public class PostCommentThreadTest {
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostCommentRepository postCommentRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User author;
+
+    private Long postId;
+
+    @BeforeEach
+    void setUp() {
+        author = entityManager.persist(new User("threads@example.com", "threader", AuthProvider.EMAIL));
+
+        Post post = new Post();
+        post.setTitle("Thread test");
+        post.setContent("Comments below");
+        post.setAuthor(author);
+        post.setModerationStatus("APPROVED");
+        post.refreshTrendingScore();
+        postId = entityManager.persist(post).getId();
+        entityManager.flush();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDeletedCommentWithRepliesStaysAsPlaceholder() {
+        Long rootId = commentId(postService.addComment(author.getId(), postId, "Root"));
+        Long replyId = commentId(postService.replyToComment(author.getId(), rootId, "Reply"));
+        Long nestedId = commentId(postService.replyToComment(author.getId(), replyId, "Nested reply"));
+
+        assertEquals(true, postService.deleteComment(author.getId(), rootId).get("success"));
+        assertEquals(true, postService.deleteComment(author.getId(), replyId).get("success"));
+        entityManager.clear();
+
+        // Both deleted comments stay reachable as placeholders above the live reply
+        List<Map<String, Object>> comments = (List<Map<String, Object>>) postService.getPostComments(postId, null, 10).get("comments");
+        assertEquals(1, comments.size());
+        assertEquals(rootId, comments.get(0).get("id"));
+        assertEquals(true, comments.get(0).get("isDeleted"));
+        assertEquals(null, comments.get(0).get("author"));
+
+        List<Map<String, Object>> replies = (List<Map<String, Object>>) postService.getCommentReplies(rootId, null, 10).get("replies");
+        assertEquals(2, replies.size());
+        assertEquals(replyId, replies.get(0).get("id"));
+        assertEquals(true, replies.get(0).get("isDeleted"));
+        assertEquals(nestedId, replies.get(1).get("id"));
+        assertEquals("Nested reply", replies.get(1).get("content"));
+
+        // Only live comments count towards the post
+        assertEquals(1L, postRepository.findById(postId).get().getCommentCount());
+
+        // Deleted comments cannot be replied to
+        assertEquals(false, postService.replyToComment(author.getId(), replyId, "Too late").get("success"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDeletingLastReplyRemovesPlaceholdersUpTheThread() {
+        Long rootId = commentId(postService.addComment(author.getId(), postId, "Root"));
+        Long replyId = commentId(postService.replyToComment(author.getId(), rootId, "Reply"));
+        Long nestedId = commentId(postService.replyToComment(author.getId(), replyId, "Nested reply"));
+
+        postService.deleteComment(author.getId(), rootId);
+        postService.deleteComment(author.getId(), replyId);
+        postService.deleteComment(author.getId(), nestedId);
+        entityManager.clear();
+
+        List<Map<String, Object>> comments = (List<Map<String, Object>>) postService.getPostComments(postId, null, 10).get("comments");
+        assertTrue(comments.isEmpty());
+        assertEquals(0L, postCommentRepository.findById(rootId).get().getReplyCount());
+        assertEquals(0L, postCommentRepository.findById(replyId).get().getReplyCount());
+        assertEquals(0L, postRepository.findById(postId).get().getCommentCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Long commentId(Map<String, Object> response) {
+        assertEquals(true, response.get("success"));
+        return (Long) ((Map<String, Object>) response.get("comment")).get("id");
+    }
+}
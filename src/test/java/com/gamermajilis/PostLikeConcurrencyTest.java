@@ -0,0 +1,151 @@
+package com.gamermajilis;
+
+import com.gamermajilis.model.AuthProvider;
+import com.gamermajilis.model.Post;
+import com.gamermajilis.model.User;
+import com.gamermajilis.repository.PostReactionRepository;
+import com.gamermajilis.repository.PostRepository;
+import com.gamermajilis.repository.UserRepository;
+import com.gamermajilis.service.FeedService;
+import com.gamermajilis.service.PostService;
+import com.gamermajilis.service.PostServiceImpl;
+import com.gamermajilis.service.PostTagIndexService;
+import com.gamermajilis.service.TrendingHashtagService;
+import com.gamermajilis.service.ViewCountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs against H2 in PostgreSQL mode so the ON CONFLICT inserts work, with every toggle
+// committing in its own transaction like real requests do
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostServiceImpl.class, FeedService.class, ViewCountService.class, PostTagIndexService.class,
+         TrendingHashtagService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:post-likes;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=30000",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.show-sql=false"
+})
+public class PostLikeConcurrencyTest {
+
+    private static final int USER_COUNT = 1000;
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostReactionRepository postReactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testParallelToggleLikeKeepsCountsExact() throws Exception {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USER_COUNT; i++) {
+            users.add(new User("liker" + i + "@example.com", "liker" + i, AuthProvider.EMAIL));
+        }
+        users = userRepository.saveAll(users);
+
+        Post post = new Post();
+        post.setTitle("Viral post");
+        post.setContent("Everyone likes this");
+        post.setAuthor(users.get(0));
+        post.setModerationStatus("APPROVED");
+        post.refreshTrendingScore();
+        Long postId = postRepository.save(post).getId();
+        double initialScore = postRepository.findById(postId).get().getTrendingScore();
+
+        // Every user likes the post, then every other user unlikes it, all in parallel
+        List<Long> toggles = new ArrayList<>();
+        for (User user : users) {
+            toggles.add(user.getId());
+        }
+        for (int i = 0; i < users.size(); i += 2) {
+            toggles.add(users.get(i).getId());
+        }
+
+        runInParallel(toggles.subList(0, USER_COUNT), postId);
+        assertEquals(USER_COUNT, postRepository.findLikeCount(postId));
+
+        List<Long> unlikes = new ArrayList<>(toggles.subList(USER_COUNT, toggles.size()));
+        Collections.shuffle(unlikes);
+        runInParallel(unlikes, postId);
+
+        long expectedLikes = USER_COUNT - unlikes.size();
+        assertEquals(expectedLikes, postRepository.findLikeCount(postId));
+        assertEquals(expectedLikes, postReactionRepository.countByPostId(postId));
+        assertTrue(postRepository.findById(postId).get().getTrendingScore() > initialScore);
+    }
+
+    @Test
+    void testUnlikeOnDriftedCountClampsAtZero() {
+        User user = userRepository.save(new User("drift@example.com", "drifter", AuthProvider.EMAIL));
+
+        Post post = new Post();
+        post.setTitle("Drifted post");
+        post.setContent("Counter out of sync");
+        post.setAuthor(user);
+        post.setModerationStatus("APPROVED");
+        post.refreshTrendingScore();
+        Long postId = postRepository.save(post).getId();
+
+        assertEquals(true, postService.toggleLike(user.getId(), postId).get("liked"));
+
+        // The reaction row exists but the counter has drifted down to zero
+        jdbcTemplate.update("UPDATE posts SET like_count = 0 WHERE id = ?", postId);
+
+        Map<String, Object> result = postService.toggleLike(user.getId(), postId);
+
+        assertEquals(true, result.get("success"));
+        assertEquals(false, result.get("liked"));
+        assertEquals(0L, postRepository.findLikeCount(postId));
+        assertEquals(0L, postReactionRepository.countByPostId(postId));
+        assertFalse(Double.isNaN(postRepository.findById(postId).get().getTrendingScore()));
+    }
+
+    private void runInParallel(List<Long> userIds, Long postId) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Map<String, Object>>> results = new ArrayList<>();
+            for (Long userId : userIds) {
+                results.add(executor.submit(() -> postService.toggleLike(userId, postId)));
+            }
+            for (Future<Map<String, Object>> result : results) {
+                assertEquals(true, result.get().get("success"));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.gamermajilis;
+
+import com.gamermajilis.model.*;
+import com.gamermajilis.repository.PostRepository;
+import com.gamermajilis.service.FeedService;
+import com.gamermajilis.service.PostService;
+import com.gamermajilis.service.PostServiceImpl;
+import com.gamermajilis.service.PostTagIndexService;
+import com.gamermajilis.service.TrendingHashtagService;
+import com.gamermajilis.service.ViewCountService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+@DataJpaTest
+@Import({PostServiceImpl.class, FeedService.class, ViewCountService.class, PostTagIndexService.class,
+         TrendingHashtagService.class})
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class PostQueryCountTest {
+
+    private static final int POST_COUNT = 12;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    // Spied so the PostgreSQL-only full-text query can be stubbed; everything else runs against H2
+    @SpyBean
+    private PostRepository postRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<User> authors = new ArrayList<>();
+
+    private final List<Post> posts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Every post has its own author and its own attachment, so lazy loading would cost two queries per post
+        for (int i = 0; i < POST_COUNT; i++) {
+            User author = new User("author" + i + "@example.com", "author" + i, AuthProvider.EMAIL);
+            entityManager.persist(author);
+            authors.add(author);
+
+            Media media = new Media("Clip " + i, "clip" + i + ".mp4", "stored-clip-" + i + ".mp4",
+                    "/tmp/clip" + i + ".mp4", "video/mp4", MediaType.VIDEO, 1024L, author);
+            entityManager.persist(media);
+
+            Post post = new Post();
+            post.setTitle("Post " + i);
+            post.setContent("Content " + i);
+            post.setAuthor(author);
+            post.setModerationStatus("APPROVED");
+            post.setAttachedMedia(List.of(media));
+            post.refreshTrendingScore();
+            entityManager.persist(post);
+            posts.add(post);
+        }
+        entityManager.flush();
+    }
+
+    @Test
+    void testFeedPageQueryCountDoesNotGrowWithPageSize() {
+        long smallPageQueries = countFeedPageQueries(3);
+        long largePageQueries = countFeedPageQueries(POST_COUNT);
+
+        assertEquals(smallPageQueries, largePageQueries);
+    }
+
+    @Test
+    void testCommentPageQueryCountDoesNotGrowWithPageSize() {
+        // Each top-level comment gets replies from other authors, so per-comment loading would show in the count
+        Post post = posts.get(0);
+        for (int i = 0; i < POST_COUNT; i++) {
+            PostComment comment = persistComment(post, authors.get(i), null);
+            for (int j = 1; j <= 4; j++) {
+                persistComment(post, authors.get((i + j) % POST_COUNT), comment);
+            }
+        }
+        entityManager.flush();
+
+        long smallPageQueries = countCommentPageQueries(post.getId(), 3);
+        long largePageQueries = countCommentPageQueries(post.getId(), POST_COUNT);
+
+        assertEquals(smallPageQueries, largePageQueries);
+    }
+
+    @Test
+    void testSearchPageQueryCountDoesNotGrowWithPageSize() {
+        // Stands in for the tsvector query: every post matches, best score first
+        doAnswer(invocation -> {
+            int maxResults = invocation.getArgument(4);
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = posts.size() - 1; i >= 0 && rows.size() < maxResults; i--) {
+                rows.add(new Object[] { posts.get(i).getId(), (double) i });
+            }
+            return rows;
+        }).when(postRepository).searchPostIds(anyString(), any(), anyDouble(), anyLong(), anyInt());
+
+        long smallPageQueries = countPageQueries(() -> postService.searchPosts("content", null, 3, null), 3);
+        long largePageQueries = countPageQueries(() -> postService.searchPosts("content", null, POST_COUNT, null), POST_COUNT);
+
+        assertEquals(smallPageQueries, largePageQueries);
+    }
+
+    @Test
+    void testTrendingPageQueryCountDoesNotGrowWithPageSize() {
+        long smallPageQueries = countPageQueries(() -> postService.getTrendingPosts(3, 7), 3);
+        long largePageQueries = countPageQueries(() -> postService.getTrendingPosts(POST_COUNT, 7), POST_COUNT);
+
+        assertEquals(smallPageQueries, largePageQueries);
+    }
+
+    private long countFeedPageQueries(int size) {
+        return countPageQueries(() -> postService.getPostsFeed(0, size, new HashMap<>()), size);
+    }
+
+    // Runs one page request and returns the statements it prepared, after checking that
+    // every post on the page came back with its author and attachment
+    @SuppressWarnings("unchecked")
+    private long countPageQueries(Supplier<Map<String, Object>> request, int size) {
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Map<String, Object> response = request.get();
+
+        assertEquals(true, response.get("success"));
+        List<Map<String, Object>> posts = (List<Map<String, Object>>) response.get("posts");
+        assertEquals(size, posts.size());
+        for (Map<String, Object> post : posts) {
+            assertTrue(((Map<String, Object>) post.get("author")).get("displayName").toString().startsWith("author"));
+            assertEquals(1, ((List<?>) post.get("attachedMedia")).size());
+        }
+        return statistics.getPrepareStatementCount();
+    }
+
+    @SuppressWarnings("unchecked")
+    private long countCommentPageQueries(Long postId, int size) {
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Map<String, Object> response = postService.getPostComments(postId, null, size);
+
+        List<Map<String, Object>> comments = (List<Map<String, Object>>) response.get("comments");
+        assertEquals(size, comments.size());
+        for (Map<String, Object> comment : comments) {
+            List<Map<String, Object>> replies = (List<Map<String, Object>>) comment.get("replies");
+            assertEquals(3, replies.size());
+            for (Map<String, Object> reply : replies) {
+                assertEquals(comment.get("id"), reply.get("parentCommentId"));
+                assertEquals(1, reply.get("depth"));
+                assertTrue(((Map<String, Object>) reply.get("author")).get("displayName").toString().startsWith("author"));
+            }
+        }
+        return statistics.getPrepareStatementCount();
+    }
+
+    private PostComment persistComment(Post post, User author, PostComment parent) {
+        PostComment comment = new PostComment(post, author, "Comment by " + author.getDisplayName());
+        comment.setParentComment(parent);
+        entityManager.persist(comment);
+        comment.assignPath();
+        return comment;
+    }
+}
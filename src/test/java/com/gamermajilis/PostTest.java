@@ -171,4 +171,74 @@ public class PostTest {
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.message").value("Comment deleted successfully"));
     }
+
+    @Test
+    void testGetHomeFeed() throws Exception {
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("success", true);
+        mockResponse.put("message", "Home feed retrieved");
+        mockResponse.put("nextCursor", "MTIz");
+        mockResponse.put("hasMore", true);
+
+        Mockito.when(postService.getHomeFeed(eq(1L), eq("NDU2"), eq(10))).thenReturn(mockResponse);
+
+        mockMvc.perform(get("/posts/feed/home")
+                .header("Authorization", "Bearer mockToken")
+                .param("cursor", "NDU2")
+                .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("MTIz"))
+                .andExpect(jsonPath("$.hasMore").value(true));
+    }
+
+    @Test
+    void testSearchPosts() throws Exception {
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("success", true);
+        mockResponse.put("message", "Posts search completed");
+        mockResponse.put("fuzzyMatch", false);
+        mockResponse.put("hasMore", false);
+
+        Mockito.when(postService.searchPosts(eq("valorant clutch"), eq(null), eq(20), eq("FPS"))).thenReturn(mockResponse);
+
+        mockMvc.perform(get("/posts/search")
+                .param("query", "valorant clutch")
+                .param("gameCategory", "FPS"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.fuzzyMatch").value(false));
+    }
+
+    @Test
+    void testReplyToComment() throws Exception {
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("success", true);
+        mockResponse.put("message", "Reply added successfully");
+
+        Mockito.when(postService.replyToComment(eq(1L), eq(5L), eq("Test Reply"))).thenReturn(mockResponse);
+
+        mockMvc.perform(post("/posts/comments/5/replies")
+                .header("Authorization", "Bearer mockToken")
+                .param("content", "Test Reply"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.message").value("Reply added successfully"));
+    }
+
+    @Test
+    void testGetPostsByHashtag() throws Exception {
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("success", true);
+        mockResponse.put("message", "Hashtag posts retrieved");
+        mockResponse.put("hashtag", "speedrun");
+        mockResponse.put("hasMore", false);
+
+        Mockito.when(postService.getPostsByHashtag(eq("Speedrun"), eq(null), eq(20))).thenReturn(mockResponse);
+
+        mockMvc.perform(get("/posts/hashtags/Speedrun"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.hashtag").value("speedrun"));
+    }
 }
\ No newline at end of file
@@ -155,4 +155,21 @@ public class ProfileTest {
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.suggestions").isEmpty());
     }
+
+    @Test
+    void testFollowUser() throws Exception {
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("success", true);
+        mockResponse.put("message", "User followed successfully");
+        mockResponse.put("followerCount", 5);
+
+        Mockito.when(profileService.followUser(eq(1L), eq(2L))).thenReturn(mockResponse);
+
+        mockMvc.perform(post("/profile/2/follow")
+                .header("Authorization", "Bearer mockToken"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.message").value("User followed successfully"))
+                .andExpect(jsonPath("$.followerCount").value(5));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.gamermajilis;
+
+import com.gamermajilis.model.AuthProvider;
+import com.gamermajilis.model.ChatRoom;
+import com.gamermajilis.model.ChatRoomType;
+import com.gamermajilis.model.User;
+import com.gamermajilis.repository.ChatRoomRepository;
+import com.gamermajilis.security.StompAuthChannelInterceptor;
+import com.gamermajilis.service.ChatMembershipCache;
+import com.gamermajilis.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+@ExtendWith(MockitoExtension.class)
+public class StompAuthChannelInterceptorTest {
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private ChatRoomRepository chatRoomRepository;
+
+    @Mock
+    private ChatMembershipCache chatMembershipCache;
+
+    @Mock
+    private MessageChannel channel;
+
+    @InjectMocks
+    private StompAuthChannelInterceptor interceptor;
+
+    @Test
+    void testMemberCanSubscribeToRoomChannels() {
+        ChatRoom room = room(10L);
+        Mockito.when(chatRoomRepository.findById(10L)).thenReturn(Optional.of(room));
+        Mockito.when(chatMembershipCache.canAccess(room, 1L)).thenReturn(true);
+
+        for (String destination : List.of("/topic/rooms/10", "/topic/rooms/10/typing", "/topic/rooms/10/presence")) {
+            Message<byte[]> message = frame(StompCommand.SUBSCRIBE, destination);
+            assertSame(message, interceptor.preSend(message, channel));
+        }
+    }
+
+    @Test
+    void testNonMemberCannotSubscribeToPrivateRoom() {
+        ChatRoom room = room(10L);
+        Mockito.when(chatRoomRepository.findById(10L)).thenReturn(Optional.of(room));
+
+        assertThrows(MessagingException.class,
+                () -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/rooms/10"), channel));
+    }
+
+    @Test
+    void testWildcardAndUnknownSubscriptionsAreRefused() {
+        for (String destination : List.of("/topic/**", "/topic/rooms*", "/topic/rooms/**", "/topic/rooms/{id}",
+                "/topic/rooms/1?", "/topic/rooms/abc", "/topic/rooms/10/secret", "/topic/user-registry",
+                "/queue/chat.replies", "/user/queue/*")) {
+            assertThrows(MessagingException.class,
+                    () -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, destination), channel), destination);
+        }
+        Mockito.verify(chatRoomRepository, Mockito.never()).findById(anyLong());
+    }
+
+    @Test
+    void testOwnReplyQueueSubscriptionIsAllowed() {
+        Message<byte[]> message = frame(StompCommand.SUBSCRIBE, "/user/queue/chat.replies");
+
+        assertSame(message, interceptor.preSend(message, channel));
+    }
+
+    @Test
+    void testSendOnlyReachesApplicationDestinations() {
+        Message<byte[]> message = frame(StompCommand.SEND, "/app/chat.sendMessage");
+        assertSame(message, interceptor.preSend(message, channel));
+
+        for (String destination : List.of("/topic/rooms/10", "/topic/rooms/10/typing", "/queue/chat.replies",
+                "/user/2/queue/chat.replies")) {
+            assertThrows(MessagingException.class,
+                    () -> interceptor.preSend(frame(StompCommand.SEND, destination), channel), destination);
+        }
+    }
+
+    // Helper methods
+
+    private Message<byte[]> frame(StompCommand command, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setDestination(destination);
+        accessor.setUser(new UsernamePasswordAuthenticationToken("1", null));
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static ChatRoom room(Long id) {
+        User creator = new User("creator@example.com", "creator", AuthProvider.EMAIL);
+        creator.setId(2L);
+        ChatRoom room = new ChatRoom("Room " + id, ChatRoomType.GROUP, creator);
+        room.setId(id);
+        room.setIsPrivate(true);
+        return room;
+    }
+}
@@ -0,0 +1,61 @@
+package com.gamermajilis;
+
+import com.gamermajilis.service.TrendingHashtagService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Drives the after-commit hook by hand: synchronization is opened on the test thread and
+// the registered callbacks are fired as a commit or a rollback would
+public class TrendingHashtagServiceTest {
+
+    private TrendingHashtagService trendingHashtagService;
+
+    @BeforeEach
+    void setUp() {
+        trendingHashtagService = new TrendingHashtagService();
+        ReflectionTestUtils.setField(trendingHashtagService, "windowMinutes", 60);
+        ReflectionTestUtils.setField(trendingHashtagService, "bucketMinutes", 5);
+        ReflectionTestUtils.setField(trendingHashtagService, "maxHashtagsPerBucket", 100);
+        ReflectionTestUtils.setField(trendingHashtagService, "refreshIntervalMs", 0L);
+        trendingHashtagService.init();
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testHashtagsAreCountedOnlyAfterCommit() {
+        trendingHashtagService.recordAfterCommit(List.of("speedrun"), LocalDateTime.now());
+
+        assertTrue(trendingHashtagService.getTrending(10).isEmpty());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals("speedrun", trendingHashtagService.getTrending(10).get(0).get("hashtag"));
+    }
+
+    @Test
+    void testRolledBackPostIsNeverCounted() {
+        trendingHashtagService.recordAfterCommit(List.of("speedrun"), LocalDateTime.now());
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertTrue(trendingHashtagService.getTrending(10).isEmpty());
+    }
+}